@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.cyclefinder;
+
+import com.google.common.collect.SetMultimap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of a reference graph's edges, with the nodes numbered
+ * from zero and each node's edges stored contiguously in arrays (compressed
+ * sparse rows). The order of the nodes and each node's edges matches the
+ * iteration order of the edge multimap, so searches of both visit the nodes
+ * in the same order.
+ */
+class CompactGraph {
+
+  private final List<TypeNode> nodes = new ArrayList<>();
+  private final Map<TypeNode, Integer> ids = new HashMap<>();
+  // The edges of node i are at indexes offsets[i] to offsets[i + 1] - 1.
+  private final int[] offsets;
+  private final int[] targets;
+  private final Edge[] edges;
+
+  CompactGraph(SetMultimap<TypeNode, Edge> edgeMap) {
+    for (TypeNode node : edgeMap.keySet()) {
+      getOrAddId(node);
+    }
+    int origins = nodes.size();
+    offsets = new int[origins + 1];
+    targets = new int[edgeMap.size()];
+    edges = new Edge[edgeMap.size()];
+    int i = 0;
+    for (int id = 0; id < origins; id++) {
+      offsets[id] = i;
+      for (Edge e : edgeMap.get(nodes.get(id))) {
+        targets[i] = getOrAddId(e.getTarget());
+        edges[i++] = e;
+      }
+    }
+    offsets[origins] = i;
+  }
+
+  private int getOrAddId(TypeNode node) {
+    Integer id = ids.get(node);
+    if (id == null) {
+      id = nodes.size();
+      ids.put(node, id);
+      nodes.add(node);
+    }
+    return id;
+  }
+
+  /**
+   * Returns the number of nodes, including nodes without edges of their own.
+   */
+  int size() {
+    return nodes.size();
+  }
+
+  /**
+   * Returns the ID of a node, or -1 if it isn't in the graph.
+   */
+  int getId(TypeNode node) {
+    Integer id = ids.get(node);
+    return id != null ? id : -1;
+  }
+
+  TypeNode getNode(int id) {
+    return nodes.get(id);
+  }
+
+  /**
+   * Returns the index of the first edge of a node.
+   */
+  int edgesStart(int id) {
+    // Targets without edges of their own were numbered after the origins.
+    return id < offsets.length - 1 ? offsets[id] : 0;
+  }
+
+  /**
+   * Returns the index after the last edge of a node.
+   */
+  int edgesEnd(int id) {
+    return id < offsets.length - 1 ? offsets[id + 1] : 0;
+  }
+
+  int getTarget(int edgeIndex) {
+    return targets[edgeIndex];
+  }
+
+  Edge getEdge(int edgeIndex) {
+    return edges[edgeIndex];
+  }
+}
@@ -14,11 +14,13 @@
 
 package com.google.devtools.cyclefinder;
 
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.common.io.Files;
 import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.PackageDeclaration;
 import com.google.devtools.j2objc.file.RegularInputFile;
 import com.google.devtools.j2objc.translate.LambdaTypeElementAdder;
 import com.google.devtools.j2objc.translate.OuterReferenceResolver;
@@ -32,9 +34,12 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * A tool for finding possible reference cycles in a Java program.
@@ -142,6 +147,11 @@ public class CycleFinder {
     final GraphBuilder graphBuilder =
         new GraphBuilder(suppressList, options.externalAnnotations());
 
+    if (options.getGraphCacheFile() != null) {
+      constructCachedGraph(parser, suppressList, graphBuilder);
+      return;
+    }
+
     List<String> sourceFiles = options.getSourceFiles();
     File strippedDir = stripIncompatible(sourceFiles, parser);
 
@@ -165,10 +175,96 @@ public class CycleFinder {
     referenceGraph = graphBuilder.constructGraph().getGraph();
   }
 
+  /**
+   * Constructs the graph from the unit graphs in the graph cache, parsing only
+   * the source files whose cache entries are missing or out of date.
+   */
+  private void constructCachedGraph(
+      Parser parser, NameList suppressList, GraphBuilder graphBuilder) throws IOException {
+    GraphCache cache = GraphCache.load(options, j2objcOptions.fileUtil());
+    List<String> sourceFiles = options.getSourceFiles();
+    // Strip all source files, so unparsed ones are also found stripped on the sourcepath.
+    List<String> parsedFiles = new ArrayList<>(sourceFiles);
+    File strippedDir = stripIncompatible(parsedFiles, parser);
+    Map<String, String> originalPaths = new HashMap<>();
+    Map<String, String> strippedPaths = new HashMap<>();
+    for (int i = 0; i < sourceFiles.size(); i++) {
+      originalPaths.put(normalizePath(parsedFiles.get(i)), sourceFiles.get(i));
+      strippedPaths.put(sourceFiles.get(i), parsedFiles.get(i));
+    }
+
+    Parser.Handler handler = new Parser.Handler() {
+      @Override
+      public void handleParsedUnit(String path, CompilationUnit unit) {
+        new LambdaTypeElementAdder(unit).run();
+        new OuterReferenceResolver(unit).run();
+        // Each unit gets its own builder, so its graph includes every type it reaches.
+        GraphBuilder unitBuilder = new GraphBuilder(suppressList, options.externalAnnotations());
+        unitBuilder.visitAST(unit);
+        String originalPath = originalPaths.get(normalizePath(path));
+        if (originalPath != null) {
+          cache.put(originalPath, getSourceRoot(originalPath, unit), unitBuilder.getUnitGraph());
+        }
+      }
+    };
+    List<String> invalidFiles = cache.getInvalidFiles(sourceFiles);
+    parser.addSourcepathEntries(cache.getSourceRoots());
+    while (!invalidFiles.isEmpty() && ErrorUtil.errorCount() == 0) {
+      List<String> files = new ArrayList<>();
+      for (String path : invalidFiles) {
+        files.add(strippedPaths.get(path));
+      }
+      parser.parseFiles(files, handler, options.sourceVersion());
+      invalidFiles = cache.getDependentFiles();
+    }
+
+    FileUtil.deleteTempDir(strippedDir);
+
+    if (ErrorUtil.errorCount() > 0) {
+      return;
+    }
+
+    for (UnitGraph unitGraph : cache.getUnitGraphs(sourceFiles)) {
+      graphBuilder.addUnitGraph(unitGraph);
+    }
+    cache.save();
+    referenceGraph = graphBuilder.constructGraph().getGraph();
+  }
+
+  private static String normalizePath(String path) {
+    return new File(path).toPath().toAbsolutePath().normalize().toString();
+  }
+
+  /**
+   * Returns the directory that contains a source file's package directories,
+   * or null if the source file isn't in a directory that matches its package.
+   */
+  private static String getSourceRoot(String path, CompilationUnit unit) {
+    File dir = new File(path).getAbsoluteFile().getParentFile();
+    PackageDeclaration packageDecl = unit.getPackage();
+    if (packageDecl != null && !packageDecl.isDefaultPackage()) {
+      List<String> packageNames =
+          Splitter.on('.').splitToList(packageDecl.getName().getFullyQualifiedName());
+      for (int i = packageNames.size() - 1; i >= 0; i--) {
+        if (dir == null || !dir.getName().equals(packageNames.get(i))) {
+          return null;
+        }
+        dir = dir.getParentFile();
+      }
+    }
+    return dir != null ? dir.getPath() : null;
+  }
+
   public List<List<Edge>> findCycles() {
-    for (ReferenceGraph component :
-        referenceGraph.getStronglyConnectedComponents(getSeedNodes(referenceGraph))) {
-      handleStronglyConnectedComponent(component);
+    List<ReferenceGraph> components =
+        referenceGraph.getStronglyConnectedComponents(getSeedNodes(referenceGraph));
+    // The components are searched in parallel, but their cycles are added in
+    // order, so the output doesn't depend on scheduling.
+    List<List<List<Edge>>> componentCycles = components.parallelStream()
+        .map(this::findComponentCycles)
+        .collect(Collectors.toList());
+    for (List<List<Edge>> c : componentCycles) {
+      cycles.addAll(c);
     }
     return cycles;
   }
@@ -186,7 +282,8 @@ public class CycleFinder {
     return seedNodes;
   }
 
-  private void handleStronglyConnectedComponent(ReferenceGraph subgraph) {
+  private List<List<Edge>> findComponentCycles(ReferenceGraph subgraph) {
+    List<List<Edge>> componentCycles = new ArrayList<>();
     // Make sure to find at least one cycle for each type in the SCC.
     Set<TypeNode> unusedTypes = Sets.newHashSet(subgraph.getNodes());
     while (!unusedTypes.isEmpty()) {
@@ -194,12 +291,13 @@ public class CycleFinder {
       assert root != null;
       List<Edge> cycle = subgraph.findShortestCycle(root);
       if (shouldAddCycle(cycle)) {
-        cycles.add(cycle);
+        componentCycles.add(cycle);
       }
       for (Edge e : cycle) {
         unusedTypes.remove(e.getOrigin());
       }
     }
+    return componentCycles;
   }
 
   public ReferenceGraph getReferenceGraph() {
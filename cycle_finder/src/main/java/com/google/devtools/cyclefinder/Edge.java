@@ -15,11 +15,14 @@
 package com.google.devtools.cyclefinder;
 
 import com.google.common.base.Objects;
+import java.io.Serializable;
 
 /**
  * Represents a possible reference from one type to another.
  */
-class Edge {
+class Edge implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private final TypeNode origin;
   private final TypeNode target;
@@ -37,11 +37,14 @@ import com.google.devtools.j2objc.util.TypeUtil;
 import com.google.j2objc.annotations.RetainedWith;
 import com.google.j2objc.annotations.Weak;
 import com.google.j2objc.annotations.WeakOuter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
@@ -72,6 +75,8 @@ public class GraphBuilder {
   private final SetMultimap<TypeNode, TypeNode> subtypes = HashMultimap.create();
   private final SetMultimap<TypeNode, Edge> possibleOuterEdges = HashMultimap.create();
   private final Set<TypeNode> hasOuterRef = new HashSet<>();
+  private final Set<String> declaredTypes = new HashSet<>();
+  private final Set<String> referencedTypes = new HashSet<>();
 
   public GraphBuilder(NameList suppressList, ExternalAnnotations externalAnnotations) {
     this.suppressList = suppressList;
@@ -89,6 +94,35 @@ public class GraphBuilder {
     return graph;
   }
 
+  /**
+   * Returns the types and edges found by the visited units, without the
+   * edges added by constructGraph().
+   */
+  UnitGraph getUnitGraph() {
+    List<Edge> edges = new ArrayList<>();
+    for (TypeNode node : graph.getNodes()) {
+      edges.addAll(graph.getEdges(node));
+    }
+    return new UnitGraph(allTypes.values(), edges, superclasses, subtypes, possibleOuterEdges,
+        hasOuterRef, declaredTypes, referencedTypes);
+  }
+
+  /**
+   * Adds the types and edges of a unit graph, as if its unit was visited.
+   */
+  void addUnitGraph(UnitGraph unitGraph) {
+    for (TypeNode node : unitGraph.nodes) {
+      allTypes.putIfAbsent(node.getSignature(), node);
+    }
+    for (Edge e : unitGraph.edges) {
+      addEdge(e);
+    }
+    superclasses.putAll(unitGraph.superclasses);
+    subtypes.putAll(unitGraph.subtypes);
+    possibleOuterEdges.putAll(unitGraph.possibleOuterEdges);
+    hasOuterRef.addAll(unitGraph.hasOuterRef);
+  }
+
   private void addEdge(Edge e) {
     if (!e.getOrigin().equals(e.getTarget())) {
       graph.addEdge(e);
@@ -188,6 +222,19 @@ public class GraphBuilder {
         && ((DeclaredType) type).getTypeArguments().isEmpty();
   }
 
+  private static void addTopLevelName(Set<String> names, TypeElement type) {
+    Element element = type;
+    while (element.getEnclosingElement() != null
+        && !(element.getEnclosingElement() instanceof PackageElement)) {
+      element = element.getEnclosingElement();
+    }
+    String name = element instanceof TypeElement
+        ? ElementUtil.getQualifiedName((TypeElement) element) : "";
+    if (!name.isEmpty()) {
+      names.add(name);
+    }
+  }
+
   public void visitAST(CompilationUnit unit) {
     new Visitor(unit).run();
   }
@@ -206,6 +253,9 @@ public class GraphBuilder {
     private TypeNode createNode(TypeMirror type, String signature, String name) {
       TypeNode node = new TypeNode(signature, name, NameUtil.getQualifiedName(type));
       allTypes.put(signature, node);
+      if (TypeUtil.isDeclaredType(type)) {
+        addTopLevelName(referencedTypes, TypeUtil.asTypeElement(type));
+      }
       followType(type, node);
       return node;
     }
@@ -377,6 +427,7 @@ public class GraphBuilder {
       TypeMirror type = typeElem.asType();
       TypeNode typeNode = createNode(
           type, nameUtil.getSignature(type), getTypeDeclarationName(node, typeElem));
+      addTopLevelName(declaredTypes, typeElem);
       if (captureInfo.needsOuterReference(typeElem)) {
         hasOuterRef.add(typeNode);
       }
@@ -0,0 +1,317 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.cyclefinder;
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.file.InputFile;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.FileUtil;
+import com.google.devtools.j2objc.util.Version;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An on-disk cache of the reference graph, enabled by the --graph-cache flag.
+ * <p/>
+ * Each source file has an entry keyed by its path, with a hash of its
+ * contents, its unit graph, and the hash of each top-level type the unit
+ * graph depends on. Types declared by a source file are hashed by that file's
+ * contents; other types are hashed by the source or class file found on the
+ * sourcepath or classpath. An entry is reused while all of these hashes
+ * match, so only changed source files and the source files that depend on
+ * them are parsed again. The subtype, outer and superclass edges are always
+ * recomputed from the merged unit graphs.
+ */
+class GraphCache {
+
+  private static final int VERSION = 1;
+  private static final String MISSING_HASH = "-";
+
+  private final File cacheFile;
+  private final String optionsHash;
+  private final FileUtil fileUtil;
+  private final Map<String, Entry> entries = new HashMap<>();
+  // The current hashes of the source files and of the types found on paths.
+  private final Map<String, String> sourceHashes = new HashMap<>();
+  private final Map<String, String> typeHashes = new HashMap<>();
+  // The source file that declares each top-level type.
+  private final Map<String, String> typeSources = new HashMap<>();
+
+  private static class Entry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String hash;
+    private final String sourceRoot;
+    private final UnitGraph graph;
+    // The hash of each referenced type, set when the entry is saved.
+    private Map<String, String> dependencies = null;
+
+    private Entry(String hash, String sourceRoot, UnitGraph graph) {
+      this.hash = hash;
+      this.sourceRoot = sourceRoot;
+      this.graph = graph;
+    }
+  }
+
+  private GraphCache(File cacheFile, String optionsHash, FileUtil fileUtil) {
+    this.cacheFile = cacheFile;
+    this.optionsHash = optionsHash;
+    this.fileUtil = fileUtil;
+  }
+
+  /**
+   * Loads the cache file named by the options. The cache starts out empty if
+   * the file doesn't exist, can't be read, or was written with different
+   * options.
+   */
+  @SuppressWarnings("unchecked")
+  static GraphCache load(Options options, FileUtil fileUtil) {
+    GraphCache cache =
+        new GraphCache(options.getGraphCacheFile(), hashOptions(options), fileUtil);
+    if (!cache.cacheFile.exists()) {
+      return cache;
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(
+        new BufferedInputStream(new FileInputStream(cache.cacheFile))))) {
+      if (in.readInt() == VERSION && in.readUTF().equals(cache.optionsHash)) {
+        cache.entries.putAll((Map<String, Entry>) in.readObject());
+      }
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // A damaged cache is rebuilt from scratch.
+      cache.entries.clear();
+    }
+    return cache;
+  }
+
+  /**
+   * Drops the entries of removed, changed and invalidated source files, and
+   * returns the source files that need to be parsed.
+   */
+  List<String> getInvalidFiles(List<String> sourceFiles) {
+    entries.keySet().retainAll(new HashSet<>(sourceFiles));
+    for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+      for (String type : mapEntry.getValue().graph.declaredTypes) {
+        typeSources.put(type, mapEntry.getKey());
+      }
+    }
+    Set<String> invalidFiles = new LinkedHashSet<>();
+    for (String path : sourceFiles) {
+      String hash = hashFile(new File(path));
+      sourceHashes.put(path, hash);
+      Entry entry = entries.get(path);
+      if (entry == null || !entry.hash.equals(hash)) {
+        invalidFiles.add(path);
+      }
+    }
+    entries.keySet().removeAll(invalidFiles);
+    invalidFiles.addAll(removeStaleEntries());
+    return new ArrayList<>(invalidFiles);
+  }
+
+  /**
+   * Returns the source files that need to be parsed again because of the
+   * types declared by newly parsed source files, such as a type that moved
+   * from the classpath to a source file.
+   */
+  List<String> getDependentFiles() {
+    return removeStaleEntries();
+  }
+
+  private List<String> removeStaleEntries() {
+    List<String> staleFiles = new ArrayList<>();
+    for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<String, Entry> mapEntry = it.next();
+      Map<String, String> dependencies = mapEntry.getValue().dependencies;
+      if (dependencies == null) {
+        continue;  // Parsed in this run.
+      }
+      for (Map.Entry<String, String> dependency : dependencies.entrySet()) {
+        if (!dependency.getValue().equals(hashType(dependency.getKey()))) {
+          staleFiles.add(mapEntry.getKey());
+          it.remove();
+          break;
+        }
+      }
+    }
+    return staleFiles;
+  }
+
+  /**
+   * Returns the source roots of the cached source files, so that source files
+   * can be resolved when they aren't parsed.
+   */
+  Set<String> getSourceRoots() {
+    Set<String> sourceRoots = new LinkedHashSet<>();
+    for (Entry entry : entries.values()) {
+      if (entry.sourceRoot != null) {
+        sourceRoots.add(entry.sourceRoot);
+      }
+    }
+    return sourceRoots;
+  }
+
+  /**
+   * Adds the unit graph of a parsed source file.
+   */
+  void put(String path, String sourceRoot, UnitGraph graph) {
+    entries.put(path, new Entry(sourceHashes.get(path), sourceRoot, graph));
+    for (String type : graph.declaredTypes) {
+      typeSources.put(type, path);
+    }
+  }
+
+  /**
+   * Returns the unit graphs of the source files, in source file order.
+   */
+  List<UnitGraph> getUnitGraphs(List<String> sourceFiles) {
+    List<UnitGraph> graphs = new ArrayList<>();
+    for (String path : sourceFiles) {
+      Entry entry = entries.get(path);
+      if (entry != null) {
+        graphs.add(entry.graph);
+      }
+    }
+    return graphs;
+  }
+
+  /**
+   * Writes the cache file, after hashing the types referenced by newly
+   * parsed source files.
+   */
+  void save() {
+    for (Entry entry : entries.values()) {
+      if (entry.dependencies == null) {
+        entry.dependencies = new HashMap<>();
+        for (String type : entry.graph.referencedTypes) {
+          entry.dependencies.put(type, hashType(type));
+        }
+      }
+    }
+    // Write to a temporary file first, so an interrupted save can't leave
+    // a truncated cache.
+    File tempFile = new File(cacheFile.getPath() + ".tmp");
+    try {
+      Files.createParentDirs(tempFile);
+      try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(
+          new BufferedOutputStream(new FileOutputStream(tempFile))))) {
+        out.writeInt(VERSION);
+        out.writeUTF(optionsHash);
+        out.writeObject(new HashMap<>(entries));
+      }
+      Files.move(tempFile, cacheFile);
+    } catch (IOException e) {
+      tempFile.delete();
+      ErrorUtil.warning("cannot write graph cache " + cacheFile + ": " + e.getMessage());
+    }
+  }
+
+  private String hashType(String qualifiedName) {
+    String path = typeSources.get(qualifiedName);
+    if (path != null) {
+      return sourceHashes.get(path);
+    }
+    return typeHashes.computeIfAbsent(qualifiedName, this::hashTypeOnPaths);
+  }
+
+  private String hashTypeOnPaths(String qualifiedName) {
+    try {
+      InputFile file = fileUtil.findTypeOnSourcePath(qualifiedName);
+      if (file == null) {
+        file = fileUtil.findTypeOnClassPath(qualifiedName);
+      }
+      if (file == null) {
+        // Bootclasspath types; these are covered by the options hash.
+        return MISSING_HASH;
+      }
+      Hasher hasher = Hashing.sha256().newHasher();
+      try (InputStream in = file.getInputStream();
+          OutputStream out = Funnels.asOutputStream(hasher)) {
+        ByteStreams.copy(in, out);
+      }
+      return hasher.hash().toString();
+    } catch (IOException e) {
+      return MISSING_HASH;
+    }
+  }
+
+  private static String hashFile(File file) {
+    try {
+      return Files.asByteSource(file).hash(Hashing.sha256()).toString();
+    } catch (IOException e) {
+      // Unreadable files are never cached, and fail when parsed.
+      return MISSING_HASH;
+    }
+  }
+
+  /**
+   * Hashes the tool version and the options that affect the reference graph.
+   * Files named by options are hashed by content, except for bootclasspath
+   * entries, which are hashed by size and modification time.
+   */
+  private static String hashOptions(Options options) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    List<String> values = new ArrayList<>();
+    values.add(Version.jarVersion(Options.class));
+    values.add(System.getProperty("java.version"));
+    values.add(Strings.nullToEmpty(options.getSourcepath()));
+    values.add(Strings.nullToEmpty(options.getClasspath()));
+    values.add(Strings.nullToEmpty(options.getBootclasspath()));
+    values.add(options.fileEncoding());
+    values.add(options.sourceVersion().flag());
+    values.addAll(options.getPlatformModuleSystemOptions());
+    for (String value : values) {
+      hasher.putString(value, StandardCharsets.UTF_8);
+      hasher.putByte((byte) 0);
+    }
+    List<String> files = new ArrayList<>(options.getSuppressListFiles());
+    files.addAll(options.getExternalAnnotationFiles());
+    for (String file : files) {
+      hasher.putString(file, StandardCharsets.UTF_8);
+      hasher.putString(hashFile(new File(file)), StandardCharsets.UTF_8);
+    }
+    for (String entry : Strings.nullToEmpty(options.getBootclasspath()).split(File.pathSeparator)) {
+      File f = new File(entry);
+      hasher.putLong(f.length());
+      hasher.putLong(f.lastModified());
+    }
+    return hasher.hash().toString();
+  }
+}
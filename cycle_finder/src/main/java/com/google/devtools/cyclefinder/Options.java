@@ -67,6 +67,8 @@ class Options {
   private boolean printReferenceGraph = false;
   private SourceVersion sourceVersion = null;
   private final ExternalAnnotations externalAnnotations = new ExternalAnnotations();
+  private final List<String> externalAnnotationFiles = new ArrayList<>();
+  private File graphCacheFile = null;
 
   // Flags that are directly forwarded to the javac parser.
   private static final ImmutableSet<String> PLATFORM_MODULE_SYSTEM_OPTIONS =
@@ -156,6 +158,24 @@ class Options {
   @VisibleForTesting
   public void addExternalAnnotationFile(String file) throws IOException {
     externalAnnotations.addExternalAnnotationFile(file);
+    externalAnnotationFiles.add(file);
+  }
+
+  public List<String> getExternalAnnotationFiles() {
+    return externalAnnotationFiles;
+  }
+
+  /**
+   * Returns the file that caches each source file's part of the reference
+   * graph between runs, or null if the graph isn't cached.
+   */
+  public File getGraphCacheFile() {
+    return graphCacheFile;
+  }
+
+  @VisibleForTesting
+  public void setGraphCacheFile(File file) {
+    graphCacheFile = file;
   }
 
   public void addPlatformModuleSystemOptions(String... flags) {
@@ -243,6 +263,11 @@ class Options {
         }
       } else if (arg.equals("--print-reference-graph")) {
         options.printReferenceGraph = true;
+      } else if (arg.equals("--graph-cache")) {
+        if (++nArg == args.length) {
+          usage("--graph-cache requires an argument");
+        }
+        options.graphCacheFile = new File(args[nArg]);
       } else if (arg.equals("-external-annotation-file")) {
         if (++nArg == args.length) {
           usage(arg + " requires an argument");
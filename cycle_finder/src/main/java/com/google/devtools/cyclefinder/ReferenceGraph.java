@@ -19,12 +19,10 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.SetMultimap;
 import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -35,6 +33,8 @@ import java.util.Set;
 public class ReferenceGraph {
 
   private SetMultimap<TypeNode, Edge> edges = HashMultimap.create();
+  // Built when the graph is first searched.
+  private CompactGraph compactGraph = null;
 
   public Set<TypeNode> getNodes() {
     return Collections.unmodifiableSet(edges.keySet());
@@ -46,11 +46,19 @@ public class ReferenceGraph {
 
   public void addEdge(Edge e) {
     edges.put(e.getOrigin(), e);
+    compactGraph = null;
+  }
+
+  private CompactGraph getCompactGraph() {
+    if (compactGraph == null) {
+      compactGraph = new CompactGraph(edges);
+    }
+    return compactGraph;
   }
 
   public List<ReferenceGraph> getStronglyConnectedComponents(Set<TypeNode> seedNodes) {
     List<List<TypeNode>> componentNodesList =
-        Tarjans.getStronglyConnectedComponents(edges, seedNodes);
+        Tarjans.getStronglyConnectedComponents(getCompactGraph(), seedNodes);
     List<ReferenceGraph> components = new ArrayList<>();
     for (List<TypeNode> componentNodes : componentNodesList) {
       components.add(getSubgraph(componentNodes));
@@ -59,43 +67,51 @@ public class ReferenceGraph {
   }
 
   /**
-   * Runs a version of Dijkstra's algorithm to find a tight cycle in the given
-   * strongly connected component.
+   * Runs a breadth-first search to find a tight cycle in the given strongly
+   * connected component.
    */
   public List<Edge> findShortestCycle(TypeNode root) {
-    Map<TypeNode, Edge> backlinks = new HashMap<>();
-    Set<TypeNode> visited = new HashSet<>();
-    List<TypeNode> toVisit = Lists.newArrayList(root);
-    outer: while (true) {
-      List<TypeNode> visitNext = new ArrayList<>();
-      for (TypeNode source : toVisit) {
-        visited.add(source);
-        for (Edge e : edges.get(source)) {
-          TypeNode target = e.getTarget();
-          if (!visited.contains(target)) {
-            visitNext.add(target);
-            backlinks.put(target, e);
-          } else if (target.equals(root)) {
-            backlinks.put(root, e);
-            break outer;
-          }
+    CompactGraph graph = getCompactGraph();
+    int rootId = graph.getId(root);
+    // The edge each node was first reached by.
+    int[] backlinks = new int[graph.size()];
+    BitSet visited = new BitSet(graph.size());
+    int[] queue = new int[graph.size()];
+    int head = 0;
+    int tail = 0;
+    int lastEdge = -1;
+    visited.set(rootId);
+    queue[tail++] = rootId;
+    outer: while (head < tail) {
+      int source = queue[head++];
+      for (int i = graph.edgesStart(source); i < graph.edgesEnd(source); i++) {
+        int target = graph.getTarget(i);
+        if (target == rootId) {
+          lastEdge = i;
+          break outer;
+        }
+        if (!visited.get(target)) {
+          visited.set(target);
+          backlinks[target] = i;
+          queue[tail++] = target;
         }
       }
-      toVisit = visitNext;
     }
+    assert lastEdge >= 0 : "No cycle through " + root;
     List<Edge> cycle = new ArrayList<>();
-    TypeNode curNode = root;
-    while (!curNode.equals(root) || cycle.size() == 0) {
-      Edge nextEdge = backlinks.get(curNode);
-      cycle.add(nextEdge);
-      curNode = nextEdge.getOrigin();
+    Edge e = graph.getEdge(lastEdge);
+    cycle.add(e);
+    while (!e.getOrigin().equals(root)) {
+      e = graph.getEdge(backlinks[graph.getId(e.getOrigin())]);
+      cycle.add(e);
     }
     return Lists.newArrayList(Lists.reverse(cycle));
   }
 
-  private ReferenceGraph getSubgraph(Collection<TypeNode> vertices) {
+  private ReferenceGraph getSubgraph(List<TypeNode> componentNodes) {
+    Set<TypeNode> vertices = new HashSet<>(componentNodes);
     ReferenceGraph subgraph = new ReferenceGraph();
-    for (TypeNode type : vertices) {
+    for (TypeNode type : componentNodes) {
       for (Edge e : edges.get(type)) {
         if (vertices.contains(e.getTarget())) {
           subgraph.addEdge(e);
@@ -14,97 +14,116 @@
 
 package com.google.devtools.cyclefinder;
 
-import com.google.common.collect.SetMultimap;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
  * An implementation of Tarjan's strongly connected components algorithm.
- * http://en.wikipedia.org/wiki/Tarjan's_strongly_connected_components_algorithm
+ *
+ * The search is iterative, so deep graphs don't overflow the stack, and uses
+ * the graph's node IDs to index its per-node state.
  */
 class Tarjans {
 
-  private final SetMultimap<TypeNode, Edge> edges;
+  private final CompactGraph graph;
   private final Set<TypeNode> seedTypes;
   private int vIndex = 0;
-  // In case of performance issues, consider a data structure with faster .contains().
-  private ArrayList<Vertex> stack = new ArrayList<>();
-  private Map<TypeNode, Vertex> vertices = new HashMap<>();
+  private final int[] index;
+  private final int[] lowlink;
+  // The visited nodes not yet assigned to a component, and their positions.
+  private final int[] stack;
+  private int stackSize = 0;
+  private final int[] stackPositions;
+  private final BitSet onStack;
+  // The nodes being visited, and the next edge of each to follow.
+  private final int[] visiting;
+  private final int[] nextEdges;
   private List<List<TypeNode>> stronglyConnectedComponents = new ArrayList<>();
 
-  private Tarjans(SetMultimap<TypeNode, Edge> edges, Set<TypeNode> seedTypes) {
-    this.edges = edges;
+  private Tarjans(CompactGraph graph, Set<TypeNode> seedTypes) {
+    this.graph = graph;
     this.seedTypes = seedTypes;
+    int size = graph.size();
+    index = new int[size];
+    Arrays.fill(index, -1);
+    lowlink = new int[size];
+    stack = new int[size];
+    stackPositions = new int[size];
+    onStack = new BitSet(size);
+    visiting = new int[size];
+    nextEdges = new int[size];
   }
 
   public static List<List<TypeNode>> getStronglyConnectedComponents(
-      SetMultimap<TypeNode, Edge> edges, Set<TypeNode> seedTypes) {
-    Tarjans tarjans = new Tarjans(edges, seedTypes);
+      CompactGraph graph, Set<TypeNode> seedTypes) {
+    Tarjans tarjans = new Tarjans(graph, seedTypes);
     tarjans.run();
     return tarjans.stronglyConnectedComponents;
   }
 
   private void run() {
     for (TypeNode type : seedTypes) {
-      Vertex v = getVertex(type);
-      if (v.index == -1) {
+      int v = graph.getId(type);
+      // A seed without any edges can't be in a component.
+      if (v >= 0 && index[v] == -1) {
         visit(v);
       }
     }
   }
 
-  private void visit(Vertex v) {
-    v.index = v.lowlink = vIndex++;
-    stack.add(v);
-
-    for (Edge edge : edges.get(v.type)) {
-      Vertex w = getVertex(edge.getTarget());
-      if (w.index == -1) {
-        visit(w);
-        v.lowlink = Math.min(v.lowlink, w.lowlink);
-      } else if (stack.contains(w)) {
-        v.lowlink = Math.min(v.lowlink, w.index);
-      }
-    }
-
-    if (v.lowlink == v.index) {
-      int idx = stack.indexOf(v);
-      assert idx >= 0;
-      List<Vertex> stronglyConnected = stack.subList(idx, stack.size());
-      if (stronglyConnected.size() > 1) {
-        List<TypeNode> stronglyConnectedTypes = new ArrayList<>(stronglyConnected.size());
-        for (Vertex ver : stronglyConnected) {
-          stronglyConnectedTypes.add(ver.type);
+  private void visit(int root) {
+    int depth = push(root, 0);
+    while (depth > 0) {
+      int v = visiting[depth - 1];
+      if (nextEdges[depth - 1] < graph.edgesEnd(v)) {
+        int w = graph.getTarget(nextEdges[depth - 1]++);
+        if (index[w] == -1) {
+          depth = push(w, depth);
+        } else if (onStack.get(w)) {
+          lowlink[v] = Math.min(lowlink[v], index[w]);
         }
-        stronglyConnectedComponents.add(stronglyConnectedTypes);
+        continue;
+      }
+      if (lowlink[v] == index[v]) {
+        addComponent(v);
+      }
+      depth--;
+      if (depth > 0) {
+        int parent = visiting[depth - 1];
+        lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
       }
-      stronglyConnected.clear();  // Removes the sublist from stack.
     }
   }
 
-  private Vertex getVertex(TypeNode type) {
-    Vertex v = vertices.get(type);
-    if (v == null) {
-      v = new Vertex(type);
-      vertices.put(type, v);
-    }
-    return v;
+  private int push(int v, int depth) {
+    index[v] = lowlink[v] = vIndex++;
+    stackPositions[v] = stackSize;
+    stack[stackSize++] = v;
+    onStack.set(v);
+    visiting[depth] = v;
+    nextEdges[depth] = graph.edgesStart(v);
+    return depth + 1;
   }
 
-  private static class Vertex {
-    private int index = -1;
-    private int lowlink = -1;
-    private TypeNode type;
-
-    private Vertex(TypeNode type) {
-      this.type = type;
+  /**
+   * Removes the component with the specified root from the stack, and adds it
+   * if it has more than one node.
+   */
+  private void addComponent(int root) {
+    int start = stackPositions[root];
+    if (stackSize - start > 1) {
+      List<TypeNode> stronglyConnectedTypes = new ArrayList<>(stackSize - start);
+      for (int i = start; i < stackSize; i++) {
+        stronglyConnectedTypes.add(graph.getNode(stack[i]));
+      }
+      stronglyConnectedComponents.add(stronglyConnectedTypes);
     }
-
-    public String toString() {
-      return type.toString();
+    for (int i = start; i < stackSize; i++) {
+      onStack.clear(stack[i]);
     }
+    stackSize = start;
   }
 }
@@ -14,10 +14,14 @@
 
 package com.google.devtools.cyclefinder;
 
+import java.io.Serializable;
+
 /**
  * A representation of a Java TypeMirror, condensed for use as a node in the reference graph.
  */
-class TypeNode {
+class TypeNode implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private final String signature;
   private final String name;
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.cyclefinder;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The types and edges found by visiting a single compilation unit, before
+ * the global subtype, outer and superclass edges are added. A unit graph
+ * includes every type reachable from the unit, so unit graphs can be cached
+ * independently and merged in any combination.
+ */
+class UnitGraph implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final List<TypeNode> nodes;
+  final List<Edge> edges;
+  final Map<TypeNode, TypeNode> superclasses;
+  final SetMultimap<TypeNode, TypeNode> subtypes;
+  final SetMultimap<TypeNode, Edge> possibleOuterEdges;
+  final Set<TypeNode> hasOuterRef;
+  // Qualified names of the top-level types declared by the unit.
+  final Set<String> declaredTypes;
+  // Qualified names of the top-level types whose members the unit's graph
+  // depends on, including the declared types.
+  final Set<String> referencedTypes;
+
+  UnitGraph(Iterable<TypeNode> nodes, Iterable<Edge> edges,
+      Map<TypeNode, TypeNode> superclasses, SetMultimap<TypeNode, TypeNode> subtypes,
+      SetMultimap<TypeNode, Edge> possibleOuterEdges, Set<TypeNode> hasOuterRef,
+      Set<String> declaredTypes, Set<String> referencedTypes) {
+    this.nodes = Lists.newArrayList(nodes);
+    this.edges = Lists.newArrayList(edges);
+    this.superclasses = new HashMap<>(superclasses);
+    this.subtypes = HashMultimap.create(subtypes);
+    this.possibleOuterEdges = HashMultimap.create(possibleOuterEdges);
+    this.hasOuterRef = new HashSet<>(hasOuterRef);
+    this.declaredTypes = new HashSet<>(declaredTypes);
+    this.referencedTypes = new HashSet<>(referencedTypes);
+  }
+}
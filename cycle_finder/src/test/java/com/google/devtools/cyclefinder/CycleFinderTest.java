@@ -68,6 +68,28 @@ public class CycleFinderTest extends TestCase {
     assertCycle("LA;", "LB;");
   }
 
+  public void testDeepStronglyConnectedComponent() {
+    // A component too deep for a recursive search.
+    int n = 100000;
+    ReferenceGraph graph = new ReferenceGraph();
+    TypeNode[] nodes = new TypeNode[n];
+    for (int i = 0; i < n; i++) {
+      nodes[i] = new TypeNode("LT" + i + ";", "T" + i, "T" + i);
+    }
+    for (int i = 0; i < n; i++) {
+      graph.addEdge(Edge.newFieldEdge(nodes[i], nodes[(i + 1) % n], "next"));
+    }
+    // A shortcut, so the shortest cycle through T0 has three edges.
+    graph.addEdge(Edge.newFieldEdge(nodes[2], nodes[0], "first"));
+    List<ReferenceGraph> components = graph.getStronglyConnectedComponents(graph.getNodes());
+    assertEquals(1, components.size());
+    assertEquals(n, components.get(0).getNodes().size());
+    List<Edge> cycle = components.get(0).findShortestCycle(nodes[0]);
+    assertEquals(3, cycle.size());
+    assertEquals(nodes[0], cycle.get(0).getOrigin());
+    assertEquals(nodes[0], cycle.get(2).getTarget());
+  }
+
   // TODO(nbraswell): Use com.google.j2objc.annotations.WeakOuter when transitioned to Java 8
   private static String weakOuterAndInterface = "import java.lang.annotation.*;\n"
         + "@Target(ElementType.TYPE_USE) @interface WeakOuter {}"
@@ -452,6 +474,44 @@ public class CycleFinderTest extends TestCase {
     assertNoCycles();
   }
 
+  public void testGraphCache() throws Exception {
+    addSourceFile("A.java", "class A { B b; }");
+    addSourceFile("B.java", "class B { C c; }");
+    addSourceFile("C.java", "class C {}");
+    Options options = new Options();
+    options.setGraphCacheFile(new File(tempDir, "graph_cache"));
+    findCycles(options);
+    assertNoCycles();
+    assertTrue(options.getGraphCacheFile().exists());
+
+    // A and B depend on C, so they're parsed again.
+    addFile("C.java", "class C { A a; }");
+    findCycles(options);
+    assertCycle("LA;", "LB;", "LC;");
+
+    addFile("C.java", "class C {}");
+    findCycles(options);
+    assertNoCycles();
+  }
+
+  public void testGraphCacheSubtypeEdges() throws Exception {
+    addSourceFile("A.java", "class A { I i; }");
+    addSourceFile("I.java", "interface I {}");
+    Options options = new Options();
+    options.setGraphCacheFile(new File(tempDir, "graph_cache"));
+    findCycles(options);
+    assertNoCycles();
+
+    // Only B is parsed; the subtype edge from A's field is added to the cached graph.
+    addSourceFile("B.java", "class B implements I { A a; }");
+    findCycles(options);
+    assertCycle("LA;", "LB;");
+
+    inputFiles.remove(inputFiles.size() - 1);
+    findCycles(options);
+    assertNoCycles();
+  }
+
   private void assertContains(String substr, String str) {
     assertTrue("Expected \"" + substr + "\" within \"" + str + "\"", str.contains(substr));
   }
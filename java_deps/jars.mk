@@ -76,3 +76,10 @@ PROCYON_JARS = \
 # Flogger support
 FLOGGER_JAR = flogger-0.5.1.jar
 GOOGLE_EXTENSIONS_JAR = google-extensions-0.5.1.jar
+
+# JMH benchmark support, used by translator/benchmarks.
+JMH_CORE_JAR = jmh-core-1.23.jar
+JMH_GENERATOR_JAR = jmh-generator-annprocess-1.23.jar
+JOPT_SIMPLE_JAR = jopt-simple-4.6.jar
+COMMONS_MATH3_JAR = commons-math3-3.2.jar
+JMH_JARS = $(JMH_CORE_JAR) $(JOPT_SIMPLE_JAR) $(COMMONS_MATH3_JAR)
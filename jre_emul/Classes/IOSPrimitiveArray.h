@@ -123,6 +123,25 @@ __attribute__((always_inline)) inline jboolean *IOSBooleanArray_GetRef(
   return &array->buffer_[index];
 }
 
+/**
+ * @brief Return the boolean at the specified index, without a bounds check.
+ * Only used by translated code when the index is known to be in range.
+ */
+__attribute__((always_inline)) inline jboolean IOSBooleanArray_GetUnchecked(
+    __unsafe_unretained IOSBooleanArray *array, jint index) {
+  return array->buffer_[index];
+}
+
+/**
+ * @brief Return a pointer to the boolean at the specified index, without a
+ * bounds check. Only used by translated code when the index is known to be
+ * in range.
+ */
+__attribute__((always_inline)) inline jboolean *IOSBooleanArray_GetRefUnchecked(
+    __unsafe_unretained IOSBooleanArray *array, jint index) {
+  return &array->buffer_[index];
+}
+
 
 // ********** IOSCharArray **********
 
@@ -216,6 +235,25 @@ __attribute__((always_inline)) inline jchar *IOSCharArray_GetRef(
   return &array->buffer_[index];
 }
 
+/**
+ * @brief Return the char at the specified index, without a bounds check.
+ * Only used by translated code when the index is known to be in range.
+ */
+__attribute__((always_inline)) inline jchar IOSCharArray_GetUnchecked(
+    __unsafe_unretained IOSCharArray *array, jint index) {
+  return array->buffer_[index];
+}
+
+/**
+ * @brief Return a pointer to the char at the specified index, without a
+ * bounds check. Only used by translated code when the index is known to be
+ * in range.
+ */
+__attribute__((always_inline)) inline jchar *IOSCharArray_GetRefUnchecked(
+    __unsafe_unretained IOSCharArray *array, jint index) {
+  return &array->buffer_[index];
+}
+
 
 // ********** IOSByteArray **********
 
@@ -323,6 +361,25 @@ __attribute__((always_inline)) inline jbyte *IOSByteArray_GetRef(
   return &array->buffer_[index];
 }
 
+/**
+ * @brief Return the byte at the specified index, without a bounds check.
+ * Only used by translated code when the index is known to be in range.
+ */
+__attribute__((always_inline)) inline jbyte IOSByteArray_GetUnchecked(
+    __unsafe_unretained IOSByteArray *array, jint index) {
+  return array->buffer_[index];
+}
+
+/**
+ * @brief Return a pointer to the byte at the specified index, without a
+ * bounds check. Only used by translated code when the index is known to be
+ * in range.
+ */
+__attribute__((always_inline)) inline jbyte *IOSByteArray_GetRefUnchecked(
+    __unsafe_unretained IOSByteArray *array, jint index) {
+  return &array->buffer_[index];
+}
+
 
 // ********** IOSShortArray **********
 
@@ -411,6 +468,25 @@ __attribute__((always_inline)) inline jshort *IOSShortArray_GetRef(
   return &array->buffer_[index];
 }
 
+/**
+ * @brief Return the short at the specified index, without a bounds check.
+ * Only used by translated code when the index is known to be in range.
+ */
+__attribute__((always_inline)) inline jshort IOSShortArray_GetUnchecked(
+    __unsafe_unretained IOSShortArray *array, jint index) {
+  return array->buffer_[index];
+}
+
+/**
+ * @brief Return a pointer to the short at the specified index, without a
+ * bounds check. Only used by translated code when the index is known to be
+ * in range.
+ */
+__attribute__((always_inline)) inline jshort *IOSShortArray_GetRefUnchecked(
+    __unsafe_unretained IOSShortArray *array, jint index) {
+  return &array->buffer_[index];
+}
+
 
 // ********** IOSIntArray **********
 
@@ -500,6 +576,25 @@ __attribute__((always_inline)) inline jint *IOSIntArray_GetRef(
   return &array->buffer_[index];
 }
 
+/**
+ * @brief Return the int at the specified index, without a bounds check.
+ * Only used by translated code when the index is known to be in range.
+ */
+__attribute__((always_inline)) inline jint IOSIntArray_GetUnchecked(
+    __unsafe_unretained IOSIntArray *array, jint index) {
+  return array->buffer_[index];
+}
+
+/**
+ * @brief Return a pointer to the int at the specified index, without a
+ * bounds check. Only used by translated code when the index is known to be
+ * in range.
+ */
+__attribute__((always_inline)) inline jint *IOSIntArray_GetRefUnchecked(
+    __unsafe_unretained IOSIntArray *array, jint index) {
+  return &array->buffer_[index];
+}
+
 
 // ********** IOSLongArray **********
 
@@ -589,6 +684,25 @@ __attribute__((always_inline)) inline jlong *IOSLongArray_GetRef(
   return &array->buffer_[index];
 }
 
+/**
+ * @brief Return the long at the specified index, without a bounds check.
+ * Only used by translated code when the index is known to be in range.
+ */
+__attribute__((always_inline)) inline jlong IOSLongArray_GetUnchecked(
+    __unsafe_unretained IOSLongArray *array, jint index) {
+  return array->buffer_[index];
+}
+
+/**
+ * @brief Return a pointer to the long at the specified index, without a
+ * bounds check. Only used by translated code when the index is known to be
+ * in range.
+ */
+__attribute__((always_inline)) inline jlong *IOSLongArray_GetRefUnchecked(
+    __unsafe_unretained IOSLongArray *array, jint index) {
+  return &array->buffer_[index];
+}
+
 
 // ********** IOSFloatArray **********
 
@@ -677,6 +791,25 @@ __attribute__((always_inline)) inline jfloat *IOSFloatArray_GetRef(
   return &array->buffer_[index];
 }
 
+/**
+ * @brief Return the float at the specified index, without a bounds check.
+ * Only used by translated code when the index is known to be in range.
+ */
+__attribute__((always_inline)) inline jfloat IOSFloatArray_GetUnchecked(
+    __unsafe_unretained IOSFloatArray *array, jint index) {
+  return array->buffer_[index];
+}
+
+/**
+ * @brief Return a pointer to the float at the specified index, without a
+ * bounds check. Only used by translated code when the index is known to be
+ * in range.
+ */
+__attribute__((always_inline)) inline jfloat *IOSFloatArray_GetRefUnchecked(
+    __unsafe_unretained IOSFloatArray *array, jint index) {
+  return &array->buffer_[index];
+}
+
 
 // ********** IOSDoubleArray **********
 
@@ -765,6 +898,25 @@ __attribute__((always_inline)) inline jdouble *IOSDoubleArray_GetRef(
   return &array->buffer_[index];
 }
 
+/**
+ * @brief Return the double at the specified index, without a bounds check.
+ * Only used by translated code when the index is known to be in range.
+ */
+__attribute__((always_inline)) inline jdouble IOSDoubleArray_GetUnchecked(
+    __unsafe_unretained IOSDoubleArray *array, jint index) {
+  return array->buffer_[index];
+}
+
+/**
+ * @brief Return a pointer to the double at the specified index, without a
+ * bounds check. Only used by translated code when the index is known to be
+ * in range.
+ */
+__attribute__((always_inline)) inline jdouble *IOSDoubleArray_GetRefUnchecked(
+    __unsafe_unretained IOSDoubleArray *array, jint index) {
+  return &array->buffer_[index];
+}
+
 
 #undef PRIMITIVE_ARRAY_INTERFACE
 #undef PRIMITIVE_ARRAY_C_INTERFACE
@@ -88,6 +88,8 @@ void JreRetainedWithRelease(id parent, id child);
 void JreVolatileRetainedWithRelease(id parent, volatile_id *pVar);
 
 NSString *JreStrcat(const char *types, ...);
+// Concatenates two object or string operands, without parsing a types string.
+NSString *JreStrcat2(id lhs, id rhs);
 
 jboolean JreAnnotationEquals(id a1, id a2);
 jint JreAnnotationHashCode(id a);
@@ -222,6 +222,24 @@ jint JreIndexOfStr(NSString *str, NSString **values, jint size) {
   return -1;
 }
 
+// Returns the hash code of a string as defined by java.lang.String, which
+// translated string switch statements compare against precomputed values.
+// NSString's hash uses a different function. Returns 0 for nil.
+jint JreStringHashCode(NSString *str) {
+  if (!str) {
+    return 0;
+  }
+  CFStringRef cfStr = (CFStringRef)str;
+  CFIndex length = CFStringGetLength(cfStr);
+  CFStringInlineBuffer buffer;
+  CFStringInitInlineBuffer(cfStr, &buffer, CFRangeMake(0, length));
+  uint32_t hash = 0;  // Unsigned, so overflow wraps as in Java.
+  for (CFIndex i = 0; i < length; i++) {
+    hash = 31 * hash + CFStringGetCharacterFromInlineBuffer(&buffer, i);
+  }
+  return (jint)hash;
+}
+
 // Counts the number of object types in a string concatenation.
 static NSUInteger CountObjectArgs(const char *types) {
   NSUInteger numObjs = 0;
@@ -343,6 +361,18 @@ NSString *JreStrcat(const char *types, ...) {
   return JreStringBuilder_toStringAndDealloc(&sb);
 }
 
+NSString *JreStrcat2(id lhs, id rhs) {
+  NSString *lhsDescription = [lhs description];
+  NSString *rhsDescription = [rhs description];
+  jint capacity = (lhsDescription ? CFStringGetLength((CFStringRef)lhsDescription) : 4)
+      + (rhsDescription ? CFStringGetLength((CFStringRef)rhsDescription) : 4);
+  JreStringBuilder sb;
+  JreStringBuilder_initWithCapacity(&sb, capacity);
+  JreStringBuilder_appendString(&sb, lhsDescription);
+  JreStringBuilder_appendString(&sb, rhsDescription);
+  return JreStringBuilder_toStringAndDealloc(&sb);
+}
+
 id JreStrAppendInner(id lhs, const char *types, va_list va) {
   va_list va_capacity;
   va_copy(va_capacity, va);
@@ -118,6 +118,7 @@ typedef struct J2ObjcResourceDefinition {
   section("__DATA,__j2objcresource"))) = { QUOTE(BUF), BUF, LEN, HASH };
 
 FOUNDATION_EXPORT jint JreIndexOfStr(NSString *str, NSString **values, jint size);
+FOUNDATION_EXPORT jint JreStringHashCode(NSString *str);
 FOUNDATION_EXPORT NSString *JreEnumConstantName(IOSClass *enumClass, jint ordinal);
 
 /*!
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmarks;
+
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.file.RegularInputFile;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.FileUtil;
+import com.google.devtools.j2objc.util.Parser;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A fixed set of Java sources, parsed once so benchmarks only measure the
+ * translation steps that follow parsing. The sources are copied from the
+ * corpus resources into a temporary directory, which is also used as the
+ * output directory.
+ */
+class BenchmarkCorpus {
+
+  private static final String CORPUS_DIR = "corpus/";
+  private static final String RESOURCE_SUFFIX = ".txt";
+  private static final String[] SOURCES = {
+    "corpus/Inventory.java",
+    "corpus/Matrix.java",
+    "corpus/Tokenizer.java",
+  };
+
+  private final File tempDir;
+  private final Options options;
+  private final Parser parser;
+  private final List<CompilationUnit> units = new ArrayList<>();
+
+  BenchmarkCorpus() throws IOException {
+    tempDir = FileUtil.createTempDir("j2objc-benchmarks");
+    for (String source : SOURCES) {
+      File file = new File(tempDir, source);
+      Files.createParentDirs(file);
+      String resource = CORPUS_DIR + new File(source).getName() + RESOURCE_SUFFIX;
+      Resources.asByteSource(Resources.getResource(BenchmarkCorpus.class, resource))
+          .copyTo(Files.asByteSink(file));
+    }
+    options = new Options();
+    options.load(new String[] {
+      "-d", tempDir.getPath(),
+      "-sourcepath", tempDir.getPath(),
+      "-encoding", "UTF-8",
+      "-q",
+    });
+    parser = J2ObjC.createParser(options);
+    for (String source : SOURCES) {
+      CompilationUnit unit =
+          parser.parse(new RegularInputFile(new File(tempDir, source).getPath(), source));
+      if (unit == null || ErrorUtil.errorCount() > 0) {
+        throw new IOException("failed to parse benchmark source " + source + ": "
+            + ErrorUtil.getErrorMessages());
+      }
+      units.add(unit);
+    }
+  }
+
+  Options options() {
+    return options;
+  }
+
+  /**
+   * Returns the parsed, untranslated compilation units. Benchmarks must copy
+   * them before translating.
+   */
+  List<CompilationUnit> units() {
+    return Collections.unmodifiableList(units);
+  }
+
+  void close() throws IOException {
+    parser.close();
+    FileUtil.deleteTempDir(tempDir);
+  }
+}
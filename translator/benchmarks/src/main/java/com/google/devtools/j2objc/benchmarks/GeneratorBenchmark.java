@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmarks;
+
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.gen.GeneratedType;
+import com.google.devtools.j2objc.gen.GenerationUnit;
+import com.google.devtools.j2objc.gen.ObjectiveCHeaderGenerator;
+import com.google.devtools.j2objc.gen.ObjectiveCImplementationGenerator;
+import com.google.devtools.j2objc.pipeline.TranslationProcessor;
+import com.google.devtools.j2objc.util.TimeTracker;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures source generation from fully translated trees of the benchmark
+ * corpus: building each type's generated declarations, and printing the
+ * header and implementation sources. The sources are generated in memory,
+ * so file I/O isn't measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+
+  private BenchmarkCorpus corpus;
+  private final List<CompilationUnit> units = new ArrayList<>();
+  private final List<GenerationUnit> genUnits = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void translateCorpus() throws IOException {
+    corpus = new BenchmarkCorpus();
+    for (CompilationUnit parsedUnit : corpus.units()) {
+      CompilationUnit unit = parsedUnit.copy();
+      TranslationProcessor.applyMutations(
+          unit, null, corpus.options().externalAnnotations(), TimeTracker.noop());
+      units.add(unit);
+      genUnits.add(newGenerationUnit(unit));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void closeCorpus() throws IOException {
+    corpus.close();
+  }
+
+  @Benchmark
+  public void generatedTypes(Blackhole blackhole) {
+    for (CompilationUnit unit : units) {
+      for (AbstractTypeDeclaration type : unit.getTypes()) {
+        blackhole.consume(GeneratedType.fromTypeDeclaration(type));
+      }
+    }
+  }
+
+  @Benchmark
+  public void headerGenerator(Blackhole blackhole) {
+    for (GenerationUnit genUnit : genUnits) {
+      blackhole.consume(ObjectiveCHeaderGenerator.generateSource(genUnit));
+    }
+  }
+
+  @Benchmark
+  public void implementationGenerator(Blackhole blackhole) {
+    for (GenerationUnit genUnit : genUnits) {
+      blackhole.consume(ObjectiveCImplementationGenerator.generateSource(genUnit));
+    }
+  }
+
+  private GenerationUnit newGenerationUnit(CompilationUnit unit) {
+    GenerationUnit genUnit = new GenerationUnit(unit.getSourceFilePath(), corpus.options());
+    genUnit.incrementInputs();
+    genUnit.addCompilationUnit(unit);
+    return genUnit;
+  }
+}
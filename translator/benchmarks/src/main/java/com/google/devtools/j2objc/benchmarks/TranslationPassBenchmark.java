@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.benchmarks;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.pipeline.TranslationProcessor;
+import com.google.devtools.j2objc.translate.ArrayRewriter;
+import com.google.devtools.j2objc.translate.Autoboxer;
+import com.google.devtools.j2objc.translate.CastResolver;
+import com.google.devtools.j2objc.translate.EnhancedForRewriter;
+import com.google.devtools.j2objc.translate.Functionizer;
+import com.google.devtools.j2objc.translate.InnerClassExtractor;
+import com.google.devtools.j2objc.translate.MetadataWriter;
+import com.google.devtools.j2objc.translate.NilCheckResolver;
+import com.google.devtools.j2objc.translate.OperatorRewriter;
+import com.google.devtools.j2objc.translate.Rewriter;
+import com.google.devtools.j2objc.translate.StaticVarRewriter;
+import com.google.devtools.j2objc.translate.SwitchRewriter;
+import com.google.devtools.j2objc.util.TimeTracker;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures individual translation passes over the benchmark corpus. Each
+ * pass runs on a copy of the trees as they are just before that pass in
+ * {@link TranslationProcessor#applyMutations}, so its cost doesn't include
+ * the passes that precede it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TranslationPassBenchmark {
+
+  @Param({
+    "Rewriter",
+    "EnhancedForRewriter",
+    "Autoboxer",
+    "InnerClassExtractor",
+    "NilCheckResolver",
+    "MetadataWriter",
+    "Functionizer",
+    "OperatorRewriter",
+    "StaticVarRewriter",
+    "ArrayRewriter",
+    "SwitchRewriter",
+    "CastResolver",
+  })
+  public String pass;
+
+  // The measured passes, keyed by class. Each is run on its own, as in
+  // applyMutations, so none of them are fused with other passes.
+  private static final ImmutableMap<Class<?>, Consumer<CompilationUnit>> PASSES =
+      ImmutableMap.<Class<?>, Consumer<CompilationUnit>>builder()
+          .put(Rewriter.class, unit -> new Rewriter(unit).run())
+          .put(EnhancedForRewriter.class, unit -> new EnhancedForRewriter(unit).run())
+          .put(Autoboxer.class, unit -> new Autoboxer(unit).run())
+          .put(InnerClassExtractor.class, unit -> new InnerClassExtractor(unit).run())
+          .put(NilCheckResolver.class, unit -> new NilCheckResolver(unit).run())
+          .put(MetadataWriter.class, unit -> new MetadataWriter(unit, null).run())
+          .put(Functionizer.class, unit -> new Functionizer(unit).run())
+          .put(OperatorRewriter.class, unit -> new OperatorRewriter(unit).run())
+          .put(StaticVarRewriter.class, unit -> new StaticVarRewriter(unit).run())
+          .put(ArrayRewriter.class, unit -> new ArrayRewriter(unit).run())
+          .put(SwitchRewriter.class, unit -> new SwitchRewriter(unit).run())
+          .put(CastResolver.class, unit -> new CastResolver(unit).run())
+          .build();
+
+  private BenchmarkCorpus corpus;
+  private Consumer<CompilationUnit> passRunner;
+  private final List<CompilationUnit> snapshots = new ArrayList<>();
+  private final List<CompilationUnit> inputs = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void parseCorpus() throws IOException {
+    Class<?> passClass = getPassClass(pass);
+    passRunner = PASSES.get(passClass);
+    corpus = new BenchmarkCorpus();
+    for (CompilationUnit unit : corpus.units()) {
+      SnapshotTracker tracker = new SnapshotTracker(unit.copy(), passClass);
+      TranslationProcessor.applyMutations(
+          tracker.unit, null, corpus.options().externalAnnotations(), tracker);
+      // Units the pass doesn't run on aren't measured.
+      if (tracker.snapshot != null) {
+        snapshots.add(tracker.snapshot);
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void copySnapshots() {
+    inputs.clear();
+    for (CompilationUnit snapshot : snapshots) {
+      inputs.add(snapshot.copy());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void closeCorpus() throws IOException {
+    corpus.close();
+  }
+
+  @Benchmark
+  public List<CompilationUnit> runPass() {
+    for (CompilationUnit unit : inputs) {
+      passRunner.accept(unit);
+    }
+    return inputs;
+  }
+
+  private static Class<?> getPassClass(String name) {
+    for (Class<?> passClass : PASSES.keySet()) {
+      if (passClass.getSimpleName().equals(name)) {
+        return passClass;
+      }
+    }
+    throw new IllegalArgumentException("unknown translation pass: " + name);
+  }
+
+  /**
+   * Copies the tree before each pass, keeping the copy taken just before the
+   * specified pass. A tick ends the passes named by its event, which joins
+   * the names of fused passes with '+'.
+   */
+  private static class SnapshotTracker extends TimeTracker {
+    private final CompilationUnit unit;
+    private final String passName;
+    private CompilationUnit lastCopy;
+    private CompilationUnit snapshot;
+
+    SnapshotTracker(CompilationUnit unit, Class<?> passClass) {
+      this.unit = unit;
+      this.passName = passClass.getSimpleName();
+    }
+
+    @Override
+    public void push() {
+      lastCopy = unit.copy();
+    }
+
+    @Override
+    public void tick(String event) {
+      if (snapshot != null) {
+        return;
+      }
+      if (Splitter.on('+').splitToList(event).contains(passName)) {
+        snapshot = lastCopy;
+      } else {
+        lastCopy = unit.copy();
+      }
+    }
+  }
+}
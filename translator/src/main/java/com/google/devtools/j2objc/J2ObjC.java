@@ -22,6 +22,7 @@ import com.google.devtools.j2objc.Options.TimingLevel;
 import com.google.devtools.j2objc.pipeline.GenerationBatch;
 import com.google.devtools.j2objc.pipeline.InputFilePreprocessor;
 import com.google.devtools.j2objc.pipeline.ProcessingContext;
+import com.google.devtools.j2objc.pipeline.TranslationCache;
 import com.google.devtools.j2objc.pipeline.TranslationProcessor;
 import com.google.devtools.j2objc.util.CodeReferenceMap;
 import com.google.devtools.j2objc.util.ErrorUtil;
@@ -59,11 +60,20 @@ public class J2ObjC {
         : "";
   }
 
-  private static void checkErrors(boolean treatWarningsAsErrors) {
+  /**
+   * Returns the exit code for the reported errors, including warnings when
+   * they are treated as errors.
+   */
+  static int getExitCode(Options options) {
     int errors = ErrorUtil.errorCount();
-    if (treatWarningsAsErrors) {
+    if (options.treatWarningsAsErrors()) {
       errors += ErrorUtil.warningCount();
     }
+    return errors;
+  }
+
+  private static void checkErrors(Options options) {
+    int errors = getExitCode(options);
     if (errors > 0) {
       System.exit(errors);
     }
@@ -87,7 +97,6 @@ public class J2ObjC {
    * @param fileArgs the files to process, same format as command-line args to {@link #main}.
    */
   public static void run(List<String> fileArgs, Options options) {
-    File preProcessorTempDir = null;
     File strippedSourcesDir = null;
     Parser parser = null;
     try {
@@ -103,13 +112,9 @@ public class J2ObjC {
       Parser.ProcessingResult processingResult = parser.processAnnotations(fileArgs, inputs);
       List<ProcessingContext> generatedInputs = processingResult.getGeneratedSources();
       inputs.addAll(generatedInputs); // Ensure all generatedInputs are at end of input list.
-      preProcessorTempDir = processingResult.getSourceOutputDirectory();
       if (ErrorUtil.errorCount() > 0) {
         return;
       }
-      if (preProcessorTempDir != null) {
-        parser.addSourcepathEntry(preProcessorTempDir.getAbsolutePath());
-      }
 
       InputFilePreprocessor inputFilePreprocessor = new InputFilePreprocessor(parser);
       inputFilePreprocessor.processInputs(inputs);
@@ -122,8 +127,13 @@ public class J2ObjC {
       }
 
       options.getHeaderMap().loadMappings();
+      TranslationCache cache = null;
+      if (TranslationCache.isEnabled(options)) {
+        cache = new TranslationCache(options);
+        inputs = cache.restoreOutputs(inputs);
+      }
       TranslationProcessor translationProcessor =
-          new TranslationProcessor(parser, loadDeadCodeMap());
+          new TranslationProcessor(parser, loadDeadCodeMap(), cache);
       translationProcessor.processInputs(inputs);
       if (ErrorUtil.errorCount() > 0) {
         return;
@@ -132,6 +142,20 @@ public class J2ObjC {
 
       options.getHeaderMap().printMappings();
     } finally {
+      if (options.traceRecorder() != null) {
+        try {
+          options.traceRecorder().write();
+        } catch (IOException e) {
+          ErrorUtil.error("cannot write timing info file: " + e.getMessage());
+        }
+      }
+      if (options.includeReport() != null) {
+        try {
+          options.includeReport().write();
+        } catch (IOException e) {
+          ErrorUtil.error("cannot write include report: " + e.getMessage());
+        }
+      }
       if (parser != null) {
         try {
           parser.close();
@@ -139,18 +163,24 @@ public class J2ObjC {
           ErrorUtil.error(e.getMessage());
         }
       }
+      try {
+        options.fileUtil().closeOpenJars();
+      } catch (IOException e) {
+        ErrorUtil.error(e.getMessage());
+      }
       Set<String> tempDirs = options.fileUtil().getTempDirs();
       for (String dir : tempDirs) {
         FileUtil.deleteTempDir(new File(dir));
       }
-      FileUtil.deleteTempDir(preProcessorTempDir);
       FileUtil.deleteTempDir(strippedSourcesDir);
     }
   }
 
   /**
    * Entry point for tool.
-   * Initializes {@link Options}, calls {@link #run}, and exits.
+   * Initializes {@link Options}, calls {@link #run}, and exits. When invoked
+   * with --persistent_worker, translation requests are read from stdin
+   * instead; see {@link PersistentWorker}.
    *
    * @param args command-line arguments: flags and source file names
    */
@@ -158,6 +188,16 @@ public class J2ObjC {
     if (args.length == 0) {
       Options.help(true);
     }
+    List<String> workerArgs = PersistentWorker.getStartupArgs(args);
+    if (workerArgs != null) {
+      try {
+        new PersistentWorker(workerArgs, System.in, System.out).run();
+      } catch (IOException e) {
+        ErrorUtil.error(e.getMessage());
+        System.exit(1);
+      }
+      return;
+    }
     long startTime = System.currentTimeMillis();
 
     List<String> files = null;
@@ -181,6 +221,6 @@ public class J2ObjC {
     }
 
     // Run last, since it calls System.exit() with the number of errors.
-    checkErrors(options.treatWarningsAsErrors());
+    checkErrors(options);
   }
 }
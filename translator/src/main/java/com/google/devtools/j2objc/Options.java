@@ -22,15 +22,18 @@ import com.google.common.collect.Sets;
 import com.google.common.io.Files;
 import com.google.common.io.Resources;
 import com.google.devtools.j2objc.gen.GenerationUnit;
+import com.google.devtools.j2objc.gen.ModuleMapGenerator;
 import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.ExternalAnnotations;
 import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.HeaderMap;
+import com.google.devtools.j2objc.util.IncludeReport;
 import com.google.devtools.j2objc.util.Mappings;
 import com.google.devtools.j2objc.util.NameTable;
 import com.google.devtools.j2objc.util.PackageInfoLookup;
 import com.google.devtools.j2objc.util.PackagePrefixes;
 import com.google.devtools.j2objc.util.SourceVersion;
+import com.google.devtools.j2objc.util.TraceRecorder;
 import com.google.devtools.j2objc.util.Version;
 import java.io.File;
 import java.io.FileFilter;
@@ -41,6 +44,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
@@ -68,6 +72,7 @@ public class Options {
   private HeaderMap headerMap = new HeaderMap();
   private boolean stripGwtIncompatible = false;
   private boolean segmentedHeaders = true;
+  private boolean minimizeHeaderIncludes = false;
   private boolean jsniWarnings = true;
   private boolean buildClosure = false;
   private EnumSet<MetadataSupport> includedMetadata =
@@ -84,6 +89,10 @@ public class Options {
   private boolean defaultNonnull = false;
   private TimingLevel timingLevel = TimingLevel.NONE;
   private boolean dumpAST = false;
+  private boolean fusePasses = true;
+  private boolean indexedListLoops = false;
+  private boolean escapeAnalysis = false;
+  private final Set<String> reflectionClasses = new HashSet<>();
   private String lintArgument = null;
   private boolean reportJavadocWarnings = false;
   private boolean translateBootclasspath = false;
@@ -94,6 +103,13 @@ public class Options {
   private boolean emitKytheMappings = false;
   private boolean emitSourceHeaders = true;
   private boolean injectLogSites = false;
+  private int numThreads = 1;
+  private File cacheDirectory = null;
+  private int batchMaxFiles = 0;
+  private long batchMaxBytes = 0;
+  private TraceRecorder traceRecorder = null;
+  private IncludeReport includeReport = null;
+  private ModuleMapGenerator moduleMapGenerator = null;
 
   private Mappings mappings = new Mappings();
   private FileUtil fileUtil = new FileUtil();
@@ -101,11 +117,17 @@ public class Options {
   private PackagePrefixes packagePrefixes = new PackagePrefixes(packageInfoLookup);
   private final ExternalAnnotations externalAnnotations = new ExternalAnnotations();
   private final List<String> entryClasses = new ArrayList<>();
+  // The expanded flags and their values, excluding source files and flags that don't
+  // affect the translated output.
+  private final List<String> translationFlags = new ArrayList<>();
 
   private SourceVersion sourceVersion = null;
 
   private static File proGuardUsageFile = null;
 
+  // False in a persistent worker, where exiting would end all later requests.
+  private static boolean exitOnUsage = true;
+
   private static String fileHeader;
   private static final String FILE_HEADER_KEY = "file-header";
   private static String usageMessage;
@@ -136,6 +158,7 @@ public class Options {
     "-Xforce-incomplete-java8"
   );
   private static final String BATCH_PROCESSING_MAX_FLAG = "--batch-translate-max=";
+  private static final String BATCH_PROCESSING_MAX_BYTES_FLAG = "--batch-translate-max-bytes=";
 
   /**
    * Types of memory management to be used by translated code.
@@ -339,11 +362,36 @@ public class Options {
       if (!args.hasNext()) {
         usage(arg + " requires an argument");
       }
-      return args.next();
+      String value = args.next();
+      translationFlags.add(value);
+      return value;
+    }
+
+    private long parseBatchLimit(String arg, String prefix) {
+      String s = arg.substring(prefix.length());
+      try {
+        long limit = Long.parseLong(s);
+        if (limit >= 0 && limit <= Integer.MAX_VALUE) {
+          return limit;
+        }
+      } catch (NumberFormatException e) {
+        // Reported below.
+      }
+      usage("invalid " + prefix + " argument: " + s);
+      return 0;
+    }
+
+    // Removes the most recently recorded flag and its value, if any.
+    private void ignoreTranslationFlag(int count) {
+      int size = translationFlags.size();
+      translationFlags.subList(size - count, size).clear();
     }
 
     private void processArg(Iterator<String> args) throws IOException {
       String arg = args.next();
+      if (!arg.startsWith("@")) {
+        translationFlags.add(arg);
+      }
       if (arg.isEmpty()) {
         return;
       } else if (arg.startsWith("@")) {
@@ -390,6 +438,12 @@ public class Options {
         headerMap.setCombineJars();
       } else if (arg.equals("-XglobalCombinedOutput")) {
         setGlobalCombinedOutput(getArgValue(args, arg));
+      } else if (arg.equals("--module-map")) {
+        String moduleName = getArgValue(args, arg);
+        if (!moduleName.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+          usage("invalid module name: " + moduleName);
+        }
+        moduleMapGenerator = new ModuleMapGenerator(moduleName);
       } else if (arg.equals("-XincludeGeneratedSources")) {
         headerMap.setIncludeGeneratedSources();
       } else if (arg.equals("-Xpublic-hdrs")) {
@@ -406,10 +460,27 @@ public class Options {
         warningsAsErrors = true;
       } else if (arg.equals("--generate-deprecated")) {
         deprecatedDeclarations = true;
+      } else if (arg.equals("-j") || arg.equals("--jobs")) {
+        String s = getArgValue(args, arg);
+        try {
+          numThreads = Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+          usage("invalid " + arg + " argument: " + s);
+        }
+        if (numThreads < 1) {
+          usage("invalid " + arg + " argument: " + s);
+        }
+        ignoreTranslationFlag(2);
+      } else if (arg.equals("--cache-dir")) {
+        cacheDirectory = new File(getArgValue(args, arg));
+        ignoreTranslationFlag(2);
       } else if (arg.equals("-l") || arg.equals("--list")) {
         setLogLevel(Level.INFO);
       } else if (arg.equals("-t") || arg.equals(TIMING_INFO_ARG)) {
         timingLevel = TimingLevel.ALL;
+      } else if (arg.equals(TIMING_INFO_ARG + "-file")) {
+        traceRecorder = new TraceRecorder(new File(getArgValue(args, arg)));
+        ignoreTranslationFlag(2);
       } else if (arg.startsWith(TIMING_INFO_ARG + ':')) {
         String timingArg = arg.substring(TIMING_INFO_ARG.length() + 1);
         try {
@@ -435,6 +506,8 @@ public class Options {
         stripGwtIncompatible = true;
       } else if (arg.equals("--strip-reflection")) {
         includedMetadata = EnumSet.of(MetadataSupport.ENUM_CONSTANTS);
+      } else if (arg.equals("--reflection-classes")) {
+        addReflectionClassesFile(getArgValue(args, arg));
       } else if (arg.equals("-Xstrip-enum-constants")) {
         includedMetadata.remove(MetadataSupport.ENUM_CONSTANTS);
       } else if (arg.startsWith("--reflection:")) {
@@ -475,6 +548,11 @@ public class Options {
         emitWrapperMethods = false;
       } else if (arg.equals("--no-segmented-headers")) {
         segmentedHeaders = false;
+      } else if (arg.equals("--minimize-header-includes")) {
+        minimizeHeaderIncludes = true;
+      } else if (arg.equals("--include-report")) {
+        includeReport = new IncludeReport(new File(getArgValue(args, arg)));
+        ignoreTranslationFlag(2);
       } else if (arg.equals("--build-closure")) {
         buildClosure = true;
       } else if (arg.equals("--extract-unsequenced")) {
@@ -509,6 +587,12 @@ public class Options {
         translateBootclasspath = true;
       } else if (arg.equals("-Xdump-ast")) {
         dumpAST = true;
+      } else if (arg.equals("-Xno-fused-passes")) {
+        fusePasses = false;
+      } else if (arg.equals("-Xindexed-list-loops")) {
+        indexedListLoops = true;
+      } else if (arg.equals("-Xescape-analysis")) {
+        escapeAnalysis = true;
       } else if (arg.equals("-Xtranslate-classfiles")) {
         translateClassfiles = true;
       } else if (arg.equals("-Xannotations-jar")) {
@@ -543,7 +627,11 @@ public class Options {
       } else if (PLATFORM_MODULE_SYSTEM_OPTIONS.contains(arg)) {
         addPlatformModuleSystemOptions(arg, getArgValue(args, arg));
       } else if (arg.startsWith(BATCH_PROCESSING_MAX_FLAG)) {
-        // Ignore, batch processing isn't used with javac front-end.
+        batchMaxFiles = (int) parseBatchLimit(arg, BATCH_PROCESSING_MAX_FLAG);
+        ignoreTranslationFlag(1);
+      } else if (arg.startsWith(BATCH_PROCESSING_MAX_BYTES_FLAG)) {
+        batchMaxBytes = parseBatchLimit(arg, BATCH_PROCESSING_MAX_BYTES_FLAG);
+        ignoreTranslationFlag(1);
       } else if (obsoleteFlags.contains(arg)) {
         // also ignore
       } else if (arg.startsWith("-")) {
@@ -553,6 +641,7 @@ public class Options {
         entryClasses.add(arg);
       } else {
         sourceFiles.add(arg);
+        ignoreTranslationFlag(1);
       }
     }
 
@@ -596,6 +685,10 @@ public class Options {
           + "-XincludeGeneratedSources");
     }
 
+    if (moduleMapGenerator != null && !buildClosure && globalCombinedOutput == null) {
+      ErrorUtil.error("--module-map requires --build-closure or -XglobalCombinedOutput");
+    }
+
     // Entry classes are only allowed with --build-closure flag.
     if (!entryClasses.isEmpty() && !buildClosure) {
       ErrorUtil.error("entry class names can only be specified with --build-closure flag");
@@ -669,23 +762,23 @@ public class Options {
   public static void usage(String invalidUseMsg) {
     System.err.println("j2objc: " + invalidUseMsg);
     System.err.println(usageMessage);
-    System.exit(1);
+    exit(1);
   }
 
   public static void help(boolean errorExit) {
     System.err.println(helpMessage);
     // javac exits with 2, but any non-zero value works.
-    System.exit(errorExit ? 2 : 0);
+    exit(errorExit ? 2 : 0);
   }
 
   public static void xhelp() {
     System.err.println(xhelpMessage);
-    System.exit(0);
+    exit(0);
   }
 
   public static void version() {
     System.err.println("j2objc " + Version.jarVersion(Options.class));
-    System.exit(0);
+    exit(0);
   }
 
   private List<String> getPathArgument(String argument, boolean expandAarFiles,
@@ -810,6 +903,35 @@ public class Options {
     return fileHeader;
   }
 
+  /**
+   * Thrown instead of exiting after a usage message is printed, when exiting
+   * is disabled.
+   */
+  static class UsageException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int exitCode;
+
+    UsageException(int exitCode) {
+      this.exitCode = exitCode;
+    }
+
+    int getExitCode() {
+      return exitCode;
+    }
+  }
+
+  static void setExitOnUsage(boolean exit) {
+    exitOnUsage = exit;
+  }
+
+  private static void exit(int exitCode) {
+    if (exitOnUsage) {
+      System.exit(exitCode);
+    }
+    throw new UsageException(exitCode);
+  }
+
   public static void setProGuardUsageFile(File newProGuardUsageFile) {
     proGuardUsageFile = newProGuardUsageFile;
   }
@@ -852,6 +974,19 @@ public class Options {
     segmentedHeaders = b;
   }
 
+  /**
+   * If true, headers don't include supertype headers that are already
+   * included by another supertype's header.
+   */
+  public boolean minimizeHeaderIncludes() {
+    return minimizeHeaderIncludes;
+  }
+
+  @VisibleForTesting
+  public void setMinimizeHeaderIncludes(boolean b) {
+    minimizeHeaderIncludes = b;
+  }
+
   public boolean jsniWarnings() {
     return jsniWarnings;
   }
@@ -873,6 +1008,37 @@ public class Options {
     return !includedMetadata.contains(MetadataSupport.FULL);
   }
 
+  /**
+   * Reads a list of classes that need reflection metadata, one qualified
+   * name per line. A name ending in ".*" matches every class in a package.
+   * Blank lines and lines starting with '#' are ignored. All other classes
+   * only get name mapping and enum constant metadata, as with
+   * --strip-reflection.
+   */
+  private void addReflectionClassesFile(String filename) throws IOException {
+    for (String line : Files.asCharSource(new File(filename), fileUtil.getCharset()).readLines()) {
+      line = line.trim();
+      if (!line.isEmpty() && !line.startsWith("#")) {
+        addReflectionClass(line);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  public void addReflectionClass(String name) {
+    includedMetadata.remove(MetadataSupport.FULL);
+    reflectionClasses.add(name.replace('$', '.'));
+  }
+
+  /**
+   * Returns true if a class was listed with --reflection-classes, either by
+   * its qualified name or by its package.
+   */
+  public boolean isReflectionClass(String qualifiedName, String packageName) {
+    return reflectionClasses.contains(qualifiedName)
+        || reflectionClasses.contains(packageName.isEmpty() ? "*" : packageName + ".*");
+  }
+
   @VisibleForTesting
   public void setStripReflection(boolean b) {
     if (b) {
@@ -1017,6 +1183,44 @@ public class Options {
     return dumpAST;
   }
 
+  /**
+   * Returns true if compatible translation passes share a tree traversal.
+   */
+  public boolean fusePasses() {
+    return fusePasses;
+  }
+
+  @VisibleForTesting
+  public void setFusePasses(boolean b) {
+    fusePasses = b;
+  }
+
+  /**
+   * Returns true if enhanced for loops over ArrayLists are translated into
+   * indexed loops, instead of fast enumeration.
+   */
+  public boolean indexedListLoops() {
+    return indexedListLoops;
+  }
+
+  @VisibleForTesting
+  public void setIndexedListLoops(boolean b) {
+    indexedListLoops = b;
+  }
+
+  /**
+   * Returns true if new objects that don't escape a local variable's block
+   * are released at the end of the block, instead of autoreleased.
+   */
+  public boolean escapeAnalysis() {
+    return escapeAnalysis;
+  }
+
+  @VisibleForTesting
+  public void setEscapeAnalysis(boolean b) {
+    escapeAnalysis = b;
+  }
+
   public boolean reportJavadocWarnings() {
     return reportJavadocWarnings;
   }
@@ -1074,6 +1278,92 @@ public class Options {
     return platformModuleSystemOptions;
   }
 
+  public int numThreads() {
+    return numThreads;
+  }
+
+  @VisibleForTesting
+  public void setNumThreads(int n) {
+    numThreads = n;
+  }
+
+  /**
+   * The maximum number of source files parsed together, or zero if unlimited.
+   */
+  public int batchMaxFiles() {
+    return batchMaxFiles;
+  }
+
+  @VisibleForTesting
+  public void setBatchMaxFiles(int n) {
+    batchMaxFiles = n;
+  }
+
+  /**
+   * The maximum total size of source files parsed together, or zero if unlimited.
+   */
+  public long batchMaxBytes() {
+    return batchMaxBytes;
+  }
+
+  @VisibleForTesting
+  public void setBatchMaxBytes(long n) {
+    batchMaxBytes = n;
+  }
+
+  /**
+   * Returns the recorder for the --timing-info-file flag, or null if it wasn't specified.
+   */
+  public TraceRecorder traceRecorder() {
+    return traceRecorder;
+  }
+
+  @VisibleForTesting
+  public void setTraceRecorder(TraceRecorder recorder) {
+    traceRecorder = recorder;
+  }
+
+  /**
+   * Returns the report for the --include-report flag, or null if it wasn't specified.
+   */
+  public IncludeReport includeReport() {
+    return includeReport;
+  }
+
+  @VisibleForTesting
+  public void setIncludeReport(IncludeReport report) {
+    includeReport = report;
+  }
+
+  /**
+   * Returns the generator for the --module-map flag, or null if it wasn't specified.
+   */
+  public ModuleMapGenerator moduleMapGenerator() {
+    return moduleMapGenerator;
+  }
+
+  @VisibleForTesting
+  public void setModuleMapGenerator(ModuleMapGenerator generator) {
+    moduleMapGenerator = generator;
+  }
+
+  public File cacheDirectory() {
+    return cacheDirectory;
+  }
+
+  @VisibleForTesting
+  public void setCacheDirectory(File dir) {
+    cacheDirectory = dir;
+  }
+
+  /**
+   * Returns the command-line flags and values that can affect the translated
+   * output, in the order they were specified.
+   */
+  public List<String> translationFlags() {
+    return translationFlags;
+  }
+
   public boolean injectLogSites() {
     return injectLogSites;
   }
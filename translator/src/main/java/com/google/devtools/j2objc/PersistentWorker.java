@@ -0,0 +1,280 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.ExternalAnnotations;
+import com.google.devtools.j2objc.util.NameTable;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the translator as a Bazel persistent worker, so the JVM, the loaded
+ * translator classes and the JRE mappings stay warm between translations.
+ * <p/>
+ * Requests and responses use Bazel's protocol: each message is a
+ * WorkRequest or WorkResponse protocol buffer, prefixed by its length as a
+ * varint. Only the fields the translator needs are decoded, so this doesn't
+ * require the protobuf runtime. Each request's arguments, after any other
+ * arguments the worker was started with, are handled the same way as a
+ * command-line invocation of {@link J2ObjC#run}.
+ */
+class PersistentWorker {
+
+  static final String PERSISTENT_WORKER_FLAG = "--persistent_worker";
+
+  // WorkRequest field numbers.
+  private static final int REQUEST_ARGUMENTS = 1;
+  private static final int REQUEST_ID = 3;
+
+  // WorkResponse field numbers.
+  private static final int RESPONSE_EXIT_CODE = 1;
+  private static final int RESPONSE_OUTPUT = 2;
+  private static final int RESPONSE_REQUEST_ID = 3;
+
+  // Protocol buffer wire types.
+  private static final int WIRETYPE_VARINT = 0;
+  private static final int WIRETYPE_FIXED64 = 1;
+  private static final int WIRETYPE_LENGTH_DELIMITED = 2;
+  private static final int WIRETYPE_FIXED32 = 5;
+
+  private final List<String> startupArgs;
+  private final InputStream in;
+  private final OutputStream out;
+
+  PersistentWorker(List<String> startupArgs, InputStream in, OutputStream out) {
+    this.startupArgs = startupArgs;
+    this.in = in;
+    this.out = out;
+  }
+
+  /**
+   * Returns the arguments other than --persistent_worker, or null if the
+   * translator wasn't started as a persistent worker.
+   */
+  static List<String> getStartupArgs(String[] args) {
+    List<String> startupArgs = new ArrayList<>(Arrays.asList(args));
+    return startupArgs.remove(PERSISTENT_WORKER_FLAG) ? startupArgs : null;
+  }
+
+  /**
+   * Processes requests until the input is closed.
+   */
+  void run() throws IOException {
+    Options.setExitOnUsage(false);
+    try {
+      while (true) {
+        byte[] message = readDelimitedMessage(in);
+        if (message == null) {
+          return;
+        }
+        WorkRequest request = WorkRequest.parse(message);
+        List<String> args = new ArrayList<>(startupArgs);
+        args.addAll(request.arguments);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int exitCode = processRequest(args, output);
+        writeResponse(request.requestId, exitCode, output.toString("UTF-8"));
+      }
+    } finally {
+      Options.setExitOnUsage(true);
+    }
+  }
+
+  /**
+   * Translates a single request, returning its exit code. Messages that would
+   * go to the console are written to the specified output, since the worker's
+   * standard output is used by the protocol. Static state left by earlier
+   * requests is reset first.
+   */
+  @VisibleForTesting
+  static int processRequest(List<String> args, OutputStream output) {
+    PrintStream savedOut = System.out;
+    PrintStream savedErr = System.err;
+    PrintStream printStream;
+    try {
+      printStream = new PrintStream(output, true, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new AssertionError(e);
+    }
+    System.setOut(printStream);
+    System.setErr(printStream);
+    PrintStream savedErrorStream = ErrorUtil.setErrorStream(printStream);
+    ErrorUtil.reset();
+    Options.setProGuardUsageFile(null);
+    ExternalAnnotations.reset();
+    NameTable.resetReservedNames();
+    try {
+      Options options = new Options();
+      List<String> files = options.load(args.toArray(new String[0]));
+      if (files.isEmpty()) {
+        ErrorUtil.error("no source files");
+      } else {
+        J2ObjC.run(files, options);
+      }
+      return J2ObjC.getExitCode(options);
+    } catch (Options.UsageException e) {
+      // The usage message has already been printed.
+      return e.getExitCode();
+    } catch (IOException | RuntimeException e) {
+      ErrorUtil.error(e.toString());
+      return Math.max(ErrorUtil.errorCount(), 1);
+    } finally {
+      printStream.flush();
+      System.setOut(savedOut);
+      System.setErr(savedErr);
+      ErrorUtil.setErrorStream(savedErrorStream);
+    }
+  }
+
+  private void writeResponse(int requestId, int exitCode, String output) throws IOException {
+    ByteArrayOutputStream message = new ByteArrayOutputStream();
+    if (exitCode != 0) {
+      writeTag(message, RESPONSE_EXIT_CODE, WIRETYPE_VARINT);
+      writeVarint(message, exitCode);
+    }
+    if (!output.isEmpty()) {
+      byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+      writeTag(message, RESPONSE_OUTPUT, WIRETYPE_LENGTH_DELIMITED);
+      writeVarint(message, bytes.length);
+      message.write(bytes);
+    }
+    if (requestId != 0) {
+      writeTag(message, RESPONSE_REQUEST_ID, WIRETYPE_VARINT);
+      writeVarint(message, requestId);
+    }
+    writeVarint(out, message.size());
+    message.writeTo(out);
+    out.flush();
+  }
+
+  /**
+   * The decoded fields of a WorkRequest.
+   */
+  @VisibleForTesting
+  static class WorkRequest {
+    final List<String> arguments = new ArrayList<>();
+    int requestId = 0;
+
+    static WorkRequest parse(byte[] message) throws IOException {
+      WorkRequest request = new WorkRequest();
+      int[] pos = { 0 };
+      while (pos[0] < message.length) {
+        long tag = readVarint(message, pos);
+        int field = (int) (tag >>> 3);
+        int wireType = (int) (tag & 0x7);
+        if (field == REQUEST_ARGUMENTS && wireType == WIRETYPE_LENGTH_DELIMITED) {
+          int length = (int) readVarint(message, pos);
+          request.arguments.add(
+              new String(message, pos[0], length, StandardCharsets.UTF_8));
+          pos[0] += length;
+        } else if (field == REQUEST_ID && wireType == WIRETYPE_VARINT) {
+          request.requestId = (int) readVarint(message, pos);
+        } else {
+          skipField(message, pos, wireType);
+        }
+      }
+      return request;
+    }
+  }
+
+  private static void skipField(byte[] message, int[] pos, int wireType) throws IOException {
+    switch (wireType) {
+      case WIRETYPE_VARINT:
+        readVarint(message, pos);
+        break;
+      case WIRETYPE_FIXED64:
+        pos[0] += 8;
+        break;
+      case WIRETYPE_LENGTH_DELIMITED:
+        int length = (int) readVarint(message, pos);
+        pos[0] += length;
+        break;
+      case WIRETYPE_FIXED32:
+        pos[0] += 4;
+        break;
+      default:
+        throw new IOException("invalid wire type in work request: " + wireType);
+    }
+  }
+
+  private static long readVarint(byte[] message, int[] pos) throws IOException {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (pos[0] >= message.length) {
+        throw new EOFException("truncated work request");
+      }
+      byte b = message[pos[0]++];
+      result |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IOException("malformed varint in work request");
+  }
+
+  /**
+   * Reads a length-prefixed message, or returns null at the end of the stream.
+   */
+  @VisibleForTesting
+  static byte[] readDelimitedMessage(InputStream in) throws IOException {
+    int length = 0;
+    for (int shift = 0; ; shift += 7) {
+      int b = in.read();
+      if (b == -1) {
+        if (shift == 0) {
+          return null;
+        }
+        throw new EOFException("truncated work request length");
+      }
+      length |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        break;
+      }
+    }
+    byte[] message = new byte[length];
+    int offset = 0;
+    while (offset < length) {
+      int n = in.read(message, offset, length - offset);
+      if (n == -1) {
+        throw new EOFException("truncated work request");
+      }
+      offset += n;
+    }
+    return message;
+  }
+
+  private static void writeTag(OutputStream out, int field, int wireType) throws IOException {
+    writeVarint(out, (field << 3) | wireType);
+  }
+
+  @VisibleForTesting
+  static void writeVarint(OutputStream out, long value) throws IOException {
+    while ((value & ~0x7fL) != 0) {
+      out.write((int) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+}
@@ -49,11 +49,22 @@ class ChildLink<T extends TreeNode> {
     if (child == newChild) {
       return;
     }
+    // Finding the unit's index walks up to the root, so it's skipped when
+    // neither subtree can change the index.
+    NodeKindIndex index = NodeKindIndex.mayContainIndexedNodes(child)
+        || NodeKindIndex.mayContainIndexedNodes(newChild)
+        ? CompilationUnit.findNodeKindIndex(parent) : null;
     if (child != null) {
+      if (index != null) {
+        index.remove(child);
+      }
       child.setOwner(null);
     }
     if (newChild != null) {
       newChild.setOwner(this);
+      if (index != null) {
+        index.add(newChild);
+      }
     }
     child = newChild;
   }
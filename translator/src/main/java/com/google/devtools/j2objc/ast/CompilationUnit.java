@@ -15,6 +15,7 @@
 package com.google.devtools.j2objc.ast;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.util.TranslationEnvironment;
 import java.util.List;
@@ -39,6 +40,8 @@ public class CompilationUnit extends TreeNode {
       ChildList.create(NativeDeclaration.class, this);
   private final ChildList<AbstractTypeDeclaration> types =
       ChildList.create(AbstractTypeDeclaration.class, this);
+  // Created by the first query, then kept up to date by ChildLink.
+  private NodeKindIndex nodeKindIndex = null;
 
   public CompilationUnit(TranslationEnvironment env, String mainTypeName) {
     this(env, "", mainTypeName, "");
@@ -133,6 +136,64 @@ public class CompilationUnit extends TreeNode {
     return types;
   }
 
+  /**
+   * Returns true if the unit has any nodes of the specified kind. Passes that
+   * only rewrite rare kinds of nodes use this to avoid traversing the tree.
+   */
+  public boolean hasNodesOfKind(Kind kind) {
+    if (!NodeKindIndex.isIndexed(kind)) {
+      return !findNodesOfKind(kind).isEmpty();
+    }
+    return getNodeKindIndex().contains(kind);
+  }
+
+  /**
+   * Returns the unit's nodes of the specified kind, in no particular order.
+   * Kinds that aren't indexed are found by traversing the tree.
+   */
+  public <T extends TreeNode> List<T> getNodesOfKind(Kind kind, Class<T> nodeClass) {
+    Iterable<TreeNode> found =
+        NodeKindIndex.isIndexed(kind) ? getNodeKindIndex().get(kind) : findNodesOfKind(kind);
+    ImmutableList.Builder<T> nodes = ImmutableList.builder();
+    for (TreeNode node : found) {
+      nodes.add(nodeClass.cast(node));
+    }
+    return nodes.build();
+  }
+
+  private List<TreeNode> findNodesOfKind(Kind kind) {
+    List<TreeNode> nodes = Lists.newArrayList();
+    accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        if (node.getKind() == kind) {
+          nodes.add(node);
+        }
+        return true;
+      }
+    });
+    return nodes;
+  }
+
+  private NodeKindIndex getNodeKindIndex() {
+    if (nodeKindIndex == null) {
+      nodeKindIndex = new NodeKindIndex(this);
+    }
+    return nodeKindIndex;
+  }
+
+  /**
+   * Returns the index of the unit containing the specified node, or null if
+   * the node isn't in a unit or the unit hasn't been indexed.
+   */
+  static NodeKindIndex findNodeKindIndex(TreeNode node) {
+    TreeNode root = node;
+    for (TreeNode parent = node.getParent(); parent != null; parent = parent.getParent()) {
+      root = parent;
+    }
+    return root instanceof CompilationUnit ? ((CompilationUnit) root).nodeKindIndex : null;
+  }
+
   public int getLineNumber(int position) {
     if (position < 0 || position >= source.length()) {
       return -1;
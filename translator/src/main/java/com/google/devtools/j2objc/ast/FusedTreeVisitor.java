@@ -0,0 +1,1080 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs several {@link FusibleVisitor}s in a single traversal of a tree. At
+ * each node the visitors are called in the order given, and each one only
+ * descends into subtrees it didn't prune by returning false from preVisit or
+ * visit, so the result is the same as running the visitors one after another.
+ * <p/>
+ * When a visitor replaces or removes the node it is visiting, the following
+ * visitors skip that node, and visit its replacement once the traversal of
+ * the original node is complete.
+ */
+public class FusedTreeVisitor extends TreeVisitor {
+
+  private static final int NUM_KINDS = TreeNode.Kind.values().length;
+
+  // How a visitor is skipping the subtree of a node.
+  private static final int PRUNED_BY_VISIT = 1;     // endVisit and postVisit are still called.
+  private static final int PRUNED_BY_PREVISIT = 2;  // Only postVisit is still called.
+  private static final int DETACHED = 3;            // Neither is called; see postVisit.
+
+  private final TreeVisitor[] visitors;
+  private final boolean[][] visitedKinds;
+  private final TreeNode[] skipRoots;
+  private final int[] skipModes;
+  private final List<ChildLink<? extends TreeNode>> owners = new ArrayList<>();
+
+  public FusedTreeVisitor(TreeVisitor... visitors) {
+    this(Arrays.asList(visitors));
+  }
+
+  public FusedTreeVisitor(List<? extends TreeVisitor> visitors) {
+    int n = visitors.size();
+    this.visitors = visitors.toArray(new TreeVisitor[n]);
+    visitedKinds = new boolean[n][NUM_KINDS];
+    skipRoots = new TreeNode[n];
+    skipModes = new int[n];
+    for (int i = 0; i < n; i++) {
+      TreeVisitor visitor = this.visitors[i];
+      if (!(visitor instanceof FusibleVisitor)) {
+        throw new IllegalArgumentException(
+            visitor.getClass().getSimpleName() + " is not a FusibleVisitor");
+      }
+      FusibleVisitor fusible = (FusibleVisitor) visitor;
+      for (TreeNode.Kind kind : fusible.getVisitedKinds()) {
+        visitedKinds[i][kind.ordinal()] = true;
+      }
+      for (int j = 0; j < i; j++) {
+        Class<?> earlier = this.visitors[j].getClass();
+        for (Class<? extends TreeVisitor> required : fusible.getRequiredPasses()) {
+          if (required.isAssignableFrom(earlier)) {
+            throw new IllegalArgumentException(visitor.getClass().getSimpleName()
+                + " can't be fused with " + earlier.getSimpleName()
+                + ", which must finish first");
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean preVisit(TreeNode node) {
+    owners.add(node.getOwner());
+    boolean anyActive = false;
+    for (int i = 0; i < visitors.length; i++) {
+      if (skipRoots[i] == null) {
+        if (visitors[i].preVisit(node)) {
+          anyActive = true;
+        } else {
+          skip(i, node, PRUNED_BY_PREVISIT);
+        }
+      }
+    }
+    return anyActive;
+  }
+
+  @Override
+  public void postVisit(TreeNode node) {
+    List<TreeVisitor> detachedVisitors = null;
+    for (int i = 0; i < visitors.length; i++) {
+      if (skipRoots[i] == null) {
+        visitors[i].postVisit(node);
+      } else if (skipRoots[i] == node) {
+        int mode = skipModes[i];
+        skipRoots[i] = null;
+        skipModes[i] = 0;
+        if (mode != DETACHED) {
+          visitors[i].postVisit(node);
+        } else {
+          if (detachedVisitors == null) {
+            detachedVisitors = new ArrayList<>();
+          }
+          detachedVisitors.add(visitors[i]);
+        }
+      }
+    }
+    ChildLink<? extends TreeNode> owner = owners.remove(owners.size() - 1);
+    if (detachedVisitors != null) {
+      TreeNode replacement = owner.get();
+      if (replacement != null && replacement != node) {
+        replacement.accept(new FusedTreeVisitor(detachedVisitors));
+      }
+    }
+  }
+
+  private void skip(int i, TreeNode node, int mode) {
+    skipRoots[i] = node;
+    skipModes[i] = mode;
+  }
+
+  /**
+   * Calls visit on each visitor that is still active, returning true if any
+   * of them will visit the node's children.
+   */
+  private boolean visitMembers(TreeNode node, VisitFunction visit) {
+    int kind = node.getKind().ordinal();
+    ChildLink<? extends TreeNode> owner = owners.get(owners.size() - 1);
+    boolean anyActive = false;
+    for (int i = 0; i < visitors.length; i++) {
+      if (skipRoots[i] != null || !visitedKinds[i][kind]) {
+        anyActive |= skipRoots[i] == null;
+        continue;
+      }
+      if (!visit.apply(visitors[i], node)) {
+        skip(i, node, PRUNED_BY_VISIT);
+      } else {
+        anyActive = true;
+      }
+      if (owner != null && node.getOwner() != owner) {
+        // Following visitors will see the replacement instead.
+        for (int j = i + 1; j < visitors.length; j++) {
+          if (skipRoots[j] == null) {
+            skip(j, node, DETACHED);
+          }
+        }
+        break;
+      }
+    }
+    return anyActive;
+  }
+
+  private void endVisitMembers(TreeNode node, EndVisitFunction endVisit) {
+    int kind = node.getKind().ordinal();
+    for (int i = 0; i < visitors.length; i++) {
+      if (!visitedKinds[i][kind]) {
+        continue;
+      }
+      if (skipRoots[i] == null
+          || (skipRoots[i] == node && skipModes[i] == PRUNED_BY_VISIT)) {
+        endVisit.apply(visitors[i], node);
+      }
+    }
+  }
+
+  private interface VisitFunction {
+    boolean apply(TreeVisitor visitor, TreeNode node);
+  }
+
+  private interface EndVisitFunction {
+    void apply(TreeVisitor visitor, TreeNode node);
+  }
+
+  @Override
+  public boolean visit(AnnotationTypeDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((AnnotationTypeDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(AnnotationTypeDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((AnnotationTypeDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(AnnotationTypeMemberDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((AnnotationTypeMemberDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(AnnotationTypeMemberDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((AnnotationTypeMemberDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(ArrayAccess node) {
+    return visitMembers(node, (v, n) -> v.visit((ArrayAccess) n));
+  }
+
+  @Override
+  public void endVisit(ArrayAccess node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ArrayAccess) n));
+  }
+
+  @Override
+  public boolean visit(ArrayCreation node) {
+    return visitMembers(node, (v, n) -> v.visit((ArrayCreation) n));
+  }
+
+  @Override
+  public void endVisit(ArrayCreation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ArrayCreation) n));
+  }
+
+  @Override
+  public boolean visit(ArrayInitializer node) {
+    return visitMembers(node, (v, n) -> v.visit((ArrayInitializer) n));
+  }
+
+  @Override
+  public void endVisit(ArrayInitializer node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ArrayInitializer) n));
+  }
+
+  @Override
+  public boolean visit(ArrayType node) {
+    return visitMembers(node, (v, n) -> v.visit((ArrayType) n));
+  }
+
+  @Override
+  public void endVisit(ArrayType node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ArrayType) n));
+  }
+
+  @Override
+  public boolean visit(AssertStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((AssertStatement) n));
+  }
+
+  @Override
+  public void endVisit(AssertStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((AssertStatement) n));
+  }
+
+  @Override
+  public boolean visit(Assignment node) {
+    return visitMembers(node, (v, n) -> v.visit((Assignment) n));
+  }
+
+  @Override
+  public void endVisit(Assignment node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((Assignment) n));
+  }
+
+  @Override
+  public boolean visit(Block node) {
+    return visitMembers(node, (v, n) -> v.visit((Block) n));
+  }
+
+  @Override
+  public void endVisit(Block node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((Block) n));
+  }
+
+  @Override
+  public boolean visit(BlockComment node) {
+    return visitMembers(node, (v, n) -> v.visit((BlockComment) n));
+  }
+
+  @Override
+  public void endVisit(BlockComment node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((BlockComment) n));
+  }
+
+  @Override
+  public boolean visit(BooleanLiteral node) {
+    return visitMembers(node, (v, n) -> v.visit((BooleanLiteral) n));
+  }
+
+  @Override
+  public void endVisit(BooleanLiteral node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((BooleanLiteral) n));
+  }
+
+  @Override
+  public boolean visit(BreakStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((BreakStatement) n));
+  }
+
+  @Override
+  public void endVisit(BreakStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((BreakStatement) n));
+  }
+
+  @Override
+  public boolean visit(CStringLiteral node) {
+    return visitMembers(node, (v, n) -> v.visit((CStringLiteral) n));
+  }
+
+  @Override
+  public void endVisit(CStringLiteral node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((CStringLiteral) n));
+  }
+
+  @Override
+  public boolean visit(CastExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((CastExpression) n));
+  }
+
+  @Override
+  public void endVisit(CastExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((CastExpression) n));
+  }
+
+  @Override
+  public boolean visit(CatchClause node) {
+    return visitMembers(node, (v, n) -> v.visit((CatchClause) n));
+  }
+
+  @Override
+  public void endVisit(CatchClause node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((CatchClause) n));
+  }
+
+  @Override
+  public boolean visit(CharacterLiteral node) {
+    return visitMembers(node, (v, n) -> v.visit((CharacterLiteral) n));
+  }
+
+  @Override
+  public void endVisit(CharacterLiteral node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((CharacterLiteral) n));
+  }
+
+  @Override
+  public boolean visit(ClassInstanceCreation node) {
+    return visitMembers(node, (v, n) -> v.visit((ClassInstanceCreation) n));
+  }
+
+  @Override
+  public void endVisit(ClassInstanceCreation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ClassInstanceCreation) n));
+  }
+
+  @Override
+  public boolean visit(CommaExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((CommaExpression) n));
+  }
+
+  @Override
+  public void endVisit(CommaExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((CommaExpression) n));
+  }
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    return visitMembers(node, (v, n) -> v.visit((CompilationUnit) n));
+  }
+
+  @Override
+  public void endVisit(CompilationUnit node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((CompilationUnit) n));
+  }
+
+  @Override
+  public boolean visit(ConditionalExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((ConditionalExpression) n));
+  }
+
+  @Override
+  public void endVisit(ConditionalExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ConditionalExpression) n));
+  }
+
+  @Override
+  public boolean visit(ConstructorInvocation node) {
+    return visitMembers(node, (v, n) -> v.visit((ConstructorInvocation) n));
+  }
+
+  @Override
+  public void endVisit(ConstructorInvocation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ConstructorInvocation) n));
+  }
+
+  @Override
+  public boolean visit(ContinueStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((ContinueStatement) n));
+  }
+
+  @Override
+  public void endVisit(ContinueStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ContinueStatement) n));
+  }
+
+  @Override
+  public boolean visit(CreationReference node) {
+    return visitMembers(node, (v, n) -> v.visit((CreationReference) n));
+  }
+
+  @Override
+  public void endVisit(CreationReference node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((CreationReference) n));
+  }
+
+  @Override
+  public boolean visit(DoStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((DoStatement) n));
+  }
+
+  @Override
+  public void endVisit(DoStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((DoStatement) n));
+  }
+
+  @Override
+  public boolean visit(EmptyStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((EmptyStatement) n));
+  }
+
+  @Override
+  public void endVisit(EmptyStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((EmptyStatement) n));
+  }
+
+  @Override
+  public boolean visit(EnhancedForStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((EnhancedForStatement) n));
+  }
+
+  @Override
+  public void endVisit(EnhancedForStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((EnhancedForStatement) n));
+  }
+
+  @Override
+  public boolean visit(EnumConstantDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((EnumConstantDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(EnumConstantDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((EnumConstantDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(EnumDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((EnumDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(EnumDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((EnumDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(ExpressionMethodReference node) {
+    return visitMembers(node, (v, n) -> v.visit((ExpressionMethodReference) n));
+  }
+
+  @Override
+  public void endVisit(ExpressionMethodReference node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ExpressionMethodReference) n));
+  }
+
+  @Override
+  public boolean visit(ExpressionStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((ExpressionStatement) n));
+  }
+
+  @Override
+  public void endVisit(ExpressionStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ExpressionStatement) n));
+  }
+
+  @Override
+  public boolean visit(FieldAccess node) {
+    return visitMembers(node, (v, n) -> v.visit((FieldAccess) n));
+  }
+
+  @Override
+  public void endVisit(FieldAccess node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((FieldAccess) n));
+  }
+
+  @Override
+  public boolean visit(FieldDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((FieldDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(FieldDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((FieldDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(ForStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((ForStatement) n));
+  }
+
+  @Override
+  public void endVisit(ForStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ForStatement) n));
+  }
+
+  @Override
+  public boolean visit(FunctionDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((FunctionDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(FunctionDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((FunctionDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(FunctionInvocation node) {
+    return visitMembers(node, (v, n) -> v.visit((FunctionInvocation) n));
+  }
+
+  @Override
+  public void endVisit(FunctionInvocation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((FunctionInvocation) n));
+  }
+
+  @Override
+  public boolean visit(IfStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((IfStatement) n));
+  }
+
+  @Override
+  public void endVisit(IfStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((IfStatement) n));
+  }
+
+  @Override
+  public boolean visit(InfixExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((InfixExpression) n));
+  }
+
+  @Override
+  public void endVisit(InfixExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((InfixExpression) n));
+  }
+
+  @Override
+  public boolean visit(Initializer node) {
+    return visitMembers(node, (v, n) -> v.visit((Initializer) n));
+  }
+
+  @Override
+  public void endVisit(Initializer node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((Initializer) n));
+  }
+
+  @Override
+  public boolean visit(InstanceofExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((InstanceofExpression) n));
+  }
+
+  @Override
+  public void endVisit(InstanceofExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((InstanceofExpression) n));
+  }
+
+  @Override
+  public boolean visit(IntersectionType node) {
+    return visitMembers(node, (v, n) -> v.visit((IntersectionType) n));
+  }
+
+  @Override
+  public void endVisit(IntersectionType node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((IntersectionType) n));
+  }
+
+  @Override
+  public boolean visit(Javadoc node) {
+    return visitMembers(node, (v, n) -> v.visit((Javadoc) n));
+  }
+
+  @Override
+  public void endVisit(Javadoc node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((Javadoc) n));
+  }
+
+  @Override
+  public boolean visit(LabeledStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((LabeledStatement) n));
+  }
+
+  @Override
+  public void endVisit(LabeledStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((LabeledStatement) n));
+  }
+
+  @Override
+  public boolean visit(LambdaExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((LambdaExpression) n));
+  }
+
+  @Override
+  public void endVisit(LambdaExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((LambdaExpression) n));
+  }
+
+  @Override
+  public boolean visit(LineComment node) {
+    return visitMembers(node, (v, n) -> v.visit((LineComment) n));
+  }
+
+  @Override
+  public void endVisit(LineComment node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((LineComment) n));
+  }
+
+  @Override
+  public boolean visit(MarkerAnnotation node) {
+    return visitMembers(node, (v, n) -> v.visit((MarkerAnnotation) n));
+  }
+
+  @Override
+  public void endVisit(MarkerAnnotation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((MarkerAnnotation) n));
+  }
+
+  @Override
+  public boolean visit(MemberValuePair node) {
+    return visitMembers(node, (v, n) -> v.visit((MemberValuePair) n));
+  }
+
+  @Override
+  public void endVisit(MemberValuePair node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((MemberValuePair) n));
+  }
+
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((MethodDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(MethodDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((MethodDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(MethodInvocation node) {
+    return visitMembers(node, (v, n) -> v.visit((MethodInvocation) n));
+  }
+
+  @Override
+  public void endVisit(MethodInvocation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((MethodInvocation) n));
+  }
+
+  @Override
+  public boolean visit(NativeDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((NativeDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(NativeDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((NativeDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(NativeExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((NativeExpression) n));
+  }
+
+  @Override
+  public void endVisit(NativeExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((NativeExpression) n));
+  }
+
+  @Override
+  public boolean visit(NativeStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((NativeStatement) n));
+  }
+
+  @Override
+  public void endVisit(NativeStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((NativeStatement) n));
+  }
+
+  @Override
+  public boolean visit(NormalAnnotation node) {
+    return visitMembers(node, (v, n) -> v.visit((NormalAnnotation) n));
+  }
+
+  @Override
+  public void endVisit(NormalAnnotation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((NormalAnnotation) n));
+  }
+
+  @Override
+  public boolean visit(NullLiteral node) {
+    return visitMembers(node, (v, n) -> v.visit((NullLiteral) n));
+  }
+
+  @Override
+  public void endVisit(NullLiteral node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((NullLiteral) n));
+  }
+
+  @Override
+  public boolean visit(NumberLiteral node) {
+    return visitMembers(node, (v, n) -> v.visit((NumberLiteral) n));
+  }
+
+  @Override
+  public void endVisit(NumberLiteral node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((NumberLiteral) n));
+  }
+
+  @Override
+  public boolean visit(PackageDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((PackageDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(PackageDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((PackageDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(ParameterizedType node) {
+    return visitMembers(node, (v, n) -> v.visit((ParameterizedType) n));
+  }
+
+  @Override
+  public void endVisit(ParameterizedType node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ParameterizedType) n));
+  }
+
+  @Override
+  public boolean visit(ParenthesizedExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((ParenthesizedExpression) n));
+  }
+
+  @Override
+  public void endVisit(ParenthesizedExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ParenthesizedExpression) n));
+  }
+
+  @Override
+  public boolean visit(PostfixExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((PostfixExpression) n));
+  }
+
+  @Override
+  public void endVisit(PostfixExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((PostfixExpression) n));
+  }
+
+  @Override
+  public boolean visit(PrefixExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((PrefixExpression) n));
+  }
+
+  @Override
+  public void endVisit(PrefixExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((PrefixExpression) n));
+  }
+
+  @Override
+  public boolean visit(PrimitiveType node) {
+    return visitMembers(node, (v, n) -> v.visit((PrimitiveType) n));
+  }
+
+  @Override
+  public void endVisit(PrimitiveType node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((PrimitiveType) n));
+  }
+
+  @Override
+  public boolean visit(PropertyAnnotation node) {
+    return visitMembers(node, (v, n) -> v.visit((PropertyAnnotation) n));
+  }
+
+  @Override
+  public void endVisit(PropertyAnnotation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((PropertyAnnotation) n));
+  }
+
+  @Override
+  public boolean visit(QualifiedName node) {
+    return visitMembers(node, (v, n) -> v.visit((QualifiedName) n));
+  }
+
+  @Override
+  public void endVisit(QualifiedName node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((QualifiedName) n));
+  }
+
+  @Override
+  public boolean visit(QualifiedType node) {
+    return visitMembers(node, (v, n) -> v.visit((QualifiedType) n));
+  }
+
+  @Override
+  public void endVisit(QualifiedType node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((QualifiedType) n));
+  }
+
+  @Override
+  public boolean visit(ReturnStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((ReturnStatement) n));
+  }
+
+  @Override
+  public void endVisit(ReturnStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ReturnStatement) n));
+  }
+
+  @Override
+  public boolean visit(SimpleName node) {
+    return visitMembers(node, (v, n) -> v.visit((SimpleName) n));
+  }
+
+  @Override
+  public void endVisit(SimpleName node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SimpleName) n));
+  }
+
+  @Override
+  public boolean visit(SimpleType node) {
+    return visitMembers(node, (v, n) -> v.visit((SimpleType) n));
+  }
+
+  @Override
+  public void endVisit(SimpleType node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SimpleType) n));
+  }
+
+  @Override
+  public boolean visit(SingleMemberAnnotation node) {
+    return visitMembers(node, (v, n) -> v.visit((SingleMemberAnnotation) n));
+  }
+
+  @Override
+  public void endVisit(SingleMemberAnnotation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SingleMemberAnnotation) n));
+  }
+
+  @Override
+  public boolean visit(SingleVariableDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((SingleVariableDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(SingleVariableDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SingleVariableDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(StringLiteral node) {
+    return visitMembers(node, (v, n) -> v.visit((StringLiteral) n));
+  }
+
+  @Override
+  public void endVisit(StringLiteral node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((StringLiteral) n));
+  }
+
+  @Override
+  public boolean visit(SuperConstructorInvocation node) {
+    return visitMembers(node, (v, n) -> v.visit((SuperConstructorInvocation) n));
+  }
+
+  @Override
+  public void endVisit(SuperConstructorInvocation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SuperConstructorInvocation) n));
+  }
+
+  @Override
+  public boolean visit(SuperMethodInvocation node) {
+    return visitMembers(node, (v, n) -> v.visit((SuperMethodInvocation) n));
+  }
+
+  @Override
+  public void endVisit(SuperMethodInvocation node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SuperMethodInvocation) n));
+  }
+
+  @Override
+  public boolean visit(SuperMethodReference node) {
+    return visitMembers(node, (v, n) -> v.visit((SuperMethodReference) n));
+  }
+
+  @Override
+  public void endVisit(SuperMethodReference node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SuperMethodReference) n));
+  }
+
+  @Override
+  public boolean visit(SuperFieldAccess node) {
+    return visitMembers(node, (v, n) -> v.visit((SuperFieldAccess) n));
+  }
+
+  @Override
+  public void endVisit(SuperFieldAccess node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SuperFieldAccess) n));
+  }
+
+  @Override
+  public boolean visit(SwitchCase node) {
+    return visitMembers(node, (v, n) -> v.visit((SwitchCase) n));
+  }
+
+  @Override
+  public void endVisit(SwitchCase node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SwitchCase) n));
+  }
+
+  @Override
+  public boolean visit(SwitchStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((SwitchStatement) n));
+  }
+
+  @Override
+  public void endVisit(SwitchStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SwitchStatement) n));
+  }
+
+  @Override
+  public boolean visit(SynchronizedStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((SynchronizedStatement) n));
+  }
+
+  @Override
+  public void endVisit(SynchronizedStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((SynchronizedStatement) n));
+  }
+
+  @Override
+  public boolean visit(TagElement node) {
+    return visitMembers(node, (v, n) -> v.visit((TagElement) n));
+  }
+
+  @Override
+  public void endVisit(TagElement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((TagElement) n));
+  }
+
+  @Override
+  public boolean visit(TextElement node) {
+    return visitMembers(node, (v, n) -> v.visit((TextElement) n));
+  }
+
+  @Override
+  public void endVisit(TextElement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((TextElement) n));
+  }
+
+  @Override
+  public boolean visit(ThisExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((ThisExpression) n));
+  }
+
+  @Override
+  public void endVisit(ThisExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ThisExpression) n));
+  }
+
+  @Override
+  public boolean visit(ThrowStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((ThrowStatement) n));
+  }
+
+  @Override
+  public void endVisit(ThrowStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((ThrowStatement) n));
+  }
+
+  @Override
+  public boolean visit(TryStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((TryStatement) n));
+  }
+
+  @Override
+  public void endVisit(TryStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((TryStatement) n));
+  }
+
+  @Override
+  public boolean visit(TypeDeclaration node) {
+    return visitMembers(node, (v, n) -> v.visit((TypeDeclaration) n));
+  }
+
+  @Override
+  public void endVisit(TypeDeclaration node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((TypeDeclaration) n));
+  }
+
+  @Override
+  public boolean visit(TypeDeclarationStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((TypeDeclarationStatement) n));
+  }
+
+  @Override
+  public void endVisit(TypeDeclarationStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((TypeDeclarationStatement) n));
+  }
+
+  @Override
+  public boolean visit(TypeLiteral node) {
+    return visitMembers(node, (v, n) -> v.visit((TypeLiteral) n));
+  }
+
+  @Override
+  public void endVisit(TypeLiteral node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((TypeLiteral) n));
+  }
+
+  @Override
+  public boolean visit(TypeMethodReference node) {
+    return visitMembers(node, (v, n) -> v.visit((TypeMethodReference) n));
+  }
+
+  @Override
+  public void endVisit(TypeMethodReference node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((TypeMethodReference) n));
+  }
+
+  @Override
+  public boolean visit(UnionType node) {
+    return visitMembers(node, (v, n) -> v.visit((UnionType) n));
+  }
+
+  @Override
+  public void endVisit(UnionType node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((UnionType) n));
+  }
+
+  @Override
+  public boolean visit(VariableDeclarationExpression node) {
+    return visitMembers(node, (v, n) -> v.visit((VariableDeclarationExpression) n));
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationExpression node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((VariableDeclarationExpression) n));
+  }
+
+  @Override
+  public boolean visit(VariableDeclarationFragment node) {
+    return visitMembers(node, (v, n) -> v.visit((VariableDeclarationFragment) n));
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationFragment node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((VariableDeclarationFragment) n));
+  }
+
+  @Override
+  public boolean visit(VariableDeclarationStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((VariableDeclarationStatement) n));
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((VariableDeclarationStatement) n));
+  }
+
+  @Override
+  public boolean visit(WhileStatement node) {
+    return visitMembers(node, (v, n) -> v.visit((WhileStatement) n));
+  }
+
+  @Override
+  public void endVisit(WhileStatement node) {
+    endVisitMembers(node, (v, n) -> v.endVisit((WhileStatement) n));
+  }
+}
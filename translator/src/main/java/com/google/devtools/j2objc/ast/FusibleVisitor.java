@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.ast;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A TreeVisitor that can share a single traversal with other visitors in a
+ * {@link FusedTreeVisitor}.
+ * <p/>
+ * A fusible visitor may replace or remove the node it is visiting, and modify
+ * that node's subtree. It must not depend on changes that earlier visitors in
+ * the fused traversal make to nodes after visiting them.
+ */
+public interface FusibleVisitor {
+
+  /**
+   * Returns the kinds of nodes whose visit or endVisit methods this visitor
+   * overrides. Other nodes are only traversed, as with TreeVisitor's defaults.
+   * The kinds are found from the visitor's class, so a visit method can't be
+   * left out of the set.
+   */
+  default Set<TreeNode.Kind> getVisitedKinds() {
+    return VisitedKinds.of(getClass());
+  }
+
+  /**
+   * Returns the visitors that must finish traversing the whole tree before
+   * this one starts, so they can't be fused with it.
+   */
+  default Set<Class<? extends TreeVisitor>> getRequiredPasses() {
+    return Collections.emptySet();
+  }
+}
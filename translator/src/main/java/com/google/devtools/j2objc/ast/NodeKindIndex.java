@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.ast;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+import java.util.Set;
+
+/**
+ * The live nodes of a compilation unit, grouped by kind. The index is updated
+ * by ChildLink whenever a subtree is attached to or detached from the unit.
+ * <p/>
+ * Only the kinds that passes query are indexed, so attaching and detaching
+ * subtrees doesn't record every node.
+ */
+class NodeKindIndex {
+
+  private static final Set<TreeNode.Kind> INDEXED_KINDS = Sets.immutableEnumSet(
+      TreeNode.Kind.CREATION_REFERENCE,
+      TreeNode.Kind.ENHANCED_FOR_STATEMENT,
+      TreeNode.Kind.EXPRESSION_METHOD_REFERENCE,
+      TreeNode.Kind.LABELED_STATEMENT,
+      TreeNode.Kind.LAMBDA_EXPRESSION,
+      TreeNode.Kind.SUPER_METHOD_REFERENCE,
+      TreeNode.Kind.SWITCH_STATEMENT,
+      TreeNode.Kind.TYPE_METHOD_REFERENCE);
+
+  private final Set<?>[] nodesByKind = new Set<?>[TreeNode.Kind.values().length];
+
+  NodeKindIndex(CompilationUnit unit) {
+    add(unit);
+  }
+
+  static boolean isIndexed(TreeNode.Kind kind) {
+    return INDEXED_KINDS.contains(kind);
+  }
+
+  /**
+   * Returns false if the node's subtree can't contain any indexed nodes:
+   * names, types, literals and comments only contain more of the same.
+   */
+  static boolean mayContainIndexedNodes(TreeNode node) {
+    return node != null && !(node instanceof Name || node instanceof Type
+        || node instanceof Comment || node instanceof BooleanLiteral
+        || node instanceof CharacterLiteral || node instanceof CStringLiteral
+        || node instanceof NullLiteral || node instanceof NumberLiteral
+        || node instanceof StringLiteral || node instanceof TypeLiteral);
+  }
+
+  @SuppressWarnings("unchecked")
+  Set<TreeNode> get(TreeNode.Kind kind) {
+    Preconditions.checkArgument(isIndexed(kind), "%s nodes aren't indexed", kind);
+    Set<TreeNode> nodes = (Set<TreeNode>) nodesByKind[kind.ordinal()];
+    if (nodes == null) {
+      nodes = Sets.newIdentityHashSet();
+      nodesByKind[kind.ordinal()] = nodes;
+    }
+    return nodes;
+  }
+
+  boolean contains(TreeNode.Kind kind) {
+    Set<?> nodes = nodesByKind[kind.ordinal()];
+    return nodes != null && !nodes.isEmpty();
+  }
+
+  /**
+   * Adds a subtree that was attached to the unit.
+   */
+  void add(TreeNode subtree) {
+    subtree.accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        if (isIndexed(node.getKind())) {
+          get(node.getKind()).add(node);
+        }
+        return mayContainIndexedNodes(node);
+      }
+    });
+  }
+
+  /**
+   * Removes a subtree that was detached from the unit.
+   */
+  void remove(TreeNode subtree) {
+    subtree.accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        Set<?> nodes = nodesByKind[node.getKind().ordinal()];
+        if (nodes != null) {
+          nodes.remove(node);
+        }
+        return mayContainIndexedNodes(node);
+      }
+    });
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.ast;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the kinds of nodes a TreeVisitor subclass handles, from the visit and
+ * endVisit methods it overrides.
+ */
+final class VisitedKinds {
+
+  // Maps the parameter type of each of TreeVisitor's visit methods to the
+  // kind of node it visits.
+  private static final Map<Class<?>, TreeNode.Kind> KINDS_BY_NODE_CLASS = mapNodeClasses();
+
+  private static final ClassValue<Set<TreeNode.Kind>> VISITED_KINDS =
+      new ClassValue<Set<TreeNode.Kind>>() {
+        @Override
+        protected Set<TreeNode.Kind> computeValue(Class<?> visitorClass) {
+          return findVisitedKinds(visitorClass);
+        }
+      };
+
+  private VisitedKinds() {}
+
+  static Set<TreeNode.Kind> of(Class<?> visitorClass) {
+    return VISITED_KINDS.get(visitorClass);
+  }
+
+  private static Map<Class<?>, TreeNode.Kind> mapNodeClasses() {
+    ImmutableMap.Builder<Class<?>, TreeNode.Kind> builder = ImmutableMap.builder();
+    for (Method method : TreeVisitor.class.getDeclaredMethods()) {
+      if (method.getName().equals("visit") && method.getParameterCount() == 1) {
+        Class<?> nodeClass = method.getParameterTypes()[0];
+        builder.put(nodeClass, TreeNode.Kind.valueOf(
+            CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, nodeClass.getSimpleName())));
+      }
+    }
+    return builder.build();
+  }
+
+  private static Set<TreeNode.Kind> findVisitedKinds(Class<?> visitorClass) {
+    EnumSet<TreeNode.Kind> kinds = EnumSet.noneOf(TreeNode.Kind.class);
+    for (Class<?> c = visitorClass; c != null && c != TreeVisitor.class; c = c.getSuperclass()) {
+      for (Method method : c.getDeclaredMethods()) {
+        String name = method.getName();
+        if ((name.equals("visit") || name.equals("endVisit")) && !method.isSynthetic()
+            && method.getParameterCount() == 1) {
+          TreeNode.Kind kind = KINDS_BY_NODE_CLASS.get(method.getParameterTypes()[0]);
+          if (kind != null) {
+            kinds.add(kind);
+          }
+        }
+      }
+    }
+    return Sets.immutableEnumSet(kinds);
+  }
+}
@@ -67,4 +67,9 @@ public interface InputFile {
   String getBasename();
 
   long lastModified();
+
+  /**
+   * Returns the size of this file in bytes, or -1 if it's not known.
+   */
+  long length();
 }
@@ -14,6 +14,7 @@
 package com.google.devtools.j2objc.file;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -21,6 +22,7 @@ import java.io.Reader;
 import java.nio.charset.Charset;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * A file inside a .jar file.
@@ -30,6 +32,7 @@ import java.util.zip.ZipEntry;
 public class JarredInputFile implements InputFile {
   private final String jarPath;
   private final String internalPath;
+  private final ZipFile openJar;  // May be null.
 
   /**
    * Create a new JarredSourceFile. The file's unit name will be the same as
@@ -41,10 +44,27 @@ public class JarredInputFile implements InputFile {
     assert !jarPath.endsWith(".java");
     this.jarPath = jarPath;
     this.internalPath = internalPath;
+    this.openJar = null;
+  }
+
+  /**
+   * Create a new JarredSourceFile that reads from an already open jar, which
+   * avoids reopening the jar and rereading its directory on each read. The
+   * caller is responsible for closing the jar after the file is last read.
+   * @param openJar the containing .jar
+   * @param internalPath the file's path within the jar
+   */
+  public JarredInputFile(ZipFile openJar, String internalPath) {
+    this.jarPath = openJar.getName();
+    this.internalPath = internalPath;
+    this.openJar = openJar;
   }
 
   @Override
   public boolean exists() throws IOException {
+    if (openJar != null) {
+      return openJar.getEntry(internalPath) != null;
+    }
     try (JarFile jarFile = new JarFile(jarPath)) {
       ZipEntry entry = jarFile.getEntry(internalPath);
       return entry != null;
@@ -53,6 +73,13 @@ public class JarredInputFile implements InputFile {
 
   @Override
   public InputStream getInputStream() throws IOException {
+    if (openJar != null) {
+      ZipEntry entry = openJar.getEntry(internalPath);
+      if (entry == null) {
+        throw new FileNotFoundException(getOriginalLocation());
+      }
+      return openJar.getInputStream(entry);
+    }
     final JarFile jarFile = new JarFile(jarPath);
     ZipEntry entry = jarFile.getEntry(internalPath);
     final InputStream entryStream = jarFile.getInputStream(entry);
@@ -111,6 +138,20 @@ public class JarredInputFile implements InputFile {
     return new File(jarPath).lastModified();
   }
 
+  @Override
+  public long length() {
+    if (openJar != null) {
+      ZipEntry entry = openJar.getEntry(internalPath);
+      return entry != null ? entry.getSize() : -1;
+    }
+    try (JarFile jarFile = new JarFile(jarPath)) {
+      ZipEntry entry = jarFile.getEntry(internalPath);
+      return entry != null ? entry.getSize() : -1;
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
   @Override
   public String toString() {
     return getOriginalLocation();
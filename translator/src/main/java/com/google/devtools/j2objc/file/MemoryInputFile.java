@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.devtools.j2objc.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A source file that only exists in memory, such as one generated by an
+ * annotation processor. Its content is already decoded, so the charset
+ * passed to openReader() is ignored, and getInputStream() returns UTF-8.
+ */
+public class MemoryInputFile implements InputFile {
+  private final String unitName;
+  private final String source;
+  private final long lastModified;
+
+  public MemoryInputFile(String unitName, String source) {
+    this.unitName = unitName;
+    this.source = source;
+    this.lastModified = System.currentTimeMillis();
+  }
+
+  @Override
+  public boolean exists() {
+    return true;
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public Reader openReader(Charset charset) {
+    return new StringReader(source);
+  }
+
+  /**
+   * Returns the unit name, since there is no file system path.
+   */
+  @Override
+  public String getAbsolutePath() {
+    return unitName;
+  }
+
+  @Override
+  public String getOriginalLocation() {
+    return "mem:" + unitName;
+  }
+
+  @Override
+  public String getUnitName() {
+    return unitName;
+  }
+
+  @Override
+  public String getBasename() {
+    return unitName.substring(unitName.lastIndexOf('/') + 1);
+  }
+
+  @Override
+  public long lastModified() {
+    return lastModified;
+  }
+
+  @Override
+  public long length() {
+    return source.length();
+  }
+
+  @Override
+  public String toString() {
+    return getOriginalLocation();
+  }
+}
@@ -79,6 +79,12 @@ public class RegularInputFile implements InputFile {
     return new File(absolutePath).lastModified();
   }
 
+  @Override
+  public long length() {
+    File f = new File(absolutePath);
+    return f.exists() ? f.length() : -1;
+  }
+
   @Override
   public String toString() {
     return getOriginalLocation();
@@ -42,6 +42,7 @@ public class GeneratedType {
   private final List<String> superTypes;
   private final Set<Import> headerForwardDeclarations;
   private final Set<Import> headerIncludes;
+  private final Set<Import> transitiveHeaderIncludes;
   private final Set<Import> implementationForwardDeclarations;
   private final Set<Import> implementationIncludes;
   private final String publicDeclarationCode;
@@ -55,6 +56,7 @@ public class GeneratedType {
       List<String> superTypes,
       Set<Import> headerForwardDeclarations,
       Set<Import> headerIncludes,
+      Set<Import> transitiveHeaderIncludes,
       Set<Import> implementationForwardDeclarations,
       Set<Import> implementationIncludes,
       String publicDeclarationCode,
@@ -66,6 +68,7 @@ public class GeneratedType {
     this.superTypes = Preconditions.checkNotNull(superTypes);
     this.headerForwardDeclarations = Preconditions.checkNotNull(headerForwardDeclarations);
     this.headerIncludes = Preconditions.checkNotNull(headerIncludes);
+    this.transitiveHeaderIncludes = Preconditions.checkNotNull(transitiveHeaderIncludes);
     this.implementationForwardDeclarations =
         Preconditions.checkNotNull(implementationForwardDeclarations);
     this.implementationIncludes = Preconditions.checkNotNull(implementationIncludes);
@@ -127,6 +130,12 @@ public class GeneratedType {
           ElementUtil.getQualifiedName(typeElement));
     }
 
+    Set<Import> headerIncludes = options.minimizeHeaderIncludes()
+        ? headerCollector.getMinimalSuperTypes() : headerCollector.getSuperTypes();
+    // Only needed for the include report.
+    Set<Import> transitiveHeaderIncludes = options.includeReport() != null
+        ? headerCollector.getTransitiveSuperTypes() : ImmutableSet.of();
+
     ImmutableSet.Builder<Import> implementationIncludes = ImmutableSet.builder();
     implementationIncludes.addAll(privateDeclarationCollector.getSuperTypes());
     implementationIncludes.addAll(importCollector.getImports());
@@ -136,7 +145,8 @@ public class GeneratedType {
         typeNode.hasPrivateDeclaration(),
         superTypes.build(),
         ImmutableSet.copyOf(headerCollector.getForwardDeclarations()),
-        ImmutableSet.copyOf(headerCollector.getSuperTypes()),
+        ImmutableSet.copyOf(headerIncludes),
+        ImmutableSet.copyOf(transitiveHeaderIncludes),
         ImmutableSet.copyOf(privateDeclarationCollector.getForwardDeclarations()),
         implementationIncludes.build(),
         publicDeclarationCode,
@@ -172,6 +182,14 @@ public class GeneratedType {
     return headerIncludes;
   }
 
+  /**
+   * The headers included by this type's declaration and the headers they
+   * include in turn. Only collected when an include report is requested.
+   */
+  public Set<Import> getTransitiveHeaderIncludes() {
+    return transitiveHeaderIncludes;
+  }
+
   public Set<Import> getImplementationForwardDeclarations() {
     return implementationForwardDeclarations;
   }
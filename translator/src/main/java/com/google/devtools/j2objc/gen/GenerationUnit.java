@@ -25,7 +25,9 @@ import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.file.InputFile;
 import com.google.devtools.j2objc.util.ElementUtil;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.TreeMap;
 import javax.annotation.Nullable;
 
@@ -56,6 +58,8 @@ public class GenerationUnit {
   private boolean hasIncompleteProtocol = false;
   private boolean hasIncompleteImplementation = false;
   private boolean hasNullabilityAnnotations = false;
+  private final List<File> outputFiles = new ArrayList<>();
+  private int unchangedOutputFileCount = 0;
   private final Options options;
 
   private enum State {
@@ -222,6 +226,34 @@ public class GenerationUnit {
     outputPath = sourceDir;
   }
 
+  /**
+   * Records a file written for this unit by a source generator.
+   */
+  public void addOutputFile(File file) {
+    outputFiles.add(file);
+  }
+
+  /**
+   * Records a file generated for this unit that wasn't written, because it
+   * already had the generated content.
+   */
+  public void addUnchangedOutputFile(File file) {
+    outputFiles.add(file);
+    unchangedOutputFileCount++;
+  }
+
+  /**
+   * Returns the files generated for this unit, in the order they were
+   * generated, including unchanged files.
+   */
+  public List<File> getOutputFiles() {
+    return outputFiles;
+  }
+
+  public int getUnchangedOutputFileCount() {
+    return unchangedOutputFileCount;
+  }
+
   public boolean isFullyParsed() {
     return receivedUnits == numUnits;
   }
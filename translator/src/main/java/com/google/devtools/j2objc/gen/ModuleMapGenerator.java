@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.gen;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.J2ObjC;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.util.NameTable;
+import com.google.devtools.j2objc.util.UnicodeUtils;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates a Clang module map and an umbrella header for the headers
+ * generated by a --build-closure or -XglobalCombinedOutput translation,
+ * enabled by the --module-map flag. The umbrella header includes the headers
+ * in dependency order, so it can also be used as a precompiled prefix header.
+ */
+public class ModuleMapGenerator {
+
+  public static final String MODULE_MAP_FILE = "module.modulemap";
+
+  private final String moduleName;
+  // The generated headers and the generated headers they include, sorted so
+  // the output doesn't depend on translation order.
+  private final Map<String, Set<String>> headers = new TreeMap<>();
+
+  public ModuleMapGenerator(String moduleName) {
+    this.moduleName = moduleName;
+  }
+
+  public String getUmbrellaHeader() {
+    return moduleName + "-umbrella.h";
+  }
+
+  /**
+   * Adds a generated header, with the headers it includes.
+   */
+  public void addHeader(String headerPath, Collection<String> includes) {
+    synchronized (headers) {
+      headers.put(headerPath, ImmutableSet.copyOf(includes));
+    }
+  }
+
+  /**
+   * Returns the generated headers, each after the generated headers it includes.
+   */
+  public List<String> getOrderedHeaders() {
+    List<String> result = new ArrayList<>();
+    Set<String> visited = new HashSet<>();
+    synchronized (headers) {
+      for (String header : headers.keySet()) {
+        addHeader(header, visited, result);
+      }
+    }
+    return result;
+  }
+
+  private void addHeader(String header, Set<String> visited, List<String> result) {
+    if (!visited.add(header)) {
+      return;
+    }
+    for (String include : headers.get(header)) {
+      // Headers from libraries, like the JRE, aren't part of this module.
+      if (headers.containsKey(include)) {
+        addHeader(include, visited, result);
+      }
+    }
+    result.add(header);
+  }
+
+  /**
+   * Writes the umbrella header and module map to the header output directory.
+   */
+  public void generate(Options options) throws IOException {
+    File outputDirectory = options.fileUtil().getHeaderOutputDirectory();
+    String umbrellaHeader = getUmbrellaHeader();
+    String guard = UnicodeUtils.asValidObjcIdentifier(NameTable.camelCasePath(moduleName));
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(J2ObjC.getFileHeader(options, umbrellaHeader));
+    sb.append(UnicodeUtils.format("\n#ifndef %s_UMBRELLA_H\n", guard));
+    sb.append(UnicodeUtils.format("#define %s_UMBRELLA_H\n\n", guard));
+    sb.append("#include \"J2ObjC_header.h\"\n");
+    for (String header : getOrderedHeaders()) {
+      sb.append(UnicodeUtils.format("#include \"%s\"\n", header));
+    }
+    sb.append(UnicodeUtils.format("\n#endif // %s_UMBRELLA_H\n", guard));
+    write(new File(outputDirectory, umbrellaHeader), sb.toString(), options);
+
+    sb = new StringBuilder();
+    sb.append(UnicodeUtils.format("module %s {\n", moduleName));
+    sb.append(UnicodeUtils.format("  umbrella header \"%s\"\n", umbrellaHeader));
+    sb.append("  export *\n");
+    sb.append("}\n");
+    write(new File(outputDirectory, MODULE_MAP_FILE), sb.toString(), options);
+  }
+
+  private static void write(File file, String content, Options options) throws IOException {
+    byte[] bytes = content.getBytes(options.fileUtil().getCharset());
+    // An updated umbrella header invalidates its precompiled header.
+    if (!ObjectiveCSourceFileGenerator.isUnchanged(file, bytes)) {
+      Files.createParentDirs(file);
+      Files.write(bytes, file);
+    }
+  }
+}
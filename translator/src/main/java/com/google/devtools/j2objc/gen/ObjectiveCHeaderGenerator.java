@@ -59,7 +59,29 @@ public class ObjectiveCHeaderGenerator extends ObjectiveCSourceFileGenerator {
     return options.getLanguage().headerSuffix();
   }
 
+  /**
+   * Returns the contents of the Objective-C header for a {@link GenerationUnit},
+   * without writing it.
+   */
+  public static String generateSource(GenerationUnit unit) {
+    ObjectiveCHeaderGenerator generator = new ObjectiveCHeaderGenerator(unit);
+    generator.printHeader();
+    return generator.getBuilder().toString();
+  }
+
   public final void generate() {
+    printHeader();
+    save(getOutputPath(), options.fileUtil().getHeaderOutputDirectory());
+
+    if (options.includeReport() != null) {
+      reportIncludes();
+    }
+    if (options.moduleMapGenerator() != null) {
+      options.moduleMapGenerator().addHeader(getOutputPath(), getIncludedHeaders());
+    }
+  }
+
+  private void printHeader() {
     println(J2ObjC.getFileHeader(options, getGenerationUnit().getSourceName()));
     for (String javadoc : getGenerationUnit().getJavadocBlocks()) {
       print(javadoc);
@@ -79,8 +101,38 @@ public class ObjectiveCHeaderGenerator extends ObjectiveCSourceFileGenerator {
     if (getGenerationUnit().options().emitKytheMappings()) {
       generateTypeMappings();
     }
+  }
 
-    save(getOutputPath(), options.fileUtil().getHeaderOutputDirectory());
+  /**
+   * Returns the headers of other generation units this header includes.
+   */
+  private Set<String> getIncludedHeaders() {
+    Set<String> includes = Sets.newHashSet();
+    for (GeneratedType type : getOrderedTypes()) {
+      for (Import imp : type.getHeaderIncludes()) {
+        if (!isLocalType(imp.getTypeName())) {
+          includes.add(imp.getImportFileName());
+        }
+      }
+    }
+    return includes;
+  }
+
+  /**
+   * Adds the number of headers this header includes to the include report.
+   */
+  private void reportIncludes() {
+    Set<String> directIncludes = getIncludedHeaders();
+    Set<String> transitiveIncludes = Sets.newHashSet();
+    for (GeneratedType type : getOrderedTypes()) {
+      for (Import imp : type.getTransitiveHeaderIncludes()) {
+        if (!isLocalType(imp.getTypeName())) {
+          transitiveIncludes.add(imp.getImportFileName());
+        }
+      }
+    }
+    options.includeReport().addHeader(
+        getOutputPath(), directIncludes.size(), transitiveIncludes.size());
   }
 
   protected void printTypeDeclaration(GeneratedType generatedType) {
@@ -50,7 +50,22 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     return options.getLanguage().suffix();
   }
 
+  /**
+   * Returns the contents of the Objective-C implementation file for a
+   * {@link GenerationUnit}, without writing it.
+   */
+  public static String generateSource(GenerationUnit unit) {
+    ObjectiveCImplementationGenerator generator = new ObjectiveCImplementationGenerator(unit);
+    generator.printImplementation();
+    return generator.getBuilder().toString();
+  }
+
   public void generate() {
+    printImplementation();
+    save(getOutputPath(), options.fileUtil().getOutputDirectory());
+  }
+
+  private void printImplementation() {
     print(J2ObjC.getFileHeader(options, getGenerationUnit().getSourceName()));
     printImports();
     printMemoryManagement();
@@ -63,7 +78,6 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
       print(generatedType.getImplementationCode());
     }
     popIgnoreDeprecatedDeclarationsPragma();
-    save(getOutputPath(), options.fileUtil().getOutputDirectory());
   }
 
   private void printIgnoreIncompletePragmas() {
@@ -16,6 +16,7 @@
 
 package com.google.devtools.j2objc.gen;
 
+import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.devtools.j2objc.types.Import;
 import com.google.devtools.j2objc.util.ErrorUtil;
@@ -106,7 +107,15 @@ public abstract class ObjectiveCSourceFileGenerator extends AbstractSourceGenera
         source += '\n';
       }
 
-      Files.asCharSink(outputFile, unit.options().fileUtil().getCharset()).write(source);
+      // Leave an unchanged file alone, so its timestamp doesn't trigger
+      // rebuilds of everything that depends on it.
+      byte[] content = source.getBytes(unit.options().fileUtil().getCharset());
+      if (isUnchanged(outputFile, content)) {
+        unit.addUnchangedOutputFile(outputFile);
+      } else {
+        Files.write(content, outputFile);
+        unit.addOutputFile(outputFile);
+      }
     } catch (IOException e) {
       ErrorUtil.error(e.getMessage());
     } finally {
@@ -114,6 +123,15 @@ public abstract class ObjectiveCSourceFileGenerator extends AbstractSourceGenera
     }
   }
 
+  /**
+   * Returns true if file exists with the specified content. The contents are
+   * only compared when the lengths match, and are streamed from the file.
+   */
+  public static boolean isUnchanged(File file, byte[] content) throws IOException {
+    return file.isFile() && file.length() == content.length
+        && Files.asByteSource(file).contentEquals(ByteSource.wrap(content));
+  }
+
   /** Ignores deprecation warnings. Deprecation warnings should be visible for human authored code,
    *  not transpiled code. This method should be paired with popIgnoreDeprecatedDeclarationsPragma.
    */
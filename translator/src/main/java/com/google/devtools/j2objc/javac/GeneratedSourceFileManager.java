@@ -0,0 +1,204 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.javac;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+/**
+ * A file manager that keeps sources written by annotation processors in
+ * memory, instead of in a source output directory. The generated sources
+ * are also listed on the source path, so later javac tasks can resolve
+ * references to them without a temporary directory.
+ */
+class GeneratedSourceFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+  // Generated sources by binary name, shared with the parser that owns them.
+  private final Map<String, GeneratedSource> generatedSources;
+  private final Charset charset;
+
+  GeneratedSourceFileManager(StandardJavaFileManager fileManager,
+      Map<String, GeneratedSource> generatedSources, Charset charset) {
+    super(fileManager);
+    this.generatedSources = generatedSources;
+    this.charset = charset;
+  }
+
+  @Override
+  public boolean hasLocation(Location location) {
+    return location == StandardLocation.SOURCE_OUTPUT || super.hasLocation(location);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForOutput(Location location, String className, Kind kind,
+      FileObject sibling) throws IOException {
+    if (location == StandardLocation.SOURCE_OUTPUT) {
+      return addGeneratedSource(className, kind);
+    }
+    return super.getJavaFileForOutput(location, className, kind, sibling);
+  }
+
+  @Override
+  public FileObject getFileForOutput(Location location, String packageName, String relativeName,
+      FileObject sibling) throws IOException {
+    if (location == StandardLocation.SOURCE_OUTPUT) {
+      // Only .java resources were collected from the source output directory.
+      String name = packageName.isEmpty() ? relativeName : packageName + '.' + relativeName;
+      if (name.endsWith(Kind.SOURCE.extension)) {
+        name = name.substring(0, name.length() - Kind.SOURCE.extension.length());
+        return addGeneratedSource(name, Kind.SOURCE);
+      }
+      return new GeneratedSource(name, Kind.OTHER, charset);
+    }
+    return super.getFileForOutput(location, packageName, relativeName, sibling);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForInput(Location location, String className, Kind kind)
+      throws IOException {
+    if (location == StandardLocation.SOURCE_PATH && kind == Kind.SOURCE) {
+      JavaFileObject file = super.getJavaFileForInput(location, className, kind);
+      return file != null ? file : generatedSources.get(className);
+    }
+    return super.getJavaFileForInput(location, className, kind);
+  }
+
+  @Override
+  public Iterable<JavaFileObject> list(Location location, String packageName, Set<Kind> kinds,
+      boolean recurse) throws IOException {
+    Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+    if (location != StandardLocation.SOURCE_PATH || !kinds.contains(Kind.SOURCE)
+        || generatedSources.isEmpty()) {
+      return files;
+    }
+    // Generated sources come last, as they did at the end of the source path.
+    List<JavaFileObject> result = new ArrayList<>();
+    for (JavaFileObject file : files) {
+      result.add(file);
+    }
+    for (GeneratedSource source : generatedSources.values()) {
+      String sourcePackage = source.getPackageName();
+      if (sourcePackage.equals(packageName)
+          || (recurse && (packageName.isEmpty() || sourcePackage.startsWith(packageName + '.')))) {
+        result.add(source);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String inferBinaryName(Location location, JavaFileObject file) {
+    if (file instanceof GeneratedSource) {
+      return ((GeneratedSource) file).binaryName;
+    }
+    return super.inferBinaryName(location, file);
+  }
+
+  private GeneratedSource addGeneratedSource(String className, Kind kind) {
+    GeneratedSource source = new GeneratedSource(className, kind, charset);
+    if (kind == Kind.SOURCE) {
+      generatedSources.put(className, source);
+    }
+    return source;
+  }
+
+  /**
+   * A generated file, whose content is set when its writer or output stream
+   * is flushed or closed.
+   */
+  static class GeneratedSource extends SimpleJavaFileObject {
+    private final String binaryName;
+    private final Charset charset;
+    private volatile String content = "";
+
+    private GeneratedSource(String binaryName, Kind kind, Charset charset) {
+      super(toUri(binaryName, kind), kind);
+      this.binaryName = binaryName;
+      this.charset = charset;
+    }
+
+    private static URI toUri(String binaryName, Kind kind) {
+      try {
+        return new URI("mem", null, "/" + binaryName.replace('.', '/') + kind.extension, null);
+      } catch (URISyntaxException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    /**
+     * Returns the path of this source relative to a source root.
+     */
+    String getUnitName() {
+      return binaryName.replace('.', '/') + kind.extension;
+    }
+
+    String getPackageName() {
+      int lastDot = binaryName.lastIndexOf('.');
+      return lastDot < 0 ? "" : binaryName.substring(0, lastDot);
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return content;
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+      return new ByteArrayOutputStream() {
+        @Override
+        public void flush() {
+          content = new String(toByteArray(), charset);
+        }
+
+        @Override
+        public void close() {
+          flush();
+        }
+      };
+    }
+
+    @Override
+    public Writer openWriter() {
+      return new StringWriter() {
+        @Override
+        public void flush() {
+          content = toString();
+        }
+
+        @Override
+        public void close() {
+          flush();
+        }
+      };
+    }
+  }
+}
@@ -19,6 +19,7 @@ import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.file.InputFile;
+import com.google.devtools.j2objc.file.MemoryInputFile;
 import com.google.devtools.j2objc.file.RegularInputFile;
 import com.google.devtools.j2objc.pipeline.ProcessingContext;
 import com.google.devtools.j2objc.util.ErrorUtil;
@@ -26,6 +27,7 @@ import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.Parser;
 import com.google.devtools.j2objc.util.PathClassLoader;
 import com.google.devtools.j2objc.util.SourceVersion;
+import com.google.devtools.j2objc.util.TimeTracker;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.JavacTask;
 import com.sun.source.util.SourcePositions;
@@ -39,7 +41,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -47,6 +51,7 @@ import javax.annotation.processing.Processor;
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
 import javax.tools.JavaFileManager.Location;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
@@ -62,6 +67,10 @@ public class JavacParser extends Parser {
 
   private StandardJavaFileManager fileManager;
 
+  // Sources generated by annotation processing, which are kept in memory.
+  private final Map<String, GeneratedSourceFileManager.GeneratedSource> generatedSources =
+      new LinkedHashMap<>();
+
   public JavacParser(Options options){
     super(options);
   }
@@ -137,8 +146,6 @@ public class JavacParser extends Parser {
     }
     fileManager.setLocation(StandardLocation.CLASS_OUTPUT,
         Lists.newArrayList(options.fileUtil().getOutputDirectory()));
-    fileManager.setLocation(StandardLocation.SOURCE_OUTPUT,
-        Lists.newArrayList(FileUtil.createTempDir("annotations")));
     return fileManager;
   }
 
@@ -189,14 +196,37 @@ public class JavacParser extends Parser {
     for (String path : paths) {
       files.add(new File(path));
     }
+    parseFiles(files, null, handler);
+  }
+
+  @Override
+  public void parseInputFiles(
+      Collection<InputFile> inputFiles, Handler handler, SourceVersion sourceVersion) {
+    List<File> files = new ArrayList<>();
+    List<JavaFileObject> fileObjects;
     try {
-      JavacEnvironment env = createEnvironment(files, null, false);
+      fileObjects = getMemoryFileObjects(inputFiles, files);
+    } catch (IOException e) {
+      ErrorUtil.error(e.getMessage());
+      return;
+    }
+    parseFiles(files, fileObjects, handler);
+  }
+
+  private void parseFiles(List<File> files, List<JavaFileObject> fileObjects, Handler handler) {
+    int fileCount = files.size() + (fileObjects != null ? fileObjects.size() : 0);
+    TimeTracker ticker = TimeTracker.getTicker("javac batch of " + fileCount + " files", options);
+    try {
+      JavacEnvironment env = createEnvironment(files, fileObjects, false);
       List<CompilationUnitTree> units = new ArrayList<>();
       for (CompilationUnitTree unit : env.task().parse()) {
         units.add(unit);
       }
+      ticker.tick("javac parse");
       env.task().analyze();
       processDiagnostics(env.diagnostics());
+      ticker.tick("javac analyze");
+      ticker.printResults(System.out);
 
       if (ErrorUtil.errorCount() == 0) {
         for (CompilationUnitTree ast : units) {
@@ -241,6 +271,25 @@ public class JavacParser extends Parser {
     return "";
   }
 
+  /**
+   * Returns in-memory file objects for input files that aren't regular files,
+   * and adds the regular files to the specified list.
+   */
+  private List<JavaFileObject> getMemoryFileObjects(
+      Iterable<InputFile> inputFiles, List<File> regularFiles) throws IOException {
+    List<JavaFileObject> fileObjects = new ArrayList<>();
+    for (InputFile file : inputFiles) {
+      if (file instanceof RegularInputFile) {
+        regularFiles.add(new File(file.getAbsolutePath()));
+      } else {
+        String source = options.fileUtil().readFile(file);
+        fileObjects.add(
+            filterJavaFileObject(MemoryFileObject.createJavaFile(file.getUnitName(), source)));
+      }
+    }
+    return fileObjects;
+  }
+
   // Creates a javac environment from a memory source.
   private JavacEnvironment createEnvironment(String path, String source) throws IOException {
     List<JavaFileObject> inputFiles = new ArrayList<>();
@@ -261,7 +310,12 @@ public class JavacParser extends Parser {
     for (JavaFileObject jfo : fileManager.getJavaFileObjectsFromFiles(files)) {
       fileObjects.add(filterJavaFileObject(jfo));
     }
-    JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostics,
+    JavaFileManager taskFileManager = fileManager;
+    if (processAnnotations || !generatedSources.isEmpty()) {
+      taskFileManager = new GeneratedSourceFileManager(
+          fileManager, generatedSources, options.fileUtil().getCharset());
+    }
+    JavacTask task = (JavacTask) compiler.getTask(null, taskFileManager, diagnostics,
         javacOptions, null, fileObjects);
     return new JavacEnvironment(task, fileManager, diagnostics);
   }
@@ -298,25 +352,31 @@ public class JavacParser extends Parser {
     Iterator<Processor> serviceIterator = ServiceLoader.load(Processor.class, loader).iterator();
     if (serviceIterator.hasNext() || options.getProcessors() != null) {
       List<File> inputFiles = new ArrayList<>();
+      List<InputFile> files = new ArrayList<>();
       for (ProcessingContext input : inputs) {
-        inputFiles.add(new File(input.getFile().getAbsolutePath()));
+        files.add(input.getFile());
       }
       try {
-        JavacEnvironment env = createEnvironment(inputFiles, null, true);
+        List<JavaFileObject> fileObjects = getMemoryFileObjects(files, inputFiles);
+        generatedSources.clear();
+        JavacEnvironment env = createEnvironment(inputFiles, fileObjects, true);
         env.task().parse();
         env.task().analyze();
         processDiagnostics(env.diagnostics());
-        // The source output directory is created and set in createEnvironment().
-        File sourceOutputDirectory =
-            env.fileManager().getLocation(StandardLocation.SOURCE_OUTPUT).iterator().next();
-        collectGeneratedInputs(sourceOutputDirectory, "", generatedInputs);
-        return new JavacProcessingResult(generatedInputs, sourceOutputDirectory);
+        // Generated sources are passed on as in-memory inputs. Later javac
+        // tasks also find them on the source path, via createEnvironment().
+        for (GeneratedSourceFileManager.GeneratedSource source : generatedSources.values()) {
+          generatedInputs.add(ProcessingContext.fromFile(
+              new MemoryInputFile(source.getUnitName(), source.getCharContent(true).toString()),
+              options));
+        }
       } catch (IOException e) {
         ErrorUtil.fatalError(e, "javac file manager error");
       }
     }
-    // No annotation processors on classpath, or processing errors reported.
-    return new JavacProcessingResult(generatedInputs, null);
+    // No generated sources if there are no annotation processors on the classpath,
+    // in which case no processing round is run.
+    return new JavacProcessingResult(generatedInputs);
   }
 
   @Override
@@ -330,22 +390,6 @@ public class JavacParser extends Parser {
     }
   }
 
-  private void collectGeneratedInputs(
-      File dir, String currentRelativePath, List<ProcessingContext> inputs) {
-    assert dir.exists() && dir.isDirectory();
-    for (File f : dir.listFiles()) {
-      String relativeName = currentRelativePath + File.separatorChar + f.getName();
-      if (f.isDirectory()) {
-        collectGeneratedInputs(f, relativeName, inputs);
-      } else {
-        if (f.getName().endsWith(".java")) {
-          inputs.add(ProcessingContext.fromFile(
-              new RegularInputFile(f.getPath(), relativeName), options));
-        }
-      }
-    }
-  }
-
   /**
    * Extract the name of a Java source's package, or null if not found. This method is only used
    * before javac parsing to determine the main type name.
@@ -430,22 +474,14 @@ public class JavacParser extends Parser {
 
   private static class JavacProcessingResult implements Parser.ProcessingResult {
     private final List<ProcessingContext> generatedSources;
-    private final File sourceOutputDirectory;
 
-    public JavacProcessingResult(List<ProcessingContext> generatedSources,
-        File sourceOutputDirectory) {
+    public JavacProcessingResult(List<ProcessingContext> generatedSources) {
       this.generatedSources = generatedSources;
-      this.sourceOutputDirectory = sourceOutputDirectory;
     }
 
     @Override
     public List<ProcessingContext> getGeneratedSources() {
       return generatedSources;
     }
-
-    @Override
-    public File getSourceOutputDirectory() {
-      return sourceOutputDirectory;
-    }
   }
 }
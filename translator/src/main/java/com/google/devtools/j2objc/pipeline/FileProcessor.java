@@ -17,15 +17,19 @@ package com.google.devtools.j2objc.pipeline;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.Options.TimingLevel;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.file.InputFile;
+import com.google.devtools.j2objc.file.RegularInputFile;
 import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.Parser;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,8 +47,10 @@ abstract class FileProcessor {
   private final Parser parser;
   protected final BuildClosureQueue closureQueue;
   protected final Options options;
-  private final Set<ProcessingContext> batchInputs = new HashSet<>();
+  // Ordered, so chunks are split the same way on every run.
+  private final Set<ProcessingContext> batchInputs = new LinkedHashSet<>();
   private final Set<ProcessingContext> outputs = new HashSet<>();
+  private int chunkCount = 0;
 
   public FileProcessor(Parser parser) {
     this.parser = Preconditions.checkNotNull(parser);
@@ -109,7 +115,7 @@ abstract class FileProcessor {
   }
 
   protected boolean isBatchable(InputFile file) {
-    return file.getAbsolutePath().endsWith(".java");
+    return file.getUnitName().endsWith(".java");
   }
 
   private void processBatch() {
@@ -117,12 +123,39 @@ abstract class FileProcessor {
       return;
     }
 
-    List<String> paths = Lists.newArrayListWithCapacity(batchInputs.size());
-    final Map<String, ProcessingContext> inputMap = new CanonicalPathMap(batchInputs.size());
+    // Large batches are split into chunks, so javac's trees and symbols for one
+    // chunk can be released before the next is parsed. Types declared in other
+    // chunks are then found on the sourcepath.
+    int maxFiles = options.batchMaxFiles();
+    long maxBytes = options.batchMaxBytes();
+    List<ProcessingContext> chunk = new ArrayList<>();
+    long chunkBytes = 0;
     for (ProcessingContext input : batchInputs) {
-      String path = input.getFile().getAbsolutePath();
-      paths.add(path);
-      inputMap.put(path, input);
+      long length = Math.max(input.getFile().length(), 0);
+      if (!chunk.isEmpty()
+          && ((maxFiles > 0 && chunk.size() >= maxFiles)
+              || (maxBytes > 0 && chunkBytes + length > maxBytes))) {
+        processChunk(chunk, chunkBytes);
+        chunk = new ArrayList<>();
+        chunkBytes = 0;
+      }
+      chunk.add(input);
+      chunkBytes += length;
+    }
+    processChunk(chunk, chunkBytes);
+    batchInputs.clear();
+  }
+
+  private void processChunk(List<ProcessingContext> chunk, long chunkBytes) {
+    List<InputFile> files = Lists.newArrayListWithCapacity(chunk.size());
+    final Map<String, ProcessingContext> inputMap = new CanonicalPathMap(chunk.size());
+    final Set<ProcessingContext> unprocessed = new HashSet<>(chunk);
+    for (ProcessingContext input : chunk) {
+      InputFile file = input.getFile();
+      files.add(file);
+      // Files parsed from memory are reported by their unit name.
+      inputMap.put(
+          file instanceof RegularInputFile ? file.getAbsolutePath() : file.getUnitName(), input);
     }
 
     Parser.Handler handler = new Parser.Handler() {
@@ -130,18 +163,31 @@ abstract class FileProcessor {
       public void handleParsedUnit(String path, CompilationUnit unit) {
         ProcessingContext input = inputMap.get(path);
         processCompiledSource(input, unit);
-        batchInputs.remove(input);
+        unprocessed.remove(input);
       }
     };
-    logger.finest("Processing batch of size " + batchInputs.size());
-    parser.parseFiles(paths, handler, options.getSourceVersion());
+    chunkCount++;
+    logger.finest("Processing batch of size " + chunk.size());
+    parser.parseInputFiles(files, handler, options.getSourceVersion());
 
-    // Any remaining files in batchFiles has some kind of error.
-    for (ProcessingContext input : batchInputs) {
+    // Any remaining files in the chunk have some kind of error.
+    for (ProcessingContext input : unprocessed) {
       handleError(input);
     }
+    reportChunkMemory(chunk.size(), chunkBytes);
+  }
 
-    batchInputs.clear();
+  private void reportChunkMemory(int fileCount, long chunkBytes) {
+    Runtime runtime = Runtime.getRuntime();
+    long usedBytes = runtime.totalMemory() - runtime.freeMemory();
+    String msg = String.format("batch %d: %d files, %d KB source, %d MB heap used, %d MB max",
+        chunkCount, fileCount, chunkBytes / 1024, usedBytes / (1024 * 1024),
+        runtime.maxMemory() / (1024 * 1024));
+    if (options.timingLevel() == TimingLevel.ALL) {
+      System.out.println(msg);
+    } else {
+      logger.fine(msg);
+    }
   }
 
   private void processCompiledSource(ProcessingContext input,
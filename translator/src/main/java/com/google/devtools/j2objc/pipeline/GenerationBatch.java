@@ -18,6 +18,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.file.InputFile;
+import com.google.devtools.j2objc.file.JarredInputFile;
 import com.google.devtools.j2objc.file.RegularInputFile;
 import com.google.devtools.j2objc.gen.GenerationUnit;
 import com.google.devtools.j2objc.util.ErrorUtil;
@@ -137,36 +138,42 @@ public class GenerationBatch {
       combinedUnit = GenerationUnit.newCombinedJarUnit(filename, options);
     }
     try {
-      ZipFile zfile = new ZipFile(f);
-      try {
-        boolean containsJavaFile = false;
-        Enumeration<? extends ZipEntry> enumerator = zfile.entries();
-        File tempDir = FileUtil.createTempDir(J2OBJC_TEMP_DIR_PREFIX);
-        String tempDirPath = tempDir.getAbsolutePath();
-        options.fileUtil().addTempDir(tempDirPath);
-        options.fileUtil().appendSourcePath(tempDirPath);
-
-        while (enumerator.hasMoreElements()) {
-          ZipEntry entry = enumerator.nextElement();
-          String internalPath = entry.getName();
-          if (internalPath.endsWith(".java")
-              || (options.translateClassfiles() && internalPath.endsWith(".class"))) {
-            // Extract JAR file to a temporary directory
-            File outputFile = options.fileUtil().extractZipEntry(tempDir, zfile, entry);
-            InputFile newFile = new RegularInputFile(outputFile.getAbsolutePath(), internalPath);
-            if (combinedUnit != null) {
-              inputs.add(new ProcessingContext(newFile, combinedUnit));
-            } else {
-              addExtractedJarSource(newFile, filename, internalPath);
-            }
-            containsJavaFile = true;
+      // The jar stays open until the end of the translation, so its entries are
+      // read directly from it. Only class files are extracted, since their
+      // conversion needs a classpath root.
+      ZipFile zfile = options.fileUtil().openJar(f);
+      boolean containsJavaFile = false;
+      File tempDir = null;
+      Enumeration<? extends ZipEntry> enumerator = zfile.entries();
+      while (enumerator.hasMoreElements()) {
+        ZipEntry entry = enumerator.nextElement();
+        String internalPath = entry.getName();
+        InputFile newFile;
+        if (internalPath.endsWith(".java")) {
+          newFile = new JarredInputFile(zfile, internalPath);
+        } else if (options.translateClassfiles() && internalPath.endsWith(".class")) {
+          if (tempDir == null) {
+            tempDir = FileUtil.createTempDir(J2OBJC_TEMP_DIR_PREFIX);
+            options.fileUtil().addTempDir(tempDir.getAbsolutePath());
           }
+          File outputFile = options.fileUtil().extractZipEntry(tempDir, zfile, entry);
+          newFile = new RegularInputFile(outputFile.getAbsolutePath(), internalPath);
+        } else {
+          continue;
         }
-        if (!options.translateClassfiles() && !containsJavaFile) {
-          ErrorUtil.error(filename + " does not contain any Java source files.");
+        if (combinedUnit != null) {
+          inputs.add(new ProcessingContext(newFile, combinedUnit));
+        } else {
+          addJarSource(newFile, filename, internalPath);
         }
-      } finally {
-        zfile.close();  // Also closes input stream.
+        containsJavaFile = true;
+      }
+      if (containsJavaFile) {
+        // Types referenced by the jar's sources are resolved from the jar itself.
+        options.fileUtil().appendSourcePath(f.getPath());
+      }
+      if (!options.translateClassfiles() && !containsJavaFile) {
+        ErrorUtil.error(filename + " does not contain any Java source files.");
       }
     } catch (ZipException e) { // Also catches JarExceptions
       logger.fine(e.getMessage());
@@ -176,7 +183,7 @@ public class GenerationBatch {
     }
   }
 
-  private void addExtractedJarSource(InputFile file, String jarFileName, String internalPath) {
+  private void addJarSource(InputFile file, String jarFileName, String internalPath) {
     String sourceName = "jar:file:" + jarFileName + "!" + internalPath;
     inputs.add(ProcessingContext.fromExtractedJarEntry(file, sourceName, options));
   }
@@ -0,0 +1,405 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.pipeline;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.file.InputFile;
+import com.google.devtools.j2objc.gen.GenerationUnit;
+import com.google.devtools.j2objc.gen.ObjectiveCSourceFileGenerator;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.FileUtil;
+import com.google.devtools.j2objc.util.Version;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * An on-disk cache of translated sources, enabled by the --cache-dir flag.
+ * <p/>
+ * Each input has an entry keyed by its original location. The entry records a
+ * hash of the input's contents and the translation flags, the types the input
+ * declares, and the hash of each type the translation referenced. A type
+ * declared by one of the run's inputs is hashed by that input's contents, and
+ * other types by their source or class file on the sourcepath or classpath.
+ * When all of these still match, the input's cached .h and .m files are copied
+ * to the output directories and the input isn't translated. Dependency hashes
+ * cover the whole file of each referenced type, so they are a conservative
+ * stand-in for its ABI.
+ */
+public class TranslationCache {
+
+  private static final Logger logger = Logger.getLogger(TranslationCache.class.getName());
+
+  private static final String ENTRY_SUFFIX = ".entry";
+  private static final String KEY_TAG = "key";
+  private static final String TYPE_TAG = "type";
+  private static final String DEPENDENCY_TAG = "dep";
+  private static final String OUTPUT_TAG = "out";
+  private static final String HEADER_KIND = "h";
+  private static final String SOURCE_KIND = "m";
+  private static final String MISSING_HASH = "-";
+  // Recorded for a dependency that isn't declared by an input, found on a path
+  // or loaded from the bootclasspath, such as a generated type. It never
+  // matches, so the dependent input is always translated again.
+  private static final String UNRESOLVED_HASH = "?";
+  private static final Splitter FIELD_SPLITTER = Splitter.on(' ').limit(3);
+
+  // Flags whose value is a file that affects translation. Path flags aren't
+  // included, as the types found on them are hashed as dependencies.
+  private static final ImmutableSet<String> FILE_FLAGS = ImmutableSet.of(
+      "--mapping",
+      "--header-mapping",
+      "--dead-code-report",
+      "--prefixes",
+      "-Xannotations-jar",
+      "--reflection-classes",
+      "-external-annotation-file",
+      "--reserved-names");
+
+  private final Options options;
+  private final File cacheDir;
+  private final String flagsHash;
+  private final Map<ProcessingContext, String> inputKeys = new IdentityHashMap<>();
+  private final Map<ProcessingContext, String> sourceHashes = new IdentityHashMap<>();
+  private final Map<ProcessingContext, Set<String>> inputTypes = new IdentityHashMap<>();
+  private final Map<ProcessingContext, Set<String>> inputDependencies = new IdentityHashMap<>();
+  // The input that declares each top-level type, from the inputs' previous
+  // entries and from the inputs translated by this run.
+  private final Map<String, ProcessingContext> typeSources = new HashMap<>();
+  // Dependencies loaded from class files, which are bootclasspath types when
+  // they aren't found on the classpath.
+  private final Set<String> classFileTypes = new HashSet<>();
+  private final Map<String, String> typeHashes = new HashMap<>();
+  private int hits = 0;
+
+  public TranslationCache(Options options) {
+    this.options = options;
+    this.cacheDir = options.cacheDirectory();
+    this.flagsHash = hashFlags(options);
+  }
+
+  /**
+   * Returns true if the cache can be used with the specified options. Inputs
+   * are cached individually, so modes where several inputs share a generation
+   * unit, or where translation pulls in other sources, aren't supported. Nor
+   * is --output-header-mapping, since restored inputs don't add their types'
+   * headers to the printed mapping.
+   */
+  public static boolean isEnabled(Options options) {
+    return options.cacheDirectory() != null
+        && options.globalCombinedOutput() == null
+        && !options.buildClosure()
+        && !options.getHeaderMap().combineSourceJars()
+        && !options.getHeaderMap().includeGeneratedSources()
+        && options.getHeaderMap().getOutputMappingFile() == null
+        && !options.dumpAST();
+  }
+
+  /**
+   * Restores the outputs of inputs that have valid cache entries, and returns
+   * the inputs that still need to be translated.
+   */
+  public List<ProcessingContext> restoreOutputs(List<ProcessingContext> inputs) {
+    // Read all entries first, so that dependencies on types declared by other
+    // inputs are checked against those inputs' current contents.
+    Map<ProcessingContext, List<String>> entries = new IdentityHashMap<>();
+    for (ProcessingContext input : inputs) {
+      try {
+        String sourceHash = hashSource(input.getFile());
+        sourceHashes.put(input, sourceHash);
+        inputKeys.put(input, hashInput(input.getFile(), sourceHash));
+        File entryFile = getEntryFile(input);
+        if (entryFile.exists()) {
+          List<String> lines = Files.asCharSource(entryFile, StandardCharsets.UTF_8).readLines();
+          entries.put(input, lines);
+          for (String line : lines) {
+            List<String> fields = FIELD_SPLITTER.splitToList(line);
+            if (fields.get(0).equals(TYPE_TAG)) {
+              typeSources.put(fields.get(1), input);
+            }
+          }
+        }
+      } catch (IOException e) {
+        logger.fine("translation cache miss for " + input.getOriginalSourcePath() + ": " + e);
+      }
+    }
+    List<ProcessingContext> misses = new ArrayList<>();
+    for (ProcessingContext input : inputs) {
+      String key = inputKeys.get(input);
+      List<String> lines = entries.get(input);
+      try {
+        if (key != null && lines != null && restore(input, key, lines)) {
+          hits++;
+          continue;
+        }
+      } catch (IOException e) {
+        logger.fine("translation cache miss for " + input.getOriginalSourcePath() + ": " + e);
+      }
+      misses.add(input);
+    }
+    logger.fine(String.format("translation cache: %d hits, %d misses", hits, misses.size()));
+    return misses;
+  }
+
+  public int getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Records the top-level types a translated input declares and the types it
+   * depends on. The dependencies are hashed when the input is stored, once
+   * the other inputs of the batch have declared their types.
+   *
+   * @param classFileDependencies the dependencies loaded from class files
+   */
+  void recordDependencies(ProcessingContext input, Set<String> declaredTypes,
+      Set<String> dependencies, Set<String> classFileDependencies) {
+    if (!inputKeys.containsKey(input)) {
+      return;
+    }
+    for (String type : declaredTypes) {
+      typeSources.put(type, input);
+    }
+    inputTypes.put(input, declaredTypes);
+    inputDependencies.put(input, dependencies);
+    classFileTypes.addAll(classFileDependencies);
+  }
+
+  /**
+   * Stores the generated files of a translated input.
+   */
+  void store(ProcessingContext input) {
+    String key = inputKeys.get(input);
+    Set<String> dependencies = inputDependencies.get(input);
+    if (key == null || dependencies == null) {
+      return;
+    }
+    File entryDir = getEntryDir(input);
+    try {
+      getEntryFile(input).delete();
+      FileUtil.deleteTempDir(entryDir);
+      List<String> lines = new ArrayList<>();
+      lines.add(KEY_TAG + ' ' + key);
+      for (String type : inputTypes.get(input)) {
+        lines.add(TYPE_TAG + ' ' + type);
+      }
+      for (String dependency : dependencies) {
+        String hash = hashType(dependency);
+        if (hash.equals(MISSING_HASH) && !classFileTypes.contains(dependency)) {
+          hash = UNRESOLVED_HASH;
+        }
+        lines.add(DEPENDENCY_TAG + ' ' + dependency + ' ' + hash);
+      }
+      GenerationUnit genUnit = input.getGenerationUnit();
+      for (File outputFile : genUnit.getOutputFiles()) {
+        String kind = getOutputKind(outputFile);
+        if (kind == null) {
+          return;  // Not under an output directory, so can't be restored.
+        }
+        String relativePath = relativePath(getOutputDir(kind), outputFile);
+        File cachedFile = new File(new File(entryDir, kind), relativePath);
+        Files.createParentDirs(cachedFile);
+        Files.copy(outputFile, cachedFile);
+        lines.add(OUTPUT_TAG + ' ' + kind + ' ' + relativePath);
+      }
+      // Write the entry last, so an interrupted store is never a hit.
+      Files.asCharSink(getEntryFile(input), StandardCharsets.UTF_8)
+          .write(Joiner.on('\n').join(lines) + '\n');
+    } catch (IOException e) {
+      ErrorUtil.warning("cannot write translation cache entry for "
+          + input.getOriginalSourcePath() + ": " + e.getMessage());
+    }
+  }
+
+  private boolean restore(ProcessingContext input, String key, List<String> lines)
+      throws IOException {
+    List<String[]> outputs = new ArrayList<>();
+    boolean keyMatches = false;
+    for (String line : lines) {
+      List<String> fields = FIELD_SPLITTER.splitToList(line);
+      switch (fields.get(0)) {
+        case KEY_TAG:
+          keyMatches = fields.get(1).equals(key);
+          if (!keyMatches) {
+            return false;
+          }
+          break;
+        case TYPE_TAG:
+          break;
+        case DEPENDENCY_TAG:
+          if (!fields.get(2).equals(hashType(fields.get(1)))) {
+            return false;
+          }
+          break;
+        case OUTPUT_TAG:
+          outputs.add(new String[] { fields.get(1), fields.get(2) });
+          break;
+        default:
+          return false;
+      }
+    }
+    if (!keyMatches) {
+      return false;
+    }
+    File entryDir = getEntryDir(input);
+    for (String[] output : outputs) {
+      if (!new File(new File(entryDir, output[0]), output[1]).exists()) {
+        return false;
+      }
+    }
+    for (String[] output : outputs) {
+      File outputFile = new File(getOutputDir(output[0]), output[1]);
+      byte[] content = Files.toByteArray(new File(new File(entryDir, output[0]), output[1]));
+      // Leave unchanged outputs alone, so their timestamps don't trigger rebuilds.
+      if (!ObjectiveCSourceFileGenerator.isUnchanged(outputFile, content)) {
+        Files.createParentDirs(outputFile);
+        Files.write(content, outputFile);
+      }
+    }
+    return true;
+  }
+
+  private String hashInput(InputFile file, String sourceHash) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(flagsHash, StandardCharsets.UTF_8);
+    hasher.putString(file.getUnitName(), StandardCharsets.UTF_8);
+    hasher.putString(sourceHash, StandardCharsets.UTF_8);
+    return hasher.hash().toString();
+  }
+
+  private static String hashSource(InputFile file) throws IOException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hashContents(file, hasher);
+    return hasher.hash().toString();
+  }
+
+  private String hashType(String qualifiedName) {
+    ProcessingContext source = typeSources.get(qualifiedName);
+    if (source != null) {
+      String hash = sourceHashes.get(source);
+      return hash != null ? hash : UNRESOLVED_HASH;
+    }
+    return typeHashes.computeIfAbsent(qualifiedName, this::hashTypeOnPaths);
+  }
+
+  private String hashTypeOnPaths(String qualifiedName) {
+    try {
+      InputFile file = options.fileUtil().findTypeOnSourcePath(qualifiedName);
+      if (file == null) {
+        file = options.fileUtil().findTypeOnClassPath(qualifiedName);
+      }
+      if (file == null) {
+        // Bootclasspath types only change with the translator, and are covered
+        // by its version. Other unresolved types are never recorded as missing.
+        return MISSING_HASH;
+      }
+      return hashSource(file);
+    } catch (IOException e) {
+      return UNRESOLVED_HASH;
+    }
+  }
+
+  private static void hashContents(InputFile file, Hasher hasher) throws IOException {
+    try (InputStream in = file.getInputStream();
+        OutputStream out = Funnels.asOutputStream(hasher)) {
+      ByteStreams.copy(in, out);
+    }
+  }
+
+  /**
+   * Hashes the translator version and flags. The files named by flags that
+   * affect translation, such as mappings and prefix files, are hashed by
+   * content.
+   */
+  private static String hashFlags(Options options) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(Version.jarVersion(Options.class), StandardCharsets.UTF_8);
+    String previousFlag = null;
+    for (String flag : options.translationFlags()) {
+      hasher.putString(flag, StandardCharsets.UTF_8);
+      hasher.putByte((byte) 0);
+      if (FILE_FLAGS.contains(previousFlag)) {
+        // Mapping flags take comma-separated lists of files.
+        for (String path : Splitter.on(',').split(flag)) {
+          File f = new File(path);
+          if (f.isFile()) {
+            try {
+              hasher.putBytes(Files.toByteArray(f));
+            } catch (IOException e) {
+              // Hash the name only; an unreadable file fails translation anyway.
+            }
+          }
+        }
+      }
+      previousFlag = flag;
+    }
+    return hasher.hash().toString();
+  }
+
+  private File getEntryFile(ProcessingContext input) {
+    return new File(cacheDir, entryName(input) + ENTRY_SUFFIX);
+  }
+
+  private File getEntryDir(ProcessingContext input) {
+    return new File(cacheDir, entryName(input));
+  }
+
+  private static String entryName(ProcessingContext input) {
+    return Hashing.sha256()
+        .hashString(input.getOriginalSourcePath(), StandardCharsets.UTF_8).toString();
+  }
+
+  private String getOutputKind(File outputFile) {
+    if (isUnder(options.fileUtil().getOutputDirectory(), outputFile)) {
+      return SOURCE_KIND;
+    }
+    if (isUnder(options.fileUtil().getHeaderOutputDirectory(), outputFile)) {
+      return HEADER_KIND;
+    }
+    return null;
+  }
+
+  private File getOutputDir(String kind) {
+    return kind.equals(HEADER_KIND)
+        ? options.fileUtil().getHeaderOutputDirectory()
+        : options.fileUtil().getOutputDirectory();
+  }
+
+  private static boolean isUnder(File dir, File file) {
+    return file.getAbsolutePath().startsWith(dir.getAbsolutePath() + File.separatorChar);
+  }
+
+  private static String relativePath(File dir, File file) {
+    return file.getAbsolutePath().substring(dir.getAbsolutePath().length() + 1);
+  }
+}
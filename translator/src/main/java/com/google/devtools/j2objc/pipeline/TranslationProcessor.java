@@ -15,9 +15,17 @@
 package com.google.devtools.j2objc.pipeline;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.devtools.j2objc.Options.TimingLevel;
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.DebugASTDump;
+import com.google.devtools.j2objc.ast.FusedTreeVisitor;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeVisitor;
 import com.google.devtools.j2objc.gen.GenerationUnit;
+import com.google.devtools.j2objc.gen.ModuleMapGenerator;
 import com.google.devtools.j2objc.gen.ObjectiveCHeaderGenerator;
 import com.google.devtools.j2objc.gen.ObjectiveCImplementationGenerator;
 import com.google.devtools.j2objc.gen.ObjectiveCSegmentedHeaderGenerator;
@@ -25,6 +33,7 @@ import com.google.devtools.j2objc.translate.AbstractMethodRewriter;
 import com.google.devtools.j2objc.translate.AnnotationRewriter;
 import com.google.devtools.j2objc.translate.ArrayRewriter;
 import com.google.devtools.j2objc.translate.Autoboxer;
+import com.google.devtools.j2objc.translate.BoxingOptimizer;
 import com.google.devtools.j2objc.translate.CastResolver;
 import com.google.devtools.j2objc.translate.ComplexExpressionExtractor;
 import com.google.devtools.j2objc.translate.ConstantBranchPruner;
@@ -33,6 +42,7 @@ import com.google.devtools.j2objc.translate.DefaultMethodShimGenerator;
 import com.google.devtools.j2objc.translate.DestructorGenerator;
 import com.google.devtools.j2objc.translate.EnhancedForRewriter;
 import com.google.devtools.j2objc.translate.EnumRewriter;
+import com.google.devtools.j2objc.translate.EscapeAnalyzer;
 import com.google.devtools.j2objc.translate.ExternalAnnotationInjector;
 import com.google.devtools.j2objc.translate.Functionizer;
 import com.google.devtools.j2objc.translate.GwtConverter;
@@ -64,15 +74,29 @@ import com.google.devtools.j2objc.types.HeaderImportCollector;
 import com.google.devtools.j2objc.types.ImplementationImportCollector;
 import com.google.devtools.j2objc.types.Import;
 import com.google.devtools.j2objc.util.CodeReferenceMap;
+import com.google.devtools.j2objc.util.ElementUtil;
 import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.ExternalAnnotations;
 import com.google.devtools.j2objc.util.Parser;
 import com.google.devtools.j2objc.util.TimeTracker;
+import com.google.devtools.j2objc.util.TypeUtil;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 
 /**
  * Processes source files by translating each source into an Objective-C header
@@ -85,12 +109,24 @@ public class TranslationProcessor extends FileProcessor {
   private static final Logger logger = Logger.getLogger(TranslationProcessor.class.getName());
 
   private final CodeReferenceMap deadCodeMap;
+  private final TranslationCache cache;
   private final List<GenerationUnit> outputs = new ArrayList<>();
   private int processedCount = 0;
+  private int writtenFileCount = 0;
+  private int unchangedFileCount = 0;
+
+  // Writes generation units in parallel, when more than one job is requested.
+  private ExecutorService executor = null;
 
   public TranslationProcessor(Parser parser, CodeReferenceMap deadCodeMap) {
+    this(parser, deadCodeMap, null);
+  }
+
+  public TranslationProcessor(
+      Parser parser, CodeReferenceMap deadCodeMap, TranslationCache cache) {
     super(parser);
     this.deadCodeMap = deadCodeMap;
+    this.cache = cache;
   }
 
   @Override
@@ -99,31 +135,123 @@ public class TranslationProcessor extends FileProcessor {
     if (logger.isLoggable(Level.INFO)) {
       System.out.println("translating " + unitName);
     }
-    TimeTracker ticker = TimeTracker.getTicker(unitName, options.timingLevel());
+    TimeTracker ticker = TimeTracker.getTicker(unitName, options);
     if (options.dumpAST()) {
       // Dump compilation unit to an .ast output file instead of translating.
       DebugASTDump.dumpUnit(unit);
     } else {
-      applyMutations(unit, deadCodeMap, options.externalAnnotations(), ticker);
-      ticker.tick("Tree mutations");
-      ticker.printResults(System.out);
+      // Constant references are inlined by the tree mutations, so their
+      // declaring types are collected first.
+      Set<String> constantDependencies = cache != null ? getConstantDependencies(unit) : null;
+      translateUnit(input, unit, ticker);
+      completeUnit(input, unit, constantDependencies, ticker);
+    }
+    processedCount++;
+  }
 
-      GenerationUnit genUnit = input.getGenerationUnit();
-      genUnit.addCompilationUnit(unit);
-      outputs.add(genUnit);
+  /**
+   * Applies the tree mutations to a unit and adds it to its generation unit.
+   * Both query the javac environment shared by all units of a parse, which
+   * isn't thread-safe, so this always runs on the main thread.
+   */
+  private void translateUnit(ProcessingContext input, CompilationUnit unit, TimeTracker ticker) {
+    applyMutations(unit, deadCodeMap, options.externalAnnotations(), ticker);
+    ticker.tick("Tree mutations");
 
-      // Add out-of-date dependencies to translation list.
-      if (closureQueue != null) {
-        checkDependencies(unit);
-      }
+    input.getGenerationUnit().addCompilationUnit(unit);
+  }
+
+  /**
+   * Finishes a translated unit, in input order.
+   */
+  private void completeUnit(ProcessingContext input, CompilationUnit unit,
+      Set<String> constantDependencies, TimeTracker ticker) {
+    ticker.printResults(System.out);
+    outputs.add(input.getGenerationUnit());
+
+    // Add out-of-date dependencies to translation list.
+    if (closureQueue != null) {
+      checkDependencies(unit);
+    }
+    if (cache != null) {
+      Set<String> dependencies = getSupertypeClosure(unit, getDependencies(unit));
+      dependencies.addAll(constantDependencies);
+      cache.recordDependencies(input, getDeclaredTypes(unit), dependencies,
+          getClassFileTypes(unit, dependencies));
     }
-    processedCount++;
   }
 
   @Override
   protected void processOutputs(Iterable<ProcessingContext> outputs) {
+    // Each generation unit is written once, even when it is shared by several inputs.
+    // Its types were generated when its units were added, so only the output files
+    // are assembled and written by the workers.
+    Set<GenerationUnit> genUnits = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (options.numThreads() <= 1) {
+      for (ProcessingContext output : outputs) {
+        generateObjectiveCSource(output.getGenerationUnit());
+        genUnits.add(output.getGenerationUnit());
+      }
+      countOutputFiles(genUnits);
+      storeOutputs(outputs);
+      return;
+    }
+    List<ProcessingContext> generated = new ArrayList<>();
+    List<Future<?>> futures = new ArrayList<>();
+    ExecutorService executor = getExecutor();
+    for (ProcessingContext output : outputs) {
+      GenerationUnit genUnit = output.getGenerationUnit();
+      if (genUnits.add(genUnit)) {
+        generated.add(output);
+        futures.add(executor.submit(() -> generateObjectiveCSource(genUnit)));
+      }
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      waitFor(futures.get(i), generated.get(i).getOriginalSourcePath());
+    }
+    executor.shutdown();
+    this.executor = null;
+    countOutputFiles(genUnits);
+    storeOutputs(generated);
+  }
+
+  private void countOutputFiles(Set<GenerationUnit> genUnits) {
+    for (GenerationUnit genUnit : genUnits) {
+      int unchanged = genUnit.getUnchangedOutputFileCount();
+      writtenFileCount += genUnit.getOutputFiles().size() - unchanged;
+      unchangedFileCount += unchanged;
+    }
+  }
+
+  private void storeOutputs(Iterable<ProcessingContext> outputs) {
+    if (cache == null || ErrorUtil.errorCount() > 0) {
+      return;
+    }
     for (ProcessingContext output : outputs) {
-      generateObjectiveCSource(output.getGenerationUnit());
+      cache.store(output);
+    }
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(options.numThreads(),
+          new ThreadFactoryBuilder().setNameFormat("j2objc-translator-%d").setDaemon(true).build());
+    }
+    return executor;
+  }
+
+  /**
+   * Waits for a task writing a generation unit's output files, reporting any
+   * failure as an internal error for its source.
+   */
+  private static void waitFor(Future<?> future, String path) {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      ErrorUtil.fatalError(e.getCause(), path);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      ErrorUtil.fatalError(e, path);
     }
   }
 
@@ -139,79 +267,90 @@ public class TranslationProcessor extends FileProcessor {
       ExternalAnnotations externalAnnotations,
       TimeTracker ticker) {
     ticker.push();
+    boolean fusePasses = unit.getEnv().options().fusePasses();
 
     // Before: OuterReferenceResolver - OuterReferenceResolver needs the bindings fixed.
     new LambdaTypeElementAdder(unit).run();
-    ticker.tick("LambdaTypeElementAdder");
+    ticker.tick("LambdaTypeElementAdder", unit);
 
     if (deadCodeMap != null) {
       new DeadCodeEliminator(unit, deadCodeMap).run();
-      ticker.tick("DeadCodeEliminator");
+      ticker.tick("DeadCodeEliminator", unit);
     }
 
     LogSiteInjector logSiteInjector = new LogSiteInjector(unit);
     if (logSiteInjector.isEnabled()) {
       logSiteInjector.run();
-      ticker.tick("CallSiteInjector");
+      ticker.tick("CallSiteInjector", unit);
     }
 
     new ExternalAnnotationInjector(unit, externalAnnotations).run();
-    ticker.tick("ExternalAnnotationInjector");
+    ticker.tick("ExternalAnnotationInjector", unit);
 
     new OuterReferenceResolver(unit).run();
-    ticker.tick("OuterReferenceResolver");
-
-    // Update code that has GWT references.
-    new GwtConverter(unit).run();
-    ticker.tick("GwtConverter");
-
-    // Remove serialization related members if needed.
-    new SerializationStripper(unit).run();
-    ticker.tick("SerializationStripper");
-
-    // Add default equals/hashCode methods to Number subclasses, if necessary.
-    new NumberMethodRewriter(unit).run();
-    ticker.tick("NumberMethodRewriter");
+    ticker.tick("OuterReferenceResolver", unit);
+
+    // Update code that has GWT references, remove serialization related
+    // members if needed, and add default equals/hashCode methods to Number
+    // subclasses, if necessary.
+    if (fusePasses) {
+      unit.accept(new FusedTreeVisitor(
+          new GwtConverter(unit), new SerializationStripper(unit), new NumberMethodRewriter(unit)));
+      ticker.tick("GwtConverter+SerializationStripper+NumberMethodRewriter", unit);
+    } else {
+      new GwtConverter(unit).run();
+      ticker.tick("GwtConverter", unit);
+      new SerializationStripper(unit).run();
+      ticker.tick("SerializationStripper", unit);
+      new NumberMethodRewriter(unit).run();
+      ticker.tick("NumberMethodRewriter", unit);
+    }
 
     // Before: Rewriter - Pruning unreachable statements must happen before
     //   rewriting labeled break statements.
     // Before: InnerClassExtractor - Removes unreachable local classes.
     new ConstantBranchPruner(unit).run();
-    ticker.tick("ConstantBranchPruner");
+    ticker.tick("ConstantBranchPruner", unit);
 
     // Modify AST to be more compatible with Objective C
     new Rewriter(unit).run();
-    ticker.tick("Rewriter");
+    ticker.tick("Rewriter", unit);
 
     // Add abstract method stubs.
     new AbstractMethodRewriter(unit, deadCodeMap).run();
-    ticker.tick("AbstractMethodRewriter");
+    ticker.tick("AbstractMethodRewriter", unit);
 
     new VariableRenamer(unit).run();
-    ticker.tick("VariableRenamer");
+    ticker.tick("VariableRenamer", unit);
 
     // Rewrite enhanced for loops into correct C code.
     new EnhancedForRewriter(unit).run();
-    ticker.tick("EnhancedForRewriter");
+    ticker.tick("EnhancedForRewriter", unit);
 
     // Before: Autoboxer - Must generate implementations so autoboxing can be applied to result.
     new LambdaRewriter(unit).run();
-    ticker.tick("LambdaRewriter");
+    ticker.tick("LambdaRewriter", unit);
 
     // Add auto-boxing conversions.
     new Autoboxer(unit).run();
-    ticker.tick("Autoboxer");
+    ticker.tick("Autoboxer", unit);
+
+    // Remove redundant boxing, and count the boxing that remains.
+    BoxingOptimizer boxingOptimizer = new BoxingOptimizer(unit);
+    boxingOptimizer.run();
+    ticker.tick("BoxingOptimizer", unit);
+    ticker.count("Boxing sites", boxingOptimizer.getBoxingSites());
 
     new InnerClassExtractor(unit).run();
-    ticker.tick("InnerClassExtractor");
+    ticker.tick("InnerClassExtractor", unit);
 
     // Generate method shims for classes implementing interfaces that have default methods
     new DefaultMethodShimGenerator(unit, deadCodeMap).run();
-    ticker.tick("DefaultMethodShimGenerator");
+    ticker.tick("DefaultMethodShimGenerator", unit);
 
     // Normalize init statements
     new InitializationNormalizer(unit).run();
-    ticker.tick("InitializationNormalizer");
+    ticker.tick("InitializationNormalizer", unit);
 
     // Adds nil_chk calls wherever an expression is dereferenced.
     // After: InnerClassExtractor - Cannot handle local classes.
@@ -219,105 +358,120 @@ public class TranslationProcessor extends FileProcessor {
     // Before: LabelRewriter - Control flow analysis requires original Java
     //   labels.
     new NilCheckResolver(unit).run();
-    ticker.tick("NilCheckResolver");
+    ticker.tick("NilCheckResolver", unit);
 
     // Rewrites expressions that would cause unsequenced compile errors.
     if (unit.getEnv().options().extractUnsequencedModifications()) {
       new UnsequencedExpressionRewriter(unit).run();
-      ticker.tick("UnsequencedExpressionRewriter");
+      ticker.tick("UnsequencedExpressionRewriter", unit);
     }
 
-    // Rewrites labeled break and continue statements.
-    unit.accept(new LabelRewriter());
-    ticker.tick("LabelRewriter");
-
+    // Rewrites labeled break and continue statements, then varargs.
+    // VarargsRewriter:
     // Before: ArrayRewriter - Adds ArrayCreation nodes.
     // Before: Functionizer - Can't rewrite function arguments.
-    new VarargsRewriter(unit).run();
-    ticker.tick("VarargsRewriter");
+    boolean hasLabels = unit.hasNodesOfKind(TreeNode.Kind.LABELED_STATEMENT);
+    if (fusePasses && hasLabels) {
+      unit.accept(new FusedTreeVisitor(new LabelRewriter(), new VarargsRewriter(unit)));
+      ticker.tick("LabelRewriter+VarargsRewriter", unit);
+    } else {
+      if (hasLabels) {
+        unit.accept(new LabelRewriter());
+        ticker.tick("LabelRewriter", unit);
+      }
+      new VarargsRewriter(unit).run();
+      ticker.tick("VarargsRewriter", unit);
+    }
 
     new JavaCloneWriter(unit).run();
-    ticker.tick("JavaCloneWriter");
+    ticker.tick("JavaCloneWriter", unit);
 
     new OcniExtractor(unit, deadCodeMap).run();
-    ticker.tick("OcniExtractor");
+    ticker.tick("OcniExtractor", unit);
 
     // Before: AnnotationRewriter - Needs AnnotationRewriter to add the
     //   annotation metadata to the generated package-info type.
     PackageInfoRewriter.run(unit);
-    ticker.tick("PackageInfoRewriter");
+    ticker.tick("PackageInfoRewriter", unit);
 
     // Before: DestructorGenerator - Annotation types need a destructor to
     //   release the added fields.
     new AnnotationRewriter(unit).run();
-    ticker.tick("AnnotationRewriter");
+    ticker.tick("AnnotationRewriter", unit);
 
     // Before: Functionizer - Edits constructor invocations before they are
     //   functionized.
     new EnumRewriter(unit).run();
-    ticker.tick("EnumRewriter");
+    ticker.tick("EnumRewriter", unit);
 
     // Add dealloc/finalize method(s), if necessary.  This is done
     // after inner class extraction, so that each class releases
     // only its own instance variables.
     new DestructorGenerator(unit).run();
-    ticker.tick("DestructorGenerator");
+    ticker.tick("DestructorGenerator", unit);
 
     // Before: StaticVarRewriter - Generates static variable access expressions.
     new MetadataWriter(unit, deadCodeMap).run();
-    ticker.tick("MetadataWriter");
+    ticker.tick("MetadataWriter", unit);
 
     // Before: Functionizer - Needs to rewrite some ClassInstanceCreation nodes
     //   before Functionizer does.
     // Before: StaticVarRewriter, OperatorRewriter - Doesn't know how to handle
     //   the hasRetainedResult flag on ClassInstanceCreation nodes.
     new JavaToIOSMethodTranslator(unit).run();
-    ticker.tick("JavaToIOSMethodTranslator");
+    ticker.tick("JavaToIOSMethodTranslator", unit);
+
+    // After: JavaToIOSMethodTranslator - Mapped constructors can't have a
+    //   retained result.
+    // Before: Functionizer - Sets the hasRetainedResult flag on
+    //   ClassInstanceCreation nodes.
+    new EscapeAnalyzer(unit).run();
+    ticker.tick("EscapeAnalyzer", unit);
 
     // After: OcniExtractor - So that native methods can be correctly
     //   functionized.
     new Functionizer(unit).run();
-    ticker.tick("Functionizer");
+    ticker.tick("Functionizer", unit);
 
     // After: Functionizer - Edits the qualifier on SuperMethodInvocation nodes.
     new SuperMethodInvocationRewriter(unit).run();
-    ticker.tick("SuperMethodInvocationRewriter");
+    ticker.tick("SuperMethodInvocationRewriter", unit);
 
     new OperatorRewriter(unit).run();
-    ticker.tick("OperatorRewriter");
+    ticker.tick("OperatorRewriter", unit);
 
     // After: OperatorRewriter - Static load rewriting needs to happen after
     //   operator rewriting.
     new StaticVarRewriter(unit).run();
-    ticker.tick("StaticVarRewriter");
+    ticker.tick("StaticVarRewriter", unit);
 
     // After: StaticVarRewriter, OperatorRewriter - They set the
     //   hasRetainedResult on ArrayCreation nodes.
     new ArrayRewriter(unit).run();
-    ticker.tick("ArrayRewriter");
+    ticker.tick("ArrayRewriter", unit);
 
     new SwitchRewriter(unit).run();
-    ticker.tick("SwitchRewriter");
+    ticker.tick("SwitchRewriter", unit);
 
     // Breaks up deeply nested expressions such as chained method calls.
     // Should be one of the last translations because other mutations will
     // affect how deep the expressions are.
     unit.accept(new ComplexExpressionExtractor());
-    ticker.tick("ComplexExpressionExtractor");
+    ticker.tick("ComplexExpressionExtractor", unit);
 
     // Should be one of the last translations because methods and functions
     // added in other phases may need added casts.
     new CastResolver(unit).run();
-    ticker.tick("CastResolver");
+    ticker.tick("CastResolver", unit);
 
     // After: InnerClassExtractor, Functionizer - Expects all types to be
     //   top-level and functionizing to have occurred.
     new PrivateDeclarationResolver(unit).run();
-    ticker.tick("PrivateDeclarationResolver");
+    ticker.tick("PrivateDeclarationResolver", unit);
 
     if (deadCodeMap != null) {
       DeadCodeEliminator.removeDeadClasses(unit, deadCodeMap);
-      ticker.tick("removeDeadClasses");
+      ticker.tick("removeDeadClasses", unit);
     }
 
     // Make sure we still have a valid AST.
@@ -330,7 +484,7 @@ public class TranslationProcessor extends FileProcessor {
   public static void generateObjectiveCSource(GenerationUnit unit) {
     assert unit.getOutputPath() != null;
     assert unit.isFullyParsed();
-    TimeTracker ticker = TimeTracker.getTicker(unit.getSourceName(), unit.options().timingLevel());
+    TimeTracker ticker = TimeTracker.getTicker(unit.getSourceName(), unit.options());
     logger.fine("Generating " + unit.getOutputPath());
     logger.finest("writing source file(s) to "
         + unit.options().fileUtil().getOutputDirectory().getAbsolutePath());
@@ -349,6 +503,9 @@ public class TranslationProcessor extends FileProcessor {
     // write implementation file
     ObjectiveCImplementationGenerator.generate(unit);
     ticker.tick("Implementation generation");
+    int unchanged = unit.getUnchangedOutputFileCount();
+    ticker.count("Files written", unit.getOutputFiles().size() - unchanged);
+    ticker.count("Files unchanged", unchanged);
 
     unit.finished();
     ticker.pop();
@@ -370,9 +527,31 @@ public class TranslationProcessor extends FileProcessor {
           nFiles, nFiles == 1 ? "file" : "files", ErrorUtil.errorCount(),
           ErrorUtil.warningCount()));
     }
+    TimingLevel timingLevel = options.timingLevel();
+    if (timingLevel == TimingLevel.TOTAL || timingLevel == TimingLevel.ALL) {
+      System.out.println(String.format("Wrote %d output files, %d unchanged",
+          writtenFileCount, unchangedFileCount));
+    }
+    ModuleMapGenerator moduleMapGenerator = options.moduleMapGenerator();
+    if (moduleMapGenerator != null) {
+      try {
+        moduleMapGenerator.generate(options);
+      } catch (IOException e) {
+        ErrorUtil.error("cannot write module map: " + e.getMessage());
+      }
+    }
   }
 
   private void checkDependencies(CompilationUnit unit) {
+    for (String qualifiedName : getDependencies(unit)) {
+      closureQueue.addName(qualifiedName);
+    }
+  }
+
+  /**
+   * Returns the qualified names of the Java types referenced by a translated unit.
+   */
+  private static Set<String> getDependencies(CompilationUnit unit) {
     HeaderImportCollector hdrCollector =
         new HeaderImportCollector(unit, HeaderImportCollector.Filter.INCLUDE_ALL);
     hdrCollector.run();
@@ -381,11 +560,116 @@ public class TranslationProcessor extends FileProcessor {
     Set<Import> imports = hdrCollector.getForwardDeclarations();
     imports.addAll(hdrCollector.getSuperTypes());
     imports.addAll(implCollector.getImports());
+    Set<String> qualifiedNames = new TreeSet<>();
     for (Import imp : imports) {
       String qualifiedName = imp.getJavaQualifiedName();
       if (qualifiedName != null) {
-        closureQueue.addName(qualifiedName);
+        qualifiedNames.add(qualifiedName);
+      }
+    }
+    return qualifiedNames;
+  }
+
+  /**
+   * Returns the qualified names of the top-level types that declare the
+   * constants a unit references, including the constants referenced by their
+   * initializers.
+   */
+  private static Set<String> getConstantDependencies(CompilationUnit unit) {
+    ElementUtil elementUtil = unit.getEnv().elementUtil();
+    Set<VariableElement> constants = new HashSet<>();
+    List<VariableElement> worklist = new ArrayList<>();
+    unit.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(SimpleName node) {
+        Element element = node.getElement();
+        if (element instanceof VariableElement && element.getKind().isField()
+            && ((VariableElement) element).getConstantValue() != null
+            && constants.add((VariableElement) element)) {
+          worklist.add((VariableElement) element);
+        }
+      }
+    });
+    while (!worklist.isEmpty()) {
+      VariableElement constant = worklist.remove(worklist.size() - 1);
+      for (VariableElement referenced : elementUtil.getInitializerConstants(constant)) {
+        if (constants.add(referenced)) {
+          worklist.add(referenced);
+        }
+      }
+    }
+    Set<String> qualifiedNames = new TreeSet<>();
+    for (VariableElement constant : constants) {
+      TypeElement type = ElementUtil.getDeclaringClass(constant);
+      if (type != null) {
+        qualifiedNames.add(ElementUtil.getQualifiedName(getTopLevelType(type)));
+      }
+    }
+    return qualifiedNames;
+  }
+
+  private static Set<String> getDeclaredTypes(CompilationUnit unit) {
+    Set<String> qualifiedNames = new TreeSet<>();
+    for (AbstractTypeDeclaration type : unit.getTypes()) {
+      TypeElement element = type.getTypeElement();
+      if (ElementUtil.isTopLevel(element)) {
+        qualifiedNames.add(ElementUtil.getQualifiedName(element));
+      }
+    }
+    return qualifiedNames;
+  }
+
+  /**
+   * Returns the specified types that were loaded from class files.
+   */
+  private static Set<String> getClassFileTypes(CompilationUnit unit, Set<String> qualifiedNames) {
+    TypeUtil typeUtil = unit.getEnv().typeUtil();
+    Set<String> classFileTypes = new HashSet<>();
+    for (String qualifiedName : qualifiedNames) {
+      TypeElement type = typeUtil.resolveJavaType(qualifiedName);
+      if (type != null && ElementUtil.isFromClassFile(type)) {
+        classFileTypes.add(qualifiedName);
+      }
+    }
+    return classFileTypes;
+  }
+
+  /**
+   * Adds the top-level types of all supertypes of the specified types, since
+   * inherited members change a type's translation without changing its source.
+   */
+  private static Set<String> getSupertypeClosure(
+      CompilationUnit unit, Set<String> qualifiedNames) {
+    TypeUtil typeUtil = unit.getEnv().typeUtil();
+    Set<TypeElement> visited = new HashSet<>();
+    List<TypeElement> worklist = new ArrayList<>();
+    for (String qualifiedName : qualifiedNames) {
+      TypeElement type = typeUtil.resolveJavaType(qualifiedName);
+      if (type != null) {
+        worklist.add(type);
+      }
+    }
+    Set<String> closure = new TreeSet<>(qualifiedNames);
+    while (!worklist.isEmpty()) {
+      TypeElement type = worklist.remove(worklist.size() - 1);
+      if (type == null || !visited.add(type)) {
+        continue;
+      }
+      closure.add(ElementUtil.getQualifiedName(getTopLevelType(type)));
+      worklist.add(ElementUtil.getSuperclass(type));
+      worklist.addAll(ElementUtil.getInterfaces(type));
+    }
+    return closure;
+  }
+
+  private static TypeElement getTopLevelType(TypeElement type) {
+    while (!ElementUtil.isTopLevel(type)) {
+      TypeElement declaringClass = ElementUtil.getDeclaringClass(type);
+      if (declaringClass == null) {
+        break;
       }
+      type = declaringClass;
     }
+    return type;
   }
 }
@@ -18,19 +18,26 @@ import com.google.devtools.j2objc.ast.ArrayAccess;
 import com.google.devtools.j2objc.ast.ArrayCreation;
 import com.google.devtools.j2objc.ast.ArrayInitializer;
 import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.CastExpression;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.ForStatement;
 import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.InfixExpression;
 import com.google.devtools.j2objc.ast.InstanceofExpression;
 import com.google.devtools.j2objc.ast.MethodInvocation;
 import com.google.devtools.j2objc.ast.NumberLiteral;
+import com.google.devtools.j2objc.ast.PostfixExpression;
 import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.QualifiedName;
 import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
 import com.google.devtools.j2objc.ast.TypeLiteral;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationExpression;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
 import com.google.devtools.j2objc.types.ExecutablePair;
 import com.google.devtools.j2objc.types.FunctionElement;
 import com.google.devtools.j2objc.types.GeneratedExecutableElement;
@@ -40,12 +47,15 @@ import com.google.devtools.j2objc.util.ElementUtil;
 import com.google.devtools.j2objc.util.TranslationUtil;
 import com.google.devtools.j2objc.util.TypeUtil;
 import com.google.devtools.j2objc.util.UnicodeUtils;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 /**
@@ -55,10 +65,218 @@ import javax.lang.model.type.TypeMirror;
  */
 public class ArrayRewriter extends UnitTreeVisitor {
 
+  // Enclosing loops whose index is known to be in bounds for an array.
+  private final Deque<BoundedLoop> boundedLoops = new ArrayDeque<>();
+
   public ArrayRewriter(CompilationUnit unit) {
     super(unit);
   }
 
+  /**
+   * A loop of the form "for (int i = n; i < a.length; i++)", where n is a
+   * non-negative constant and neither i nor a is assigned in the loop. While
+   * the loop body runs, 0 <= i < a.length, so a[i] needs no bounds check.
+   * Only local variables and parameters qualify, since a field may be
+   * assigned by a call or another thread.
+   */
+  private static class BoundedLoop {
+    private final ForStatement loop;
+    private final VariableElement index;
+    private final VariableElement array;
+
+    private BoundedLoop(ForStatement loop, VariableElement index, VariableElement array) {
+      this.loop = loop;
+      this.index = index;
+      this.array = array;
+    }
+  }
+
+  @Override
+  public boolean visit(ForStatement node) {
+    BoundedLoop boundedLoop = findBoundedLoop(node);
+    if (boundedLoop != null) {
+      boundedLoops.push(boundedLoop);
+    }
+    return true;
+  }
+
+  @Override
+  public void endVisit(ForStatement node) {
+    if (!boundedLoops.isEmpty() && boundedLoops.peek().loop == node) {
+      boundedLoops.pop();
+    }
+  }
+
+  private BoundedLoop findBoundedLoop(ForStatement node) {
+    // for (int i = n; ...
+    List<Expression> initializers = node.getInitializers();
+    if (initializers.size() != 1
+        || !(initializers.get(0) instanceof VariableDeclarationExpression)) {
+      return null;
+    }
+    List<VariableDeclarationFragment> fragments =
+        ((VariableDeclarationExpression) initializers.get(0)).getFragments();
+    if (fragments.size() != 1) {
+      return null;
+    }
+    VariableElement index = fragments.get(0).getVariableElement();
+    Expression start = fragments.get(0).getInitializer();
+    if (index.asType().getKind() != TypeKind.INT || !(start instanceof NumberLiteral)
+        || ((NumberLiteral) start).getValue().longValue() < 0) {
+      return null;
+    }
+    // ... i < a.length; ...
+    Expression condition = node.getExpression();
+    if (!(condition instanceof InfixExpression)) {
+      return null;
+    }
+    InfixExpression infix = (InfixExpression) condition;
+    List<Expression> operands = infix.getOperands();
+    Expression indexOperand;
+    Expression lengthOperand;
+    if (operands.size() != 2) {
+      return null;
+    } else if (infix.getOperator() == InfixExpression.Operator.LESS) {
+      indexOperand = operands.get(0);
+      lengthOperand = operands.get(1);
+    } else if (infix.getOperator() == InfixExpression.Operator.GREATER) {
+      indexOperand = operands.get(1);
+      lengthOperand = operands.get(0);
+    } else {
+      return null;
+    }
+    VariableElement array = getLengthArray(lengthOperand);
+    if (TreeUtil.getVariableElement(indexOperand) != index || array == null
+        || !(ElementUtil.isLocalVariable(array) || ElementUtil.isParameter(array))) {
+      return null;
+    }
+    // ... i++)
+    List<Expression> updaters = node.getUpdaters();
+    if (updaters.size() != 1 || !isIncrement(updaters.get(0), index)) {
+      return null;
+    }
+    // Neither variable may be assigned in the body.
+    AssignedVariableFinder finder = new AssignedVariableFinder(index, array);
+    node.getBody().accept(finder);
+    return finder.found ? null : new BoundedLoop(node, index, array);
+  }
+
+  // Returns the array variable of an "a.length" expression, if any.
+  private static VariableElement getLengthArray(Expression expr) {
+    expr = TreeUtil.trimParentheses(expr);
+    Expression arrayExpr;
+    if (expr instanceof FieldAccess) {
+      FieldAccess fieldAccess = (FieldAccess) expr;
+      if (!fieldAccess.getName().getIdentifier().equals("length")) {
+        return null;
+      }
+      arrayExpr = fieldAccess.getExpression();
+    } else if (expr instanceof QualifiedName) {
+      QualifiedName qualifiedName = (QualifiedName) expr;
+      if (!qualifiedName.getName().getIdentifier().equals("length")) {
+        return null;
+      }
+      arrayExpr = qualifiedName.getQualifier();
+    } else {
+      return null;
+    }
+    return TypeUtil.isArray(arrayExpr.getTypeMirror()) ? getArrayVariable(arrayExpr) : null;
+  }
+
+  // Returns the variable of an array expression, looking through casts and
+  // nil_chk's added by NilCheckResolver.
+  private static VariableElement getArrayVariable(Expression expr) {
+    expr = TreeUtil.trimParentheses(expr);
+    if (expr instanceof CastExpression) {
+      return getArrayVariable(((CastExpression) expr).getExpression());
+    }
+    if (expr instanceof FunctionInvocation
+        && ((FunctionInvocation) expr).getName().equals("nil_chk")) {
+      return getArrayVariable(((FunctionInvocation) expr).getArgument(0));
+    }
+    return TreeUtil.getVariableElement(expr);
+  }
+
+  private static boolean isIncrement(Expression expr, VariableElement var) {
+    if (expr instanceof PostfixExpression) {
+      PostfixExpression postfix = (PostfixExpression) expr;
+      return postfix.getOperator() == PostfixExpression.Operator.INCREMENT
+          && TreeUtil.getVariableElement(postfix.getOperand()) == var;
+    }
+    if (expr instanceof PrefixExpression) {
+      PrefixExpression prefix = (PrefixExpression) expr;
+      return prefix.getOperator() == PrefixExpression.Operator.INCREMENT
+          && TreeUtil.getVariableElement(prefix.getOperand()) == var;
+    }
+    if (expr instanceof Assignment) {
+      Assignment assignment = (Assignment) expr;
+      Expression rhs = assignment.getRightHandSide();
+      return assignment.getOperator() == Assignment.Operator.PLUS_ASSIGN
+          && TreeUtil.getVariableElement(assignment.getLeftHandSide()) == var
+          && rhs instanceof NumberLiteral && ((NumberLiteral) rhs).getValue().longValue() == 1;
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether any of a set of variables is assigned, incremented,
+   * decremented or has its address taken.
+   */
+  private static class AssignedVariableFinder extends TreeVisitor {
+    private final VariableElement[] vars;
+    private boolean found = false;
+
+    private AssignedVariableFinder(VariableElement... vars) {
+      this.vars = vars;
+    }
+
+    private void check(Expression expr) {
+      VariableElement var = TreeUtil.getVariableElement(expr);
+      for (VariableElement v : vars) {
+        if (v == var) {
+          found = true;
+        }
+      }
+    }
+
+    @Override
+    public void endVisit(Assignment node) {
+      check(node.getLeftHandSide());
+    }
+
+    @Override
+    public void endVisit(PostfixExpression node) {
+      check(node.getOperand());
+    }
+
+    @Override
+    public void endVisit(PrefixExpression node) {
+      switch (node.getOperator()) {
+        case INCREMENT:
+        case DECREMENT:
+        case ADDRESS_OF:
+          check(node.getOperand());
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private boolean isInBounds(ArrayAccess node) {
+    VariableElement index = TreeUtil.getVariableElement(node.getIndex());
+    if (index == null) {
+      return false;
+    }
+    VariableElement array = getArrayVariable(node.getArray());
+    for (BoundedLoop boundedLoop : boundedLoops) {
+      if (boundedLoop.index == index && boundedLoop.array == array) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public void endVisit(ArrayCreation node) {
     node.replaceWith(createInvocation(node));
@@ -250,13 +468,16 @@ public class ArrayRewriter extends UnitTreeVisitor {
     TypeMirror componentType = node.getTypeMirror();
     TypeElement iosArrayElement = typeUtil.getIosArray(componentType);
 
+    // Object array accesses are always checked, since IOSObjectArray_Get
+    // also retains and autoreleases the element.
+    boolean inBounds = componentType.getKind().isPrimitive() && isInBounds(node);
     node.replaceWith(newArrayAccess(
-        node, componentType, iosArrayElement, TranslationUtil.isAssigned(node)));
+        node, componentType, iosArrayElement, TranslationUtil.isAssigned(node), inBounds));
   }
 
   private Expression newArrayAccess(
       ArrayAccess arrayAccessNode, TypeMirror componentType, TypeElement iosArrayElement,
-      boolean assignable) {
+      boolean assignable, boolean inBounds) {
     String funcName = ElementUtil.getName(iosArrayElement) + "_Get";
     TypeMirror returnType = componentType;
     TypeMirror declaredReturnType =
@@ -265,6 +486,9 @@ public class ArrayRewriter extends UnitTreeVisitor {
       funcName += "Ref";
       returnType = declaredReturnType = new PointerType(componentType);
     }
+    if (inBounds) {
+      funcName += "Unchecked";
+    }
     FunctionElement element = new FunctionElement(funcName, declaredReturnType, iosArrayElement)
         .addParameters(iosArrayElement.asType(), typeUtil.getInt());
     FunctionInvocation invocation = new FunctionInvocation(element, returnType);
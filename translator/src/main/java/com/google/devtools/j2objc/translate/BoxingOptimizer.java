@@ -0,0 +1,249 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.BooleanLiteral;
+import com.google.devtools.j2objc.ast.CastExpression;
+import com.google.devtools.j2objc.ast.CharacterLiteral;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
+import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.NumberLiteral;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.PostfixExpression;
+import com.google.devtools.j2objc.ast.PrefixExpression;
+import com.google.devtools.j2objc.ast.ReturnStatement;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.TypeDeclaration;
+import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
+import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
+import com.google.devtools.j2objc.types.GeneratedVariableElement;
+import com.google.devtools.j2objc.util.ElementUtil;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Removes redundant boxing added by Autoboxer. A value that is boxed and then
+ * unboxed is used directly, and a local variable boxed more than once in a
+ * statement is boxed once into a temporary.
+ *
+ * Also counts the boxing sites that remain, to find allocation-heavy code.
+ */
+public class BoxingOptimizer extends UnitTreeVisitor {
+
+  private int boxingSites = 0;
+  private int count = 1;
+
+  public BoxingOptimizer(CompilationUnit unit) {
+    super(unit);
+  }
+
+  /**
+   * Returns the number of boxing method invocations in the unit.
+   */
+  public int getBoxingSites() {
+    return boxingSites;
+  }
+
+  /**
+   * If expr is a call to a wrapper class's valueOf() factory method with a
+   * primitive argument, returns that argument.
+   */
+  private Expression getBoxedValue(Expression expr) {
+    while (expr instanceof ParenthesizedExpression) {
+      expr = ((ParenthesizedExpression) expr).getExpression();
+    }
+    if (!(expr instanceof MethodInvocation)) {
+      return null;
+    }
+    MethodInvocation invocation = (MethodInvocation) expr;
+    ExecutableElement method = invocation.getExecutableElement();
+    if (!ElementUtil.isStatic(method) || !ElementUtil.getName(method).equals("valueOf")
+        || !typeUtil.isBoxedType(ElementUtil.getDeclaringClass(method).asType())
+        || invocation.getArguments().size() != 1) {
+      return null;
+    }
+    Expression arg = invocation.getArguments().get(0);
+    return arg.getTypeMirror().getKind().isPrimitive() ? arg : null;
+  }
+
+  /**
+   * Returns true if node calls a wrapper class's value method, such as
+   * intValue() or booleanValue().
+   */
+  private boolean isUnboxing(MethodInvocation node) {
+    ExecutableElement method = node.getExecutableElement();
+    return !ElementUtil.isStatic(method) && node.getArguments().isEmpty()
+        && ElementUtil.getName(method).endsWith("Value")
+        && method.getReturnType().getKind().isPrimitive()
+        && node.getExpression() != null
+        && typeUtil.isBoxedType(node.getExpression().getTypeMirror());
+  }
+
+  @Override
+  public void endVisit(MethodInvocation node) {
+    if (getBoxedValue(node) != null) {
+      boxingSites++;
+      return;
+    }
+    if (!isUnboxing(node)) {
+      return;
+    }
+    Expression value = getBoxedValue(node.getExpression());
+    if (value == null) {
+      return;
+    }
+    // Boxing has no side effects, so Integer.valueOf(i).intValue() is just i.
+    boxingSites--;
+    TypeMirror type = node.getTypeMirror();
+    value = TreeUtil.remove(value);
+    if (!needsNoParentheses(value)) {
+      value = ParenthesizedExpression.parenthesize(value);
+    }
+    if (value.getTypeMirror().getKind() != type.getKind()) {
+      value = ParenthesizedExpression.parenthesize(new CastExpression(type, value));
+    }
+    node.replaceWith(value);
+  }
+
+  private static boolean needsNoParentheses(Expression expr) {
+    return expr instanceof SimpleName || expr instanceof NumberLiteral
+        || expr instanceof CharacterLiteral || expr instanceof BooleanLiteral
+        || expr instanceof MethodInvocation || expr instanceof FunctionInvocation
+        || expr instanceof ParenthesizedExpression;
+  }
+
+  @Override
+  public void endVisit(ExpressionStatement node) {
+    reuseBoxes(node);
+  }
+
+  @Override
+  public void endVisit(ReturnStatement node) {
+    reuseBoxes(node);
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationStatement node) {
+    // The temporary can't be added outside a block without hiding this
+    // statement's variables from the statements after it.
+    if (node.getParent() instanceof Block) {
+      reuseBoxes(node);
+    }
+  }
+
+  /**
+   * Replaces the boxings of the same local variable in a statement with a
+   * temporary that is boxed once before it, when the statement doesn't
+   * modify the variable.
+   */
+  private void reuseBoxes(Statement stmt) {
+    BoxFinder finder = new BoxFinder();
+    stmt.accept(finder);
+    if (stmt instanceof VariableDeclarationStatement) {
+      VariableDeclarationStatement varDecl = (VariableDeclarationStatement) stmt;
+      for (VariableDeclarationFragment frag : varDecl.getFragments()) {
+        finder.assignedVars.add(frag.getVariableElement());
+      }
+    }
+    for (List<Element> key : finder.boxes.keySet()) {
+      List<MethodInvocation> boxes = finder.boxes.get(key);
+      if (boxes.size() < 2 || finder.assignedVars.contains(key.get(1))) {
+        continue;
+      }
+      MethodInvocation firstBox = boxes.get(0);
+      VariableElement boxVar = GeneratedVariableElement.newLocalVar(
+          "box$" + count++, firstBox.getTypeMirror(), null);
+      TreeUtil.insertBefore(stmt, new VariableDeclarationStatement(boxVar, firstBox.copy()));
+      for (MethodInvocation box : boxes) {
+        box.replaceWith(new SimpleName(boxVar));
+      }
+      boxingSites -= boxes.size() - 1;
+    }
+  }
+
+  /**
+   * Finds the boxed local variables of a statement, and the variables it
+   * modifies.
+   */
+  private class BoxFinder extends TreeVisitor {
+    private final ListMultimap<List<Element>, MethodInvocation> boxes =
+        MultimapBuilder.linkedHashKeys().arrayListValues().build();
+    private final Set<Element> assignedVars = new HashSet<>();
+
+    @Override
+    public boolean visit(TypeDeclaration node) {
+      // Anonymous classes have statements of their own.
+      return false;
+    }
+
+    @Override
+    public void endVisit(MethodInvocation node) {
+      Expression value = getBoxedValue(node);
+      if (value instanceof SimpleName) {
+        VariableElement var = TreeUtil.getVariableElement(value);
+        if (var != null && (ElementUtil.isLocalVariable(var) || ElementUtil.isParameter(var))) {
+          boxes.put(ImmutableList.of(node.getExecutableElement(), var), node);
+        }
+      }
+    }
+
+    @Override
+    public void endVisit(Assignment node) {
+      addAssignedVar(node.getLeftHandSide());
+    }
+
+    @Override
+    public void endVisit(PostfixExpression node) {
+      addAssignedVar(node.getOperand());
+    }
+
+    @Override
+    public void endVisit(PrefixExpression node) {
+      switch (node.getOperator()) {
+        case INCREMENT:
+        case DECREMENT:
+        case ADDRESS_OF:
+          addAssignedVar(node.getOperand());
+          break;
+        default:
+          break;
+      }
+    }
+
+    private void addAssignedVar(Expression expr) {
+      VariableElement var = TreeUtil.getVariableElement(expr);
+      if (var != null) {
+        assignedVars.add(var);
+      }
+    }
+  }
+}
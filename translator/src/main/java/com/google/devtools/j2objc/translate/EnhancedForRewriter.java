@@ -14,21 +14,35 @@
 
 package com.google.devtools.j2objc.translate;
 
+import com.google.devtools.j2objc.ast.Assignment;
 import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.ClassInstanceCreation;
 import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.ConditionalExpression;
 import com.google.devtools.j2objc.ast.EnhancedForStatement;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.IfStatement;
 import com.google.devtools.j2objc.ast.InfixExpression;
 import com.google.devtools.j2objc.ast.LabeledStatement;
 import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.NativeExpression;
+import com.google.devtools.j2objc.ast.NullLiteral;
 import com.google.devtools.j2objc.ast.PostfixExpression;
 import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
 import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.ThrowStatement;
+import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.Type;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationExpression;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
 import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
 import com.google.devtools.j2objc.ast.WhileStatement;
 import com.google.devtools.j2objc.types.ExecutablePair;
@@ -36,11 +50,15 @@ import com.google.devtools.j2objc.types.GeneratedVariableElement;
 import com.google.devtools.j2objc.types.PointerType;
 import com.google.devtools.j2objc.util.ElementUtil;
 import com.google.devtools.j2objc.util.TypeUtil;
+import com.google.devtools.j2objc.util.UnicodeUtils;
 import com.google.j2objc.annotations.AutoreleasePool;
 import com.google.j2objc.annotations.LoopTranslation;
 import com.google.j2objc.annotations.LoopTranslation.LoopStyle;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
@@ -55,10 +73,21 @@ import javax.lang.model.type.TypeMirror;
  */
 public class EnhancedForRewriter extends UnitTreeVisitor {
 
+  // The nesting depth of each indexed list loop, counting itself and the
+  // indexed list loops in its body, so nested loops get distinct variables.
+  private final Map<ForStatement, Integer> indexedLoopDepths = new HashMap<>();
+
   public EnhancedForRewriter(CompilationUnit unit) {
     super(unit);
   }
 
+  @Override
+  public void run() {
+    if (unit.hasNodesOfKind(TreeNode.Kind.ENHANCED_FOR_STATEMENT)) {
+      super.run();
+    }
+  }
+
   @Override
   public void endVisit(EnhancedForStatement node) {
     Expression expression = node.getExpression();
@@ -71,6 +100,8 @@ public class EnhancedForRewriter extends UnitTreeVisitor {
 
     if (TypeUtil.isArray(expressionType)) {
       handleArrayIteration(node);
+    } else if (emitIndexedListLoop(expressionType, loopVariable)) {
+      convertToIndexedListLoop(node);
     } else if (emitJavaIteratorLoop(loopVariable)) {
       convertToJavaIteratorLoop(node);
     } else if (loopVariable.asType().getKind().isPrimitive()) {
@@ -146,6 +177,161 @@ public class EnhancedForRewriter extends UnitTreeVisitor {
     return false;
   }
 
+  private boolean emitIndexedListLoop(TypeMirror expressionType, VariableElement loopVariable) {
+    // A LoopTranslation annotation always takes precedence.
+    return options.indexedListLoops()
+        && TypeUtil.isDeclaredType(expressionType)
+        && ElementUtil.getQualifiedName(TypeUtil.asTypeElement(expressionType))
+            .equals("java.util.ArrayList")
+        && ElementUtil.getAnnotation(loopVariable, LoopTranslation.class) == null;
+  }
+
+  /**
+   * Converts a loop over an ArrayList into an indexed loop, which has the
+   * same behavior as ArrayList's iterator: the size is read once, and
+   * ConcurrentModificationException is thrown before an element is fetched
+   * if the list was structurally modified. Subclasses may override
+   * iterator(), so a runtime class check picks whether each element is
+   * fetched by index or from the list's iterator.
+   */
+  private void convertToIndexedListLoop(EnhancedForStatement node) {
+    Expression expression = node.getExpression();
+    DeclaredType listType = (DeclaredType) expression.getTypeMirror();
+    TypeElement arrayListType = TypeUtil.asTypeElement(listType);
+    TypeElement abstractListType = TypeUtil.asTypeElement(
+        typeUtil.findSupertype(listType, "java.util.AbstractList"));
+    VariableElement loopVariable = node.getParameter().getVariableElement();
+    ExecutablePair sizeMethod = typeUtil.findMethod(listType, "size");
+    ExecutablePair getMethod = typeUtil.findMethod(listType, "get", "int");
+    ExecutablePair iteratorMethod = typeUtil.findMethod(listType, "iterator");
+    DeclaredType iteratorType = (DeclaredType) iteratorMethod.type().getReturnType();
+    ExecutablePair hasNextMethod = typeUtil.findMethod(iteratorType, "hasNext");
+    ExecutablePair nextMethod = typeUtil.findMethod(iteratorType, "next");
+    VariableElement modCountField = ElementUtil.findField(abstractListType, "modCount");
+    ExecutableElement exceptionConstructor = ElementUtil.findConstructor(
+        typeUtil.resolveJavaType("java.util.ConcurrentModificationException"));
+    assert sizeMethod != null && getMethod != null && hasNextMethod != null
+        && nextMethod != null && modCountField != null && exceptionConstructor != null;
+
+    TypeMirror intType = typeUtil.getInt();
+    TypeMirror booleanType = typeUtil.getBoolean();
+    int depth = getIndexedLoopDepth(node.getBody()) + 1;
+    String suffix = depth > 1 ? depth + "__" : "__";
+    VariableElement listVariable =
+        GeneratedVariableElement.newLocalVar("list" + suffix, listType, null);
+    VariableElement indexedVariable =
+        GeneratedVariableElement.newLocalVar("indexed" + suffix, booleanType, null);
+    VariableElement iteratorVariable =
+        GeneratedVariableElement.newLocalVar("iter" + suffix, iteratorType, null);
+    VariableElement sizeVariable =
+        GeneratedVariableElement.newLocalVar("size" + suffix, intType, null);
+    VariableElement modCountVariable =
+        GeneratedVariableElement.newLocalVar("modCount" + suffix, intType, null);
+    VariableElement indexVariable =
+        GeneratedVariableElement.newLocalVar("i" + suffix, intType, null);
+
+    VariableDeclarationStatement listDecl =
+        new VariableDeclarationStatement(listVariable, TreeUtil.remove(expression));
+    String classCheck = UnicodeUtils.format("[%s class] == [%s class]",
+        nameTable.getVariableShortName(listVariable), nameTable.getFullName(arrayListType));
+    VariableDeclarationStatement indexedDecl = new VariableDeclarationStatement(
+        indexedVariable, new NativeExpression(classCheck, booleanType));
+    VariableDeclarationStatement iteratorDecl = new VariableDeclarationStatement(
+        iteratorVariable, newIndexedCheck(indexedVariable, iteratorType,
+            new NullLiteral(typeUtil.getNull()),
+            new MethodInvocation(iteratorMethod, new SimpleName(listVariable))));
+    VariableDeclarationStatement sizeDecl = new VariableDeclarationStatement(
+        sizeVariable, newIndexedCheck(indexedVariable, intType,
+            new MethodInvocation(sizeMethod, new SimpleName(listVariable)),
+            TreeUtil.newLiteral(0, typeUtil)));
+    // Reading modCount first throws the NullPointerException for a null list,
+    // and lets the other uses of the list skip their nil checks.
+    VariableDeclarationStatement modCountDecl = new VariableDeclarationStatement(
+        modCountVariable, new FieldAccess(modCountField, new SimpleName(listVariable)));
+
+    // The element is assigned by an if statement rather than a conditional
+    // expression, so its uses are nil checked.
+    TypeMirror elementType = getMethod.type().getReturnType();
+    boolean unbox = loopVariable.asType().getKind().isPrimitive();
+    VariableElement elementVariable = unbox
+        ? GeneratedVariableElement.newLocalVar("boxed" + suffix, elementType, null)
+        : loopVariable;
+    Block indexedFetch = new Block();
+    indexedFetch.addStatement(new IfStatement()
+        .setExpression(new InfixExpression(
+            booleanType, InfixExpression.Operator.NOT_EQUALS,
+            new FieldAccess(modCountField, new SimpleName(listVariable)),
+            new SimpleName(modCountVariable)))
+        .setThenStatement(new ThrowStatement(
+            new ClassInstanceCreation(new ExecutablePair(exceptionConstructor)))));
+    indexedFetch.addStatement(new ExpressionStatement(new Assignment(
+        new SimpleName(elementVariable),
+        new MethodInvocation(getMethod, new SimpleName(listVariable))
+            .addArgument(new SimpleName(indexVariable)))));
+    IfStatement fetch = new IfStatement()
+        .setExpression(new SimpleName(indexedVariable))
+        .setThenStatement(indexedFetch)
+        .setElseStatement(new Block().addStatement(new ExpressionStatement(new Assignment(
+            new SimpleName(elementVariable),
+            new MethodInvocation(nextMethod, new SimpleName(iteratorVariable))))));
+    Block newLoopBody = makeBlock(TreeUtil.remove(node.getBody()));
+    newLoopBody.addStatement(0, new VariableDeclarationStatement(elementVariable, null));
+    newLoopBody.addStatement(1, fetch);
+    if (unbox) {
+      newLoopBody.addStatement(2, new VariableDeclarationStatement(
+          loopVariable, new SimpleName(elementVariable)));
+    }
+
+    ForStatement loop = new ForStatement()
+        .addInitializer(new VariableDeclarationExpression()
+            .setType(Type.newType(intType))
+            .addFragment(new VariableDeclarationFragment(
+                indexVariable, TreeUtil.newLiteral(0, typeUtil))))
+        .setExpression(newIndexedCheck(indexedVariable, booleanType,
+            new InfixExpression(
+                booleanType, InfixExpression.Operator.LESS, new SimpleName(indexVariable),
+                new SimpleName(sizeVariable)),
+            new MethodInvocation(hasNextMethod, new SimpleName(iteratorVariable))))
+        .addUpdater(new PostfixExpression(indexVariable, PostfixExpression.Operator.INCREMENT))
+        .setBody(newLoopBody);
+
+    Block block = new Block();
+    List<Statement> stmts = block.getStatements();
+    stmts.add(listDecl);
+    stmts.add(modCountDecl);
+    stmts.add(indexedDecl);
+    stmts.add(iteratorDecl);
+    stmts.add(sizeDecl);
+    stmts.add(loop);
+    replaceLoop(node, block, loop);
+    indexedLoopDepths.put(loop, depth);
+  }
+
+  private int getIndexedLoopDepth(Statement body) {
+    int[] depth = { 0 };
+    body.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(ForStatement loop) {
+        Integer loopDepth = indexedLoopDepths.get(loop);
+        if (loopDepth != null) {
+          depth[0] = Math.max(depth[0], loopDepth);
+          return false;
+        }
+        return true;
+      }
+    });
+    return depth[0];
+  }
+
+  private static ConditionalExpression newIndexedCheck(
+      VariableElement indexedVariable, TypeMirror type, Expression indexed, Expression iterated) {
+    return new ConditionalExpression()
+        .setTypeMirror(type)
+        .setExpression(new SimpleName(indexedVariable))
+        .setThenExpression(indexed)
+        .setElseExpression(iterated);
+  }
+
   private void convertToJavaIteratorLoop(EnhancedForStatement node) {
     Expression expression = node.getExpression();
     TypeMirror expressionType = expression.getTypeMirror();
@@ -126,10 +126,11 @@ public class EnumRewriter extends UnitTreeVisitor {
     VariableElement localEnum = GeneratedVariableElement.newLocalVar("e", TypeUtil.ID_TYPE, null);
     stmts.add(new VariableDeclarationStatement(localEnum, null));
 
-    // Create a local array of enum names only if reflection is stripped but
-    // enum constants are not. For non-stripped classes, enum names are now
-    // retrieved from metadata, to avoid duplicates.
-    boolean useNamesArray = options.stripReflection() && !options.stripEnumConstants();
+    // Create a local array of enum names only if the enum has no metadata but
+    // enum constants are not stripped. For enums with metadata, enum names are
+    // retrieved from it, to avoid duplicates.
+    boolean useNamesArray =
+        !translationUtil.needsReflection(node) && !options.stripEnumConstants();
     if (useNamesArray) {
       StringBuilder sb = new StringBuilder("id names[] = {\n  ");
       for (EnumConstantDeclaration constant : constants) {
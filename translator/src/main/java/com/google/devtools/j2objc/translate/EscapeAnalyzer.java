@@ -0,0 +1,210 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.CastExpression;
+import com.google.devtools.j2objc.ast.ClassInstanceCreation;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
+import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.InstanceofExpression;
+import com.google.devtools.j2objc.ast.LabeledStatement;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.NativeStatement;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.QualifiedName;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.SuperMethodInvocation;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.TryStatement;
+import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
+import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
+import com.google.devtools.j2objc.util.ElementUtil;
+import com.google.devtools.j2objc.util.UnicodeUtils;
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Finds local variables initialized with a new object that doesn't escape the
+ * variable's scope. The object is created with a retained result instead of
+ * being autoreleased, and the rest of the block is wrapped in a try statement
+ * whose finally block releases it, so it isn't leaked if an exception is
+ * thrown.
+ *
+ * Only used with reference counting, since ARC never autoreleases new objects.
+ * Must run before Functionizer, which converts the ClassInstanceCreation nodes.
+ */
+public class EscapeAnalyzer extends UnitTreeVisitor {
+
+  private final List<VariableDeclarationStatement> ownedDecls = new ArrayList<>();
+
+  public EscapeAnalyzer(CompilationUnit unit) {
+    super(unit);
+  }
+
+  @Override
+  public void run() {
+    if (options.escapeAnalysis() && options.useReferenceCounting()) {
+      super.run();
+      for (VariableDeclarationStatement node : ownedDecls) {
+        releaseAtScopeExit(node);
+      }
+    }
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationStatement node) {
+    // The release is per declaration, so only single variables in a block are
+    // candidates.
+    if (node.getFragments().size() != 1 || !(node.getParent() instanceof Block)) {
+      return;
+    }
+    VariableDeclarationFragment fragment = node.getFragments().get(0);
+    Expression initializer = fragment.getInitializer();
+    if (!(initializer instanceof ClassInstanceCreation)
+        || ((ClassInstanceCreation) initializer).hasRetainedResult()) {
+      return;
+    }
+    VariableElement var = fragment.getVariableElement();
+    UseFinder finder = new UseFinder(var);
+    node.getParent().accept(finder);
+    if (!finder.escapes) {
+      ((ClassInstanceCreation) initializer).setHasRetainedResult(true);
+      // The block is rewritten after the traversal, which can't handle
+      // statements being moved.
+      ownedDecls.add(node);
+    }
+  }
+
+  /**
+   * Moves the statements following a declaration into a try statement that
+   * releases the variable's object when it finishes.
+   */
+  private void releaseAtScopeExit(VariableDeclarationStatement node) {
+    VariableElement var = node.getFragments().get(0).getVariableElement();
+    NativeStatement release = new NativeStatement(
+        UnicodeUtils.format("RELEASE_(%s);", nameTable.getVariableShortName(var)));
+    List<Statement> stmts = ((Block) node.getParent()).getStatements();
+    List<Statement> scope = stmts.subList(stmts.indexOf(node) + 1, stmts.size());
+    if (scope.isEmpty()) {
+      stmts.add(release);
+      return;
+    }
+    Block body = new Block();
+    for (Statement stmt : new ArrayList<>(scope)) {
+      body.addStatement(TreeUtil.remove(stmt));
+    }
+    Block finallyBlock = new Block();
+    finallyBlock.addStatement(release);
+    stmts.add(new TryStatement().setBody(body).setFinally(finallyBlock));
+  }
+
+  /**
+   * Returns true if the value of expr, which is the variable's object or may
+   * refer to an object only it keeps alive, isn't used after the variable's
+   * scope.
+   */
+  private static boolean isContained(Expression expr) {
+    TreeNode parent = expr.getParent();
+    while (parent instanceof ParenthesizedExpression || parent instanceof CastExpression) {
+      expr = (Expression) parent;
+      parent = expr.getParent();
+    }
+    if (parent instanceof ExpressionStatement || parent instanceof InfixExpression
+        || parent instanceof InstanceofExpression) {
+      return true;
+    }
+    if (parent instanceof Assignment) {
+      // Assigning to a field of the object is fine, but not assigning the
+      // variable or storing the object elsewhere.
+      return ((Assignment) parent).getLeftHandSide() == expr && !(expr instanceof SimpleName);
+    }
+    if (parent instanceof ClassInstanceCreation) {
+      // Capture arguments of inner classes are not method arguments.
+      return ((ClassInstanceCreation) parent).getArguments().contains(expr)
+          && isContainedResult((Expression) parent);
+    }
+    if (parent instanceof MethodInvocation || parent instanceof SuperMethodInvocation
+        || parent instanceof FunctionInvocation || parent instanceof FieldAccess
+        || parent instanceof QualifiedName) {
+      // Calls on or with the object, and fields of the object, may return
+      // the object or something it owns.
+      return isContainedResult((Expression) parent);
+    }
+    return false;
+  }
+
+  private static boolean isContainedResult(Expression result) {
+    TypeMirror type = result.getTypeMirror();
+    return type.getKind().isPrimitive() || type.getKind() == TypeKind.VOID
+        || isNewString(result) || isContained(result);
+  }
+
+  /**
+   * Returns true for StringBuilder and StringBuffer's toString(), which
+   * return a copy of the builder's characters.
+   */
+  private static boolean isNewString(Expression expr) {
+    if (!(expr instanceof MethodInvocation)) {
+      return false;
+    }
+    ExecutableElement method = ((MethodInvocation) expr).getExecutableElement();
+    String declaringClass = ElementUtil.getQualifiedName(ElementUtil.getDeclaringClass(method));
+    return ElementUtil.getName(method).equals("toString") && method.getParameters().isEmpty()
+        && (declaringClass.equals("java.lang.StringBuilder")
+            || declaringClass.equals("java.lang.StringBuffer"));
+  }
+
+  /**
+   * Checks the uses of a variable in its scope.
+   */
+  private static class UseFinder extends TreeVisitor {
+    private final VariableElement var;
+    private boolean escapes = false;
+
+    private UseFinder(VariableElement var) {
+      this.var = var;
+    }
+
+    @Override
+    public boolean visit(SimpleName node) {
+      if (TreeUtil.getVariableElement(node) == var && !isContained(node)) {
+        escapes = true;
+      }
+      return false;
+    }
+
+    @Override
+    public boolean visit(LabeledStatement node) {
+      // A goto to the label could jump into or out of the try statement
+      // that releases the object.
+      escapes = true;
+      return false;
+    }
+  }
+}
@@ -66,8 +66,9 @@ import javax.lang.model.type.TypeMirror;
 
 /**
  * Converts methods that don't need dynamic dispatch to C functions. This optimization
- * initially just targets private methods, but will be expanded to include final methods
- * that don't override superclass methods.
+ * targets private methods, and invocations in the same unit of methods that can't be
+ * overridden: final methods, and methods of classes without subclasses that are final,
+ * enums without constant bodies, or anonymous, local or private classes.
  *
  * @author Tom Ball
  */
@@ -75,6 +76,8 @@ public class Functionizer extends UnitTreeVisitor {
 
   private final CaptureInfo captureInfo;
   private Set<ExecutableElement> functionizableMethods;
+  // Functionizable methods whose invocations always call the same implementation.
+  private Set<ExecutableElement> staticallyDispatchedMethods;
 
   public Functionizer(CompilationUnit unit) {
     super(unit);
@@ -86,6 +89,7 @@ public class Functionizer extends UnitTreeVisitor {
     FunctionizableFinder finder = new FunctionizableFinder();
     node.accept(finder);
     functionizableMethods = finder.getFunctionizableMethods();
+    staticallyDispatchedMethods = finder.getStaticallyDispatchedMethods();
     return true;
   }
 
@@ -122,6 +126,17 @@ public class Functionizer extends UnitTreeVisitor {
     private MethodInfo currentMethod = null;
     private Map<ExecutableElement, MethodInfo> infoMap = new HashMap<>();
     private Set<ExecutableElement> invocations = new HashSet<>();
+    private Set<ExecutableElement> virtualInvocations = new HashSet<>();
+    private Set<TypeElement> subclassedTypes = new HashSet<>();
+
+    @Override
+    public boolean visit(TypeDeclaration node) {
+      TypeElement superclass = ElementUtil.getSuperclass(node.getTypeElement());
+      if (superclass != null) {
+        subclassedTypes.add(superclass);
+      }
+      return true;
+    }
 
     @Override
     public boolean visit(MethodDeclaration node) {
@@ -139,11 +154,11 @@ public class Functionizer extends UnitTreeVisitor {
     @Override
     public void endVisit(MethodInvocation node) {
       ExecutableElement method = node.getExecutableElement();
-      // Regular invocations can only be functionized if the target is private or final, otherwise
-      // the target method might be overridden by a subclass. Private methods are always
-      // functionized so we only check for final methods here.
-      if (ElementUtil.isFinal(method)) {
-        invocations.add(method);
+      // Regular invocations can only be functionized if the target can't be overridden by a
+      // subclass, which isn't known until all types of the unit are visited. Private methods are
+      // always functionized so they aren't checked here.
+      if (ElementUtil.isInstanceMethod(method) && !ElementUtil.isPrivate(method)) {
+        virtualInvocations.add(method);
       }
     }
 
@@ -159,15 +174,49 @@ public class Functionizer extends UnitTreeVisitor {
     }
 
     private Set<ExecutableElement> getFunctionizableMethods() {
-      Iterator<ExecutableElement> iter = invocations.iterator();
+      removeNonFunctionizable(invocations);
+      Set<ExecutableElement> methods = new HashSet<>(invocations);
+      methods.addAll(getStaticallyDispatchedMethods());
+      return methods;
+    }
+
+    private Set<ExecutableElement> getStaticallyDispatchedMethods() {
+      Iterator<ExecutableElement> iter = virtualInvocations.iterator();
       while (iter.hasNext()) {
         ExecutableElement method = iter.next();
-        MethodInfo info = infoMap.get(method);
+        if (!ElementUtil.isFinal(method)
+            && !isEffectivelyFinal(ElementUtil.getDeclaringClass(method))) {
+          iter.remove();
+        }
+      }
+      removeNonFunctionizable(virtualInvocations);
+      return virtualInvocations;
+    }
+
+    private void removeNonFunctionizable(Set<ExecutableElement> methods) {
+      Iterator<ExecutableElement> iter = methods.iterator();
+      while (iter.hasNext()) {
+        MethodInfo info = infoMap.get(iter.next());
         if (info == null || !info.isFunctionizable(infoMap)) {
           iter.remove();
         }
       }
-      return invocations;
+    }
+
+    /**
+     * Returns true if the type can't have subclasses. Only types declared in
+     * this unit are checked, since other types have no functionizable methods.
+     */
+    private boolean isEffectivelyFinal(TypeElement type) {
+      if (ElementUtil.isFinal(type)) {
+        return true;
+      }
+      if (subclassedTypes.contains(type)) {
+        return false;
+      }
+      // These types can only be extended by types in the same unit.
+      return ElementUtil.isEnum(type) || ElementUtil.isAnonymous(type) || ElementUtil.isLocal(type)
+          || ElementUtil.isPrivate(type);
     }
   }
 
@@ -247,7 +296,7 @@ public class Functionizer extends UnitTreeVisitor {
   public void endVisit(MethodInvocation node) {
     ExecutableElement method = node.getExecutableElement();
     if (ElementUtil.isStatic(method) || ElementUtil.isPrivate(method)
-        || (functionizableMethods.contains(method) && ElementUtil.isFinal(method))) {
+        || staticallyDispatchedMethods.contains(method)) {
       functionizeInvocation(node, method, node.getExpression(), node.getArguments());
     }
   }
@@ -25,6 +25,7 @@ import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.ConditionalExpression;
 import com.google.devtools.j2objc.ast.EmptyStatement;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.FusibleVisitor;
 import com.google.devtools.j2objc.ast.IfStatement;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.MethodInvocation;
@@ -47,7 +48,7 @@ import javax.lang.model.element.ExecutableElement;
  *
  * @author Tom Ball
  */
-public class GwtConverter extends UnitTreeVisitor {
+public class GwtConverter extends UnitTreeVisitor implements FusibleVisitor {
 
   private static final String GWT_CLASS = "com.google.gwt.core.client.GWT";
 
@@ -76,11 +77,12 @@ public class GwtConverter extends UnitTreeVisitor {
 
   @Override
   public boolean visit(ConditionalExpression node) {
+    Expression elseExpression = node.getElseExpression();
     if (isGwtTest(node.getExpression())) {
       // Replace this node with the else expression, removing this conditional.
-      node.replaceWith(TreeUtil.remove(node.getElseExpression()));
+      node.replaceWith(TreeUtil.remove(elseExpression));
     }
-    node.getElseExpression().accept(this);
+    elseExpression.accept(this);
     return false;
   }
 
@@ -23,6 +23,7 @@ import com.google.devtools.j2objc.ast.DoStatement;
 import com.google.devtools.j2objc.ast.EmptyStatement;
 import com.google.devtools.j2objc.ast.EnhancedForStatement;
 import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.FusibleVisitor;
 import com.google.devtools.j2objc.ast.LabeledStatement;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.SimpleName;
@@ -41,7 +42,7 @@ import java.util.Map;
  *
  * @author Tom Ball, Keith Stanger
  */
-public class LabelRewriter extends TreeVisitor {
+public class LabelRewriter extends TreeVisitor implements FusibleVisitor {
 
   @Override
   public boolean visit(MethodDeclaration node) {
@@ -70,6 +70,17 @@ public class LambdaRewriter extends UnitTreeVisitor {
     this.captureInfo = unit.getEnv().captureInfo();
   }
 
+  @Override
+  public void run() {
+    if (unit.hasNodesOfKind(TreeNode.Kind.LAMBDA_EXPRESSION)
+        || unit.hasNodesOfKind(TreeNode.Kind.CREATION_REFERENCE)
+        || unit.hasNodesOfKind(TreeNode.Kind.EXPRESSION_METHOD_REFERENCE)
+        || unit.hasNodesOfKind(TreeNode.Kind.SUPER_METHOD_REFERENCE)
+        || unit.hasNodesOfKind(TreeNode.Kind.TYPE_METHOD_REFERENCE)) {
+      super.run();
+    }
+  }
+
   private class RewriteContext {
 
     private final FunctionalExpression node;
@@ -28,11 +28,13 @@ import com.google.devtools.j2objc.ast.CatchClause;
 import com.google.devtools.j2objc.ast.ClassInstanceCreation;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.ConditionalExpression;
+import com.google.devtools.j2objc.ast.ConstructorInvocation;
 import com.google.devtools.j2objc.ast.ContinueStatement;
 import com.google.devtools.j2objc.ast.DoStatement;
 import com.google.devtools.j2objc.ast.EnhancedForStatement;
 import com.google.devtools.j2objc.ast.EnumDeclaration;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FieldAccess;
 import com.google.devtools.j2objc.ast.FieldDeclaration;
 import com.google.devtools.j2objc.ast.ForStatement;
@@ -40,19 +42,23 @@ import com.google.devtools.j2objc.ast.FunctionInvocation;
 import com.google.devtools.j2objc.ast.IfStatement;
 import com.google.devtools.j2objc.ast.InfixExpression;
 import com.google.devtools.j2objc.ast.LabeledStatement;
+import com.google.devtools.j2objc.ast.LambdaExpression;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.MethodInvocation;
 import com.google.devtools.j2objc.ast.NullLiteral;
 import com.google.devtools.j2objc.ast.ParenthesizedExpression;
 import com.google.devtools.j2objc.ast.ReturnStatement;
+import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.Statement;
 import com.google.devtools.j2objc.ast.SuperConstructorInvocation;
 import com.google.devtools.j2objc.ast.SuperMethodInvocation;
 import com.google.devtools.j2objc.ast.SwitchCase;
 import com.google.devtools.j2objc.ast.SwitchStatement;
+import com.google.devtools.j2objc.ast.ThisExpression;
 import com.google.devtools.j2objc.ast.ThrowStatement;
 import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
 import com.google.devtools.j2objc.ast.TryStatement;
 import com.google.devtools.j2objc.ast.TypeDeclaration;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
@@ -61,6 +67,7 @@ import com.google.devtools.j2objc.ast.WhileStatement;
 import com.google.devtools.j2objc.types.FunctionElement;
 import com.google.devtools.j2objc.util.ElementUtil;
 import com.google.devtools.j2objc.util.TypeUtil;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -72,6 +79,7 @@ import java.util.Set;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 /**
@@ -102,10 +110,351 @@ public class NilCheckResolver extends UnitTreeVisitor {
 
   private static final Set<VariableElement> EMPTY_VARS = Collections.emptySet();
 
+  // Methods and fields of this unit that are known to never return or hold
+  // null, found by NonnullFinder before any nil_chk's are added.
+  private Set<ExecutableElement> nonnullMethods = Collections.emptySet();
+  private Set<VariableElement> nonnullFields = Collections.emptySet();
+  // Methods declared in this unit, which -Xdefault-nonnull declares as
+  // returning nonnull values.
+  private Set<ExecutableElement> unitMethods = Collections.emptySet();
+  // Inferred nonnull fields are not trusted in constructors, which may read
+  // a field before assigning it.
+  private boolean inConstructor = false;
+  private final Map<TypeElement, Boolean> parametersNonnullByDefault = new HashMap<>();
+
   public NilCheckResolver(CompilationUnit unit) {
     super(unit);
   }
 
+  @Override
+  public boolean visit(CompilationUnit node) {
+    NonnullFinder finder = new NonnullFinder();
+    node.accept(finder);
+    unitMethods = finder.unitMethods;
+    finder.resolve();
+    nonnullMethods = finder.methodReturns.keySet();
+    nonnullFields = finder.fieldValues.keySet();
+    return true;
+  }
+
+  /**
+   * Finds the methods and fields of a compilation unit whose values are
+   * always nonnull. Candidate methods can't be overridden, so every
+   * implementation is in this unit: private, static and final methods, and
+   * methods of final classes. Candidate fields are private and final, so
+   * every assignment is in this unit. A candidate is removed when one of
+   * its returned or assigned values isn't known to be nonnull, until no
+   * more are removed. Methods that call each other therefore stay nonnull
+   * unless some returned value could be null.
+   */
+  private class NonnullFinder extends TreeVisitor {
+
+    private final Map<ExecutableElement, List<Expression>> methodReturns = new HashMap<>();
+    private final Map<VariableElement, List<Expression>> fieldValues = new HashMap<>();
+    private final Set<ExecutableElement> unitMethods = new HashSet<>();
+    // The fields each constructor assigns before running any code that might
+    // read them, intersected across the constructors of each type.
+    private final Map<TypeElement, Set<VariableElement>> earlyAssignedFields = new HashMap<>();
+    // Don't need a stack here because local types have already been extracted.
+    private List<Expression> currentReturns = null;
+    // Returns inside lambdas don't return from the enclosing method.
+    private int lambdaDepth = 0;
+
+    @Override
+    public boolean visit(FieldDeclaration node) {
+      VariableElement var = node.getFragment().getVariableElement();
+      if (ElementUtil.isPrivate(var) && ElementUtil.isFinal(var) && !ElementUtil.isStatic(var)
+          && !var.asType().getKind().isPrimitive() && !ElementUtil.isWeakReference(var)
+          && !ElementUtil.hasNullableAnnotation(var)) {
+        List<Expression> values = new ArrayList<>();
+        Expression initializer = node.getFragment().getInitializer();
+        if (initializer != null) {
+          values.add(initializer);
+        }
+        fieldValues.put(var, values);
+      }
+      return false;
+    }
+
+    @Override
+    public boolean visit(MethodDeclaration node) {
+      ExecutableElement method = node.getExecutableElement();
+      unitMethods.add(method);
+      if (isCandidate(method) && node.getBody() != null) {
+        currentReturns = new ArrayList<>();
+        methodReturns.put(method, currentReturns);
+      }
+      if (ElementUtil.isConstructor(method) && node.getBody() != null) {
+        addEarlyAssignedFields(node);
+      }
+      return true;
+    }
+
+    /**
+     * Records the fields assigned at the start of a constructor, before it
+     * makes any call that could reach code reading the fields while they are
+     * still null.
+     */
+    private void addEarlyAssignedFields(MethodDeclaration node) {
+      Set<VariableElement> assigned = new HashSet<>();
+      for (Statement stmt : node.getBody().getStatements()) {
+        if (stmt instanceof ConstructorInvocation) {
+          // The invoked constructor assigns the fields first.
+          return;
+        }
+        if (stmt instanceof SuperConstructorInvocation) {
+          SuperConstructorInvocation superCall = (SuperConstructorInvocation) stmt;
+          TypeElement superclass =
+              ElementUtil.getDeclaringClass(superCall.getExecutableElement());
+          // Other superclass constructors may call overridden methods.
+          if ((TypeUtil.isJavaObject(superclass.asType())
+                  || ElementUtil.getQualifiedName(superclass).equals("java.lang.Enum"))
+              && allCallFree(superCall.getArguments())) {
+            continue;
+          }
+          break;
+        }
+        VariableElement field = getAssignedThisField(stmt);
+        if (field == null) {
+          break;
+        }
+        assigned.add(field);
+      }
+      TypeElement type = ElementUtil.getDeclaringClass(node.getExecutableElement());
+      Set<VariableElement> fields = earlyAssignedFields.get(type);
+      if (fields == null) {
+        earlyAssignedFields.put(type, assigned);
+      } else {
+        fields.retainAll(assigned);
+      }
+    }
+
+    /**
+     * Returns the field of this object assigned by a statement, if the
+     * statement is such an assignment and its value can be computed without
+     * calling any code.
+     */
+    private VariableElement getAssignedThisField(Statement stmt) {
+      if (!(stmt instanceof ExpressionStatement)) {
+        return null;
+      }
+      Expression expr = ((ExpressionStatement) stmt).getExpression();
+      if (!(expr instanceof Assignment)) {
+        return null;
+      }
+      Assignment assignment = (Assignment) expr;
+      Expression lhs = assignment.getLeftHandSide();
+      if (assignment.getOperator() != Assignment.Operator.ASSIGN
+          || !(lhs instanceof SimpleName || (lhs instanceof FieldAccess
+              && ((FieldAccess) lhs).getExpression() instanceof ThisExpression))
+          || !isCallFree(assignment.getRightHandSide())) {
+        return null;
+      }
+      VariableElement var = TreeUtil.getVariableElement(lhs);
+      return var != null && ElementUtil.isField(var) ? var : null;
+    }
+
+    private boolean allCallFree(List<Expression> exprs) {
+      for (Expression expr : exprs) {
+        if (!isCallFree(expr)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns whether evaluating an expression can't run code that might read
+     * this object's fields.
+     */
+    private boolean isCallFree(Expression expr) {
+      boolean[] callFree = { true };
+      expr.accept(new TreeVisitor() {
+        @Override
+        public boolean preVisit(TreeNode node) {
+          switch (node.getKind()) {
+            case METHOD_INVOCATION:
+            case SUPER_METHOD_INVOCATION:
+            case FUNCTION_INVOCATION:
+              callFree[0] = false;
+              break;
+            case CLASS_INSTANCE_CREATION:
+              // The new object's constructor may call back into this object
+              // if it is given a reference to it.
+              ClassInstanceCreation creation = (ClassInstanceCreation) node;
+              TypeElement type = ElementUtil.getDeclaringClass(creation.getExecutableElement());
+              if (creation.getExpression() != null || ElementUtil.hasOuterContext(type)
+                  || creation.getAnonymousClassDeclaration() != null
+                  || hasThisExpression(creation)) {
+                callFree[0] = false;
+              }
+              break;
+            case INFIX_EXPRESSION:
+              // String concatenation calls toString() on object operands.
+              InfixExpression infix = (InfixExpression) node;
+              if (typeUtil.isString(infix.getTypeMirror())) {
+                for (Expression operand : infix.getOperands()) {
+                  if (callsToString(operand)) {
+                    callFree[0] = false;
+                  }
+                }
+              }
+              break;
+            case ASSIGNMENT:
+              Assignment assignment = (Assignment) node;
+              if (assignment.getOperator() == Assignment.Operator.PLUS_ASSIGN
+                  && typeUtil.isString(assignment.getTypeMirror())
+                  && callsToString(assignment.getRightHandSide())) {
+                callFree[0] = false;
+              }
+              break;
+            case LAMBDA_EXPRESSION:
+              // Lambda bodies don't run when the lambda is created.
+              return false;
+            default:
+          }
+          return callFree[0];
+        }
+      });
+      return callFree[0];
+    }
+
+    /**
+     * Returns whether concatenating an operand with a String calls its
+     * toString() method.
+     */
+    private boolean callsToString(Expression operand) {
+      TypeMirror type = operand.getTypeMirror();
+      return !type.getKind().isPrimitive() && type.getKind() != TypeKind.NULL
+          && !typeUtil.isString(type);
+    }
+
+    private boolean hasThisExpression(TreeNode node) {
+      boolean[] found = { false };
+      node.accept(new TreeVisitor() {
+        @Override
+        public boolean preVisit(TreeNode child) {
+          if (child.getKind() == TreeNode.Kind.THIS_EXPRESSION) {
+            found[0] = true;
+          }
+          return !found[0];
+        }
+      });
+      return found[0];
+    }
+
+    @Override
+    public void endVisit(MethodDeclaration node) {
+      currentReturns = null;
+    }
+
+    private boolean isCandidate(ExecutableElement method) {
+      TypeMirror returnType = method.getReturnType();
+      if (ElementUtil.isConstructor(method) || ElementUtil.isNative(method)
+          || ElementUtil.isAbstract(method) || returnType.getKind().isPrimitive()
+          || returnType.getKind() == TypeKind.VOID || ElementUtil.hasNullableAnnotation(method)) {
+        return false;
+      }
+      return ElementUtil.isPrivate(method) || ElementUtil.isStatic(method)
+          || ElementUtil.isFinal(method)
+          || ElementUtil.isFinal(ElementUtil.getDeclaringClass(method));
+    }
+
+    @Override
+    public boolean visit(LambdaExpression node) {
+      lambdaDepth++;
+      return true;
+    }
+
+    @Override
+    public void endVisit(LambdaExpression node) {
+      lambdaDepth--;
+    }
+
+    @Override
+    public void endVisit(ReturnStatement node) {
+      Expression expr = node.getExpression();
+      if (currentReturns != null && lambdaDepth == 0 && expr != null) {
+        currentReturns.add(expr);
+      }
+    }
+
+    @Override
+    public void endVisit(Assignment node) {
+      VariableElement var = TreeUtil.getVariableElement(node.getLeftHandSide());
+      List<Expression> values = var != null ? fieldValues.get(var) : null;
+      if (values == null) {
+        return;
+      }
+      if (node.getOperator() == Assignment.Operator.ASSIGN) {
+        values.add(node.getRightHandSide());
+      } else if (!typeUtil.isString(var.asType())) {
+        fieldValues.remove(var);
+      }
+    }
+
+    private void resolve() {
+      // Fields that are never assigned are null.
+      fieldValues.values().removeIf(List::isEmpty);
+      // Fields that might be read before their constructor assigns them, for
+      // example by a method the constructor calls first, can't be trusted.
+      fieldValues.keySet().removeIf(var -> {
+        Set<VariableElement> fields = earlyAssignedFields.get(ElementUtil.getDeclaringClass(var));
+        return fields == null || !fields.contains(var);
+      });
+      boolean changed = true;
+      while (changed) {
+        changed = methodReturns.values().removeIf(values -> !allNonnull(values, true));
+        // Field values are assigned in constructors, so they can't rely on
+        // other fields being assigned first.
+        changed |= fieldValues.values().removeIf(values -> !allNonnull(values, false));
+      }
+    }
+
+    private boolean allNonnull(List<Expression> values, boolean trustFields) {
+      for (Expression value : values) {
+        if (!isNonnullValue(value, trustFields)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean isNonnullValue(Expression e, boolean trustFields) {
+      switch (e.getKind()) {
+        case ARRAY_CREATION:
+        case CLASS_INSTANCE_CREATION:
+        case CREATION_REFERENCE:
+        case EXPRESSION_METHOD_REFERENCE:
+        case LAMBDA_EXPRESSION:
+        case STRING_LITERAL:
+        case SUPER_METHOD_REFERENCE:
+        case THIS_EXPRESSION:
+        case TYPE_LITERAL:
+        case TYPE_METHOD_REFERENCE:
+          return true;
+        case INFIX_EXPRESSION:
+          // String concatenation.
+          return typeUtil.isString(e.getTypeMirror());
+        case CAST_EXPRESSION:
+          return isNonnullValue(((CastExpression) e).getExpression(), trustFields);
+        case PARENTHESIZED_EXPRESSION:
+          return isNonnullValue(((ParenthesizedExpression) e).getExpression(), trustFields);
+        case CONDITIONAL_EXPRESSION:
+          ConditionalExpression conditional = (ConditionalExpression) e;
+          return isNonnullValue(conditional.getThenExpression(), trustFields)
+              && isNonnullValue(conditional.getElseExpression(), trustFields);
+        case METHOD_INVOCATION:
+          ExecutableElement method = ((MethodInvocation) e).getExecutableElement();
+          return isNonnullMethod(method) || methodReturns.containsKey(method);
+        default:
+          VariableElement var = TreeUtil.getVariableElement(e);
+          return var != null && (isNonnullVar(var)
+              || (trustFields && fieldValues.containsKey(var) && !ElementUtil.isVolatile(var)));
+      }
+    }
+  }
+
   /**
    * A stack element that tracks which variables are safe and don't need a
    * nil_chk or not safe.
@@ -386,16 +735,57 @@ public class NilCheckResolver extends UnitTreeVisitor {
     return false;
   }
 
+  /**
+   * Returns true if a variable is declared nonnull, with a Nonnull annotation
+   * or a ParametersAreNonnullByDefault annotation on its parameter's type or
+   * package. All parameters are nonnull with -Xdefault-nonnull.
+   */
+  private boolean isNonnullVar(VariableElement var) {
+    if (ElementUtil.isNonnull(var) || ElementUtil.hasNonnullAnnotation(var)) {
+      return true;
+    }
+    if (!ElementUtil.isParameter(var) || var.asType().getKind().isPrimitive()
+        || ElementUtil.hasNullableAnnotation(var)) {
+      return false;
+    }
+    if (options.defaultNonnull()) {
+      return true;
+    }
+    if (!options.nullability()) {
+      return false;
+    }
+    TypeElement type = ElementUtil.getDeclaringClass(var);
+    return type != null && parametersNonnullByDefault.computeIfAbsent(
+        type, t -> elementUtil.areParametersNonnullByDefault(t, options));
+  }
+
+  /**
+   * Returns true if a method's result is known to be nonnull, either because
+   * it's declared nonnull or because it's a common case that never returns null.
+   */
+  private boolean isNonnullMethod(ExecutableElement method) {
+    if (ElementUtil.isConstructor(method) || ElementUtil.getName(method).equals("getClass")
+        || isBoxingMethod(method)) {
+      return true;
+    }
+    if (ElementUtil.hasNullableAnnotation(method)) {
+      return false;
+    }
+    return ElementUtil.hasNonnullAnnotation(method)
+        || (options.defaultNonnull() && unitMethods.contains(method));
+  }
+
   private boolean needsNilCheck(Expression e) {
     VariableElement sym = TreeUtil.getVariableElement(e);
     if (sym != null) {
-      return !ElementUtil.isNonnull(sym) && (ElementUtil.isVolatile(sym) || !isSafeVar(sym));
+      if (isNonnullVar(sym) || (!inConstructor && nonnullFields.contains(sym))) {
+        return false;
+      }
+      return ElementUtil.isVolatile(sym) || !isSafeVar(sym);
     }
     ExecutableElement method = TreeUtil.getExecutableElement(e);
     if (method != null) {
-      // Check for some common cases where the result is known not to be null.
-      return !ElementUtil.isConstructor(method) && !ElementUtil.getName(method).equals("getClass")
-          && !isBoxingMethod(method);
+      return !isNonnullMethod(method) && !nonnullMethods.contains(method);
     }
     switch (e.getKind()) {
       case CAST_EXPRESSION:
@@ -499,9 +889,11 @@ public class NilCheckResolver extends UnitTreeVisitor {
   public boolean visit(MethodDeclaration node) {
     Block body = node.getBody();
     if (body != null) {
+      inConstructor = ElementUtil.isConstructor(node.getExecutableElement());
       pushFirstScope();
       body.accept(this);
       popLastScope();
+      inConstructor = false;
     }
     return false;
   }
@@ -16,6 +16,7 @@ package com.google.devtools.j2objc.translate;
 
 import com.google.devtools.j2objc.ast.Block;
 import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.FusibleVisitor;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.NativeStatement;
 import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
@@ -37,7 +38,7 @@ import javax.lang.model.type.DeclaredType;
  *
  * @author Tom Ball
  */
-public class NumberMethodRewriter extends UnitTreeVisitor {
+public class NumberMethodRewriter extends UnitTreeVisitor implements FusibleVisitor {
 
   public NumberMethodRewriter(CompilationUnit unit) {
     super(unit);
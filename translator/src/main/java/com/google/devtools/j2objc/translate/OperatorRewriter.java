@@ -545,6 +545,21 @@ public class OperatorRewriter extends UnitTreeVisitor {
     }
 
     TypeMirror stringType = typeUtil.getJavaString().asType();
+    if (operands.size() == 2 && isStrcat2Operand(operands.get(0))
+        && isStrcat2Operand(operands.get(1))) {
+      // Two object operands, like "prefix" + s, don't need a types string.
+      FunctionElement element = new FunctionElement("JreStrcat2", stringType, null)
+          .addParameters(TypeUtil.ID_TYPE, TypeUtil.ID_TYPE);
+      FunctionInvocation invocation = new FunctionInvocation(element, stringType);
+      for (Expression operand : operands) {
+        invocation.addArgument(operand instanceof CharacterLiteral
+            ? new StringLiteral(String.valueOf(((CharacterLiteral) operand).charValue()), typeUtil)
+            : operand);
+      }
+      node.replaceWith(invocation);
+      return;
+    }
+
     FunctionElement element = new FunctionElement("JreStrcat", stringType, null)
         .addParameters(TypeUtil.NATIVE_CHAR_PTR)
         .setIsVarargs(true);
@@ -555,6 +570,13 @@ public class OperatorRewriter extends UnitTreeVisitor {
     node.replaceWith(invocation);
   }
 
+  // Single character literals are only created by coalesceStringLiterals(),
+  // so they can be passed as strings.
+  private static boolean isStrcat2Operand(Expression operand) {
+    return operand instanceof CharacterLiteral
+        || !operand.getTypeMirror().getKind().isPrimitive();
+  }
+
   private List<Expression> getStringAppendOperands(Assignment node) {
     Expression rhs = node.getRightHandSide();
     if (rhs instanceof InfixExpression && typeUtil.isString(rhs.getTypeMirror())) {
@@ -619,6 +641,11 @@ public class OperatorRewriter extends UnitTreeVisitor {
 
   private static String getLiteralStringValue(Expression expr) {
     switch (expr.getKind()) {
+      case SIMPLE_NAME:
+      case QUALIFIED_NAME:
+      case PARENTHESIZED_EXPRESSION:
+        // Compile-time constants, which have no side effects.
+        return getConstantStringValue(expr.getConstantValue());
       case STRING_LITERAL:
         String literalValue = ((StringLiteral) expr).getLiteralValue();
         if (UnicodeUtils.hasValidCppCharacters(literalValue)) {
@@ -629,7 +656,7 @@ public class OperatorRewriter extends UnitTreeVisitor {
       case BOOLEAN_LITERAL:
         return String.valueOf(((BooleanLiteral) expr).booleanValue());
       case CHARACTER_LITERAL:
-        return String.valueOf(((CharacterLiteral) expr).charValue());
+        return getConstantStringValue(((CharacterLiteral) expr).charValue());
       case NUMBER_LITERAL:
         return ((NumberLiteral) expr).getValue().toString();
       default:
@@ -637,6 +664,16 @@ public class OperatorRewriter extends UnitTreeVisitor {
     }
   }
 
+  private static String getConstantStringValue(Object value) {
+    if (value instanceof String || value instanceof Character) {
+      String stringValue = String.valueOf(value);
+      return UnicodeUtils.hasValidCppCharacters(stringValue) ? stringValue : null;
+    } else if (value instanceof Boolean || value instanceof Number) {
+      return String.valueOf(value);
+    }
+    return null;
+  }
+
   /**
    * Returns a character to indicate the type of an argument.
    * '$' for String, '@' for other objects, and the binary name character for
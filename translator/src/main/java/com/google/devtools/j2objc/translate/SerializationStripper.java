@@ -19,6 +19,7 @@ package com.google.devtools.j2objc.translate;
 import com.google.common.collect.ImmutableList;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.FieldDeclaration;
+import com.google.devtools.j2objc.ast.FusibleVisitor;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.TypeDeclaration;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
@@ -40,7 +41,7 @@ import javax.lang.model.type.TypeMirror;
  *   <li>Method readResolve
  * </ul>
  */
-public final class SerializationStripper extends UnitTreeVisitor {
+public final class SerializationStripper extends UnitTreeVisitor implements FusibleVisitor {
 
   public SerializationStripper(CompilationUnit unit) {
     super(unit);
@@ -14,21 +14,41 @@
 
 package com.google.devtools.j2objc.translate;
 
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.AssertStatement;
+import com.google.devtools.j2objc.ast.BodyDeclaration;
+import com.google.devtools.j2objc.ast.CatchClause;
 import com.google.devtools.j2objc.ast.CommaExpression;
 import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.ConditionalExpression;
+import com.google.devtools.j2objc.ast.DoStatement;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.IfStatement;
+import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.LabeledStatement;
 import com.google.devtools.j2objc.ast.NativeExpression;
+import com.google.devtools.j2objc.ast.NativeStatement;
 import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.QualifiedName;
 import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
 import com.google.devtools.j2objc.ast.SwitchCase;
+import com.google.devtools.j2objc.ast.SwitchStatement;
 import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TryStatement;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
+import com.google.devtools.j2objc.ast.WhileStatement;
 import com.google.devtools.j2objc.types.PointerType;
 import com.google.devtools.j2objc.util.ElementUtil;
 import com.google.devtools.j2objc.util.TranslationUtil;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
@@ -36,10 +56,23 @@ import javax.lang.model.type.TypeMirror;
 /**
  * Converts static variable access to static method calls where necessary.
  *
+ * A static load is not needed when the declaring class is already
+ * initialized: when it is the enclosing class or one of its superclasses, or
+ * when an earlier statement of the same method loaded from it on every path
+ * to the current statement.
+ *
  * @author Keith Stanger
  */
 public class StaticVarRewriter extends UnitTreeVisitor {
 
+  // Classes whose static variables were loaded on every path to the current
+  // statement of the current method.
+  private Set<TypeElement> initializedTypes = new HashSet<>();
+  // Classes loaded in the current statement. They are only added to
+  // initializedTypes after the statement, since C leaves the evaluation order
+  // of function arguments unspecified.
+  private Set<TypeElement> pendingTypes = new HashSet<>();
+
   public StaticVarRewriter(CompilationUnit unit) {
     super(unit);
   }
@@ -48,8 +81,16 @@ public class StaticVarRewriter extends UnitTreeVisitor {
     if (!ElementUtil.isStatic(var) || ElementUtil.isConstant(var)) {
       return false;
     }
-    TypeElement enclosingType = TreeUtil.getEnclosingTypeElement(currentNode);
-    return enclosingType == null || !enclosingType.equals(ElementUtil.getDeclaringClass(var));
+    TypeElement declaringClass = ElementUtil.getDeclaringClass(var);
+    // A class's superclasses are initialized before it is.
+    for (TypeElement type = TreeUtil.getEnclosingTypeElement(currentNode); type != null;
+         type = ElementUtil.getSuperclass(type)) {
+      if (type.equals(declaringClass)) {
+        return false;
+      }
+    }
+    pendingTypes.add(declaringClass);
+    return !initializedTypes.contains(declaringClass);
   }
 
   private void rewriteStaticAccess(Expression node) {
@@ -128,4 +169,176 @@ public class StaticVarRewriter extends UnitTreeVisitor {
     // Avoid using an accessor method for enums in a switch case.
     return false;
   }
+
+  private void resetInitializedTypes() {
+    initializedTypes.clear();
+    pendingTypes.clear();
+  }
+
+  private void commitPendingTypes() {
+    initializedTypes.addAll(pendingTypes);
+    pendingTypes.clear();
+  }
+
+  /**
+   * Visits a node that might not be executed, so loads in it are not cached
+   * for the code after it.
+   */
+  private void acceptConditionally(TreeNode node) {
+    if (node == null) {
+      return;
+    }
+    Set<TypeElement> savedInitializedTypes = new HashSet<>(initializedTypes);
+    Set<TypeElement> savedPendingTypes = new HashSet<>(pendingTypes);
+    node.accept(this);
+    initializedTypes = savedInitializedTypes;
+    pendingTypes = savedPendingTypes;
+  }
+
+  @Override
+  public boolean preVisit(TreeNode node) {
+    // Each method, and the class initialization statements that follow the
+    // body declarations, starts with no initialized types.
+    if (node instanceof BodyDeclaration || node instanceof AbstractTypeDeclaration) {
+      resetInitializedTypes();
+    }
+    return true;
+  }
+
+  @Override
+  public void postVisit(TreeNode node) {
+    if (node instanceof BodyDeclaration || node instanceof AbstractTypeDeclaration) {
+      resetInitializedTypes();
+    }
+  }
+
+  @Override
+  public void endVisit(ExpressionStatement node) {
+    commitPendingTypes();
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationStatement node) {
+    commitPendingTypes();
+  }
+
+  @Override
+  public boolean visit(IfStatement node) {
+    node.getExpression().accept(this);
+    commitPendingTypes();
+    acceptConditionally(node.getThenStatement());
+    acceptConditionally(node.getElseStatement());
+    return false;
+  }
+
+  @Override
+  public boolean visit(WhileStatement node) {
+    node.getExpression().accept(this);
+    commitPendingTypes();
+    acceptConditionally(node.getBody());
+    return false;
+  }
+
+  @Override
+  public boolean visit(DoStatement node) {
+    acceptConditionally(node.getBody());
+    acceptConditionally(node.getExpression());
+    return false;
+  }
+
+  @Override
+  public boolean visit(ForStatement node) {
+    for (Expression initializer : node.getInitializers()) {
+      initializer.accept(this);
+    }
+    commitPendingTypes();
+    if (node.getExpression() != null) {
+      node.getExpression().accept(this);
+      commitPendingTypes();
+    }
+    acceptConditionally(node.getBody());
+    for (Expression updater : node.getUpdaters()) {
+      acceptConditionally(updater);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(SwitchStatement node) {
+    node.getExpression().accept(this);
+    commitPendingTypes();
+    Set<TypeElement> savedInitializedTypes = initializedTypes;
+    for (Statement stmt : node.getStatements()) {
+      if (stmt instanceof SwitchCase) {
+        // Each case may be jumped to directly.
+        initializedTypes = new HashSet<>(savedInitializedTypes);
+        pendingTypes.clear();
+      }
+      stmt.accept(this);
+    }
+    initializedTypes = savedInitializedTypes;
+    pendingTypes.clear();
+    return false;
+  }
+
+  @Override
+  public boolean visit(TryStatement node) {
+    for (TreeNode resource : node.getResources()) {
+      acceptConditionally(resource);
+    }
+    acceptConditionally(node.getBody());
+    for (CatchClause catchClause : node.getCatchClauses()) {
+      acceptConditionally(catchClause);
+    }
+    acceptConditionally(node.getFinally());
+    return false;
+  }
+
+  @Override
+  public boolean visit(LabeledStatement node) {
+    // Labels may be the target of a goto, from LabelRewriter.
+    resetInitializedTypes();
+    return true;
+  }
+
+  @Override
+  public void endVisit(LabeledStatement node) {
+    resetInitializedTypes();
+  }
+
+  @Override
+  public boolean visit(NativeStatement node) {
+    resetInitializedTypes();
+    return false;
+  }
+
+  @Override
+  public boolean visit(AssertStatement node) {
+    acceptConditionally(node.getExpression());
+    acceptConditionally(node.getMessage());
+    return false;
+  }
+
+  @Override
+  public boolean visit(ConditionalExpression node) {
+    node.getExpression().accept(this);
+    acceptConditionally(node.getThenExpression());
+    acceptConditionally(node.getElseExpression());
+    return false;
+  }
+
+  @Override
+  public boolean visit(InfixExpression node) {
+    InfixExpression.Operator op = node.getOperator();
+    if (op != InfixExpression.Operator.CONDITIONAL_AND
+        && op != InfixExpression.Operator.CONDITIONAL_OR) {
+      return true;
+    }
+    List<Expression> operands = node.getOperands();
+    operands.get(0).accept(this);
+    for (int i = 1; i < operands.size(); i++) {
+      acceptConditionally(operands.get(i));
+    }
+    return false;
+  }
 }
@@ -17,11 +17,13 @@ package com.google.devtools.j2objc.translate;
 import com.google.devtools.j2objc.ast.ArrayInitializer;
 import com.google.devtools.j2objc.ast.Assignment;
 import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.BreakStatement;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.EmptyStatement;
 import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.IfStatement;
 import com.google.devtools.j2objc.ast.MethodInvocation;
 import com.google.devtools.j2objc.ast.NativeExpression;
 import com.google.devtools.j2objc.ast.NumberLiteral;
@@ -29,15 +31,20 @@ import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.Statement;
 import com.google.devtools.j2objc.ast.SwitchCase;
 import com.google.devtools.j2objc.ast.SwitchStatement;
+import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
 import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
 import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
 import com.google.devtools.j2objc.types.ExecutablePair;
 import com.google.devtools.j2objc.types.FunctionElement;
+import com.google.devtools.j2objc.types.GeneratedVariableElement;
 import com.google.devtools.j2objc.util.NameTable;
 import com.google.devtools.j2objc.util.TypeUtil;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
@@ -51,10 +58,21 @@ import javax.lang.model.type.TypeMirror;
  */
 public class SwitchRewriter extends UnitTreeVisitor {
 
+  // String switches with at least this many cases first dispatch on the
+  // string's hash code, like javac does, instead of comparing every case.
+  private static final int MIN_HASHED_STRING_CASES = 8;
+
   public SwitchRewriter(CompilationUnit unit) {
     super(unit);
   }
 
+  @Override
+  public void run() {
+    if (unit.hasNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT)) {
+      super.run();
+    }
+  }
+
   @Override
   public void endVisit(SwitchStatement node) {
     fixVariableDeclarations(node);
@@ -133,17 +151,22 @@ public class SwitchRewriter extends UnitTreeVisitor {
     if (!typeUtil.isString(type)) {
       return;
     }
+    List<SwitchCase> cases = new ArrayList<>();
+    for (Statement stmt : node.getStatements()) {
+      if (stmt instanceof SwitchCase && !((SwitchCase) stmt).isDefault()) {
+        cases.add((SwitchCase) stmt);
+      }
+    }
+    if (cases.size() >= MIN_HASHED_STRING_CASES && hasConstantStringValues(cases)) {
+      fixHashedStringValue(node, cases);
+      return;
+    }
     ArrayType arrayType = typeUtil.getArrayType(type);
     ArrayInitializer arrayInit = new ArrayInitializer(arrayType);
     int idx = 0;
-    for (Statement stmt : node.getStatements()) {
-      if (stmt instanceof SwitchCase) {
-        SwitchCase caseStmt = (SwitchCase) stmt;
-        if (!caseStmt.isDefault()) {
-          arrayInit.addExpression(TreeUtil.remove(caseStmt.getExpression()));
-          caseStmt.setExpression(NumberLiteral.newIntLiteral(idx++, typeUtil));
-        }
-      }
+    for (SwitchCase caseStmt : cases) {
+      arrayInit.addExpression(TreeUtil.remove(caseStmt.getExpression()));
+      caseStmt.setExpression(NumberLiteral.newIntLiteral(idx++, typeUtil));
     }
     TypeMirror intType = typeUtil.getInt();
     FunctionElement indexOfFunc = new FunctionElement("JreIndexOfStr", intType, null)
@@ -155,6 +178,74 @@ public class SwitchRewriter extends UnitTreeVisitor {
     node.setExpression(invocation);
   }
 
+  private static boolean hasConstantStringValues(List<SwitchCase> cases) {
+    for (SwitchCase caseStmt : cases) {
+      if (!(caseStmt.getExpression().getConstantValue() instanceof String)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds a switch on the string's hash code that finds the index of the
+   * matching case, and changes the original switch to switch on that index.
+   * The string is evaluated once, before either switch. As with
+   * JreIndexOfStr, a nil string matches no case.
+   */
+  private void fixHashedStringValue(SwitchStatement node, List<SwitchCase> cases) {
+    Expression expr = node.getExpression();
+    DeclaredType type = (DeclaredType) expr.getTypeMirror();
+    TypeMirror intType = typeUtil.getInt();
+    ExecutablePair equalsMethod = typeUtil.findMethod(type, "equals", "java.lang.Object");
+    VariableElement strVar = GeneratedVariableElement.newLocalVar("str__", type, null);
+    VariableElement indexVar = GeneratedVariableElement.newLocalVar("index__", intType, null);
+
+    // Case indexes by hash code, in case order.
+    Map<Integer, List<Integer>> hashCodes = new LinkedHashMap<>();
+    List<Expression> values = new ArrayList<>();
+    for (SwitchCase caseStmt : cases) {
+      Expression value = caseStmt.getExpression();
+      int hashCode = ((String) value.getConstantValue()).hashCode();
+      hashCodes.computeIfAbsent(hashCode, k -> new ArrayList<>()).add(values.size());
+      caseStmt.setExpression(NumberLiteral.newIntLiteral(values.size(), typeUtil));
+      values.add(value);
+    }
+
+    FunctionElement hashCodeFunc = new FunctionElement("JreStringHashCode", intType, null)
+        .addParameters(type);
+    SwitchStatement hashSwitch = new SwitchStatement().setExpression(
+        new FunctionInvocation(hashCodeFunc, intType).addArgument(new SimpleName(strVar)));
+    for (Map.Entry<Integer, List<Integer>> entry : hashCodes.entrySet()) {
+      hashSwitch.addStatement(
+          new SwitchCase().setExpression(NumberLiteral.newIntLiteral(entry.getKey(), typeUtil)));
+      // Hash codes may collide, so confirm each case with equals().
+      Statement match = null;
+      List<Integer> indexes = entry.getValue();
+      for (int i = indexes.size() - 1; i >= 0; i--) {
+        int index = indexes.get(i);
+        IfStatement ifStmt = new IfStatement()
+            .setExpression(new MethodInvocation(equalsMethod, new SimpleName(strVar))
+                .addArgument(values.get(index)))
+            .setThenStatement(new ExpressionStatement(new Assignment(
+                new SimpleName(indexVar), NumberLiteral.newIntLiteral(index, typeUtil))))
+            .setElseStatement(match);
+        match = ifStmt;
+      }
+      hashSwitch.addStatement(match);
+      hashSwitch.addStatement(new BreakStatement());
+    }
+
+    Block block = new Block();
+    node.replaceWith(block);
+    block.addStatement(new VariableDeclarationStatement(strVar, TreeUtil.remove(expr)));
+    block.addStatement(
+        new VariableDeclarationStatement(indexVar, NumberLiteral.newIntLiteral(-1, typeUtil)));
+    block.addStatement(hashSwitch);
+    block.addStatement(node);
+    node.setExpression(new SimpleName(indexVar));
+  }
+
   private void fixEnumValue(SwitchStatement node) {
     Expression expr = node.getExpression();
     TypeMirror type = expr.getTypeMirror();
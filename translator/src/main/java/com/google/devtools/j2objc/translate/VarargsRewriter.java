@@ -22,6 +22,7 @@ import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.ConstructorInvocation;
 import com.google.devtools.j2objc.ast.EnumConstantDeclaration;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.FusibleVisitor;
 import com.google.devtools.j2objc.ast.MethodInvocation;
 import com.google.devtools.j2objc.ast.SuperConstructorInvocation;
 import com.google.devtools.j2objc.ast.SuperMethodInvocation;
@@ -36,7 +37,7 @@ import javax.lang.model.type.TypeMirror;
  *
  * @author Keith Stanger
  */
-public class VarargsRewriter extends UnitTreeVisitor {
+public class VarargsRewriter extends UnitTreeVisitor implements FusibleVisitor {
 
   public VarargsRewriter(CompilationUnit unit) {
     super(unit);
@@ -30,6 +30,7 @@ import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
 import com.google.devtools.j2objc.ast.Type;
 import com.google.devtools.j2objc.ast.TypeDeclaration;
 import com.google.devtools.j2objc.ast.UnitTreeVisitor;
+import com.google.devtools.j2objc.util.ElementUtil;
 import com.google.devtools.j2objc.util.TranslationUtil;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -73,6 +74,8 @@ public class HeaderImportCollector extends UnitTreeVisitor {
   private Set<Import> forwardDecls = new LinkedHashSet<>();
   // Supertypes of the below declared types that haven't been seen by this collector.
   private Set<Import> superTypes = new LinkedHashSet<>();
+  // The type elements of the above supertypes.
+  private Set<TypeElement> superTypeElements = new LinkedHashSet<>();
   // Declared types seen by this collector.
   private Set<Import> declaredTypes = new HashSet<>();
 
@@ -89,6 +92,54 @@ public class HeaderImportCollector extends UnitTreeVisitor {
     return superTypes;
   }
 
+  /**
+   * Returns the supertypes whose headers need to be included, leaving out
+   * those that are also inherited by another supertype. A type's header
+   * includes the headers of its own supertypes, so the definitions of the
+   * inherited types are already available.
+   */
+  public Set<Import> getMinimalSuperTypes() {
+    Set<Import> inherited = new HashSet<>();
+    for (TypeElement type : superTypeElements) {
+      for (TypeElement inheritedType : getInheritedTypes(type)) {
+        Import.addImports(inheritedType.asType(), inherited, unit.getEnv());
+      }
+    }
+    return Sets.newLinkedHashSet(Sets.difference(superTypes, inherited));
+  }
+
+  /**
+   * Returns the supertypes and all the types they inherit from, which are the
+   * headers transitively included by the supertypes' headers.
+   */
+  public Set<Import> getTransitiveSuperTypes() {
+    Set<Import> result = new LinkedHashSet<>(superTypes);
+    for (TypeElement type : superTypeElements) {
+      for (TypeElement inheritedType : getInheritedTypes(type)) {
+        Import.addImports(inheritedType.asType(), result, unit.getEnv());
+      }
+    }
+    return result;
+  }
+
+  private static Set<TypeElement> getInheritedTypes(TypeElement type) {
+    Set<TypeElement> result = new LinkedHashSet<>();
+    addInheritedTypes(type, result);
+    return result;
+  }
+
+  private static void addInheritedTypes(TypeElement type, Set<TypeElement> result) {
+    TypeElement superclass = ElementUtil.getSuperclass(type);
+    if (superclass != null && result.add(superclass)) {
+      addInheritedTypes(superclass, result);
+    }
+    for (TypeElement interfaze : ElementUtil.getInterfaces(type)) {
+      if (result.add(interfaze)) {
+        addInheritedTypes(interfaze, result);
+      }
+    }
+  }
+
   private void addForwardDecl(Type type) {
     if (type != null) {
       addForwardDecl(type.getTypeMirror());
@@ -102,6 +153,7 @@ public class HeaderImportCollector extends UnitTreeVisitor {
   private void addSuperType(TypeElement type) {
     if (type != null) {
       Import.addImports(type.asType(), superTypes, unit.getEnv());
+      superTypeElements.add(type);
     }
   }
 
@@ -30,6 +30,13 @@ import com.google.j2objc.annotations.RetainedWith;
 import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.model.JavacElements;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
+import com.sun.tools.javac.tree.JCTree.JCIdent;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeScanner;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collections;
@@ -575,6 +582,41 @@ public final class ElementUtil {
     return javacElements.getBinaryName(e).toString();
   }
 
+  /**
+   * Returns the constant fields referenced by the initializer of a constant
+   * declared in a source file. Constants from class files have their
+   * initializers folded already, so none are returned for them.
+   */
+  public Set<VariableElement> getInitializerConstants(VariableElement field) {
+    Set<VariableElement> constants = new HashSet<>();
+    if (!(field instanceof Symbol) || !(javacElements instanceof JavacElements)) {
+      return constants;
+    }
+    JCTree tree = ((JavacElements) javacElements).getTree(field);
+    if (!(tree instanceof JCVariableDecl) || ((JCVariableDecl) tree).init == null) {
+      return constants;
+    }
+    new TreeScanner() {
+      @Override
+      public void visitIdent(JCIdent node) {
+        addConstant(node.sym);
+      }
+
+      @Override
+      public void visitSelect(JCFieldAccess node) {
+        super.visitSelect(node);
+        addConstant(node.sym);
+      }
+
+      private void addConstant(Symbol sym) {
+        if (sym instanceof VarSymbol && ((VarSymbol) sym).getConstValue() != null) {
+          constants.add((VarSymbol) sym);
+        }
+      }
+    }.scan(((JCVariableDecl) tree).init);
+    return constants;
+  }
+
   Map<? extends ExecutableElement, ? extends AnnotationValue> getElementValuesWithDefaults(
       AnnotationMirror annotation) {
     DeclaredType type = annotation.getAnnotationType();
@@ -839,6 +881,18 @@ public final class ElementUtil {
             && !((VariableElement) element).asType().getKind().isPrimitive());
   }
 
+  /**
+   * Returns true if a type element was loaded from a class file, rather than
+   * parsed from a source file.
+   */
+  public static boolean isFromClassFile(TypeElement type) {
+    if (type instanceof ClassSymbol) {
+      JavaFileObject classFile = ((ClassSymbol) type).classfile;
+      return classFile != null && classFile.getKind() == JavaFileObject.Kind.CLASS;
+    }
+    return false;
+  }
+
   /**
    * Returns the source file name for a type element. Returns null if the element
    * isn't a javac ClassSymbol, or if it is defined by a classfile which was compiled
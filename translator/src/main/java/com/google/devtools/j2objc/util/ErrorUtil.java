@@ -32,7 +32,9 @@ import javax.tools.DiagnosticListener;
 import javax.tools.JavaFileObject;
 
 /**
- * Provides convenient static error and warning methods.
+ * Provides convenient static error and warning methods. The counters and message
+ * lists are guarded by the class lock, so errors can be reported from parallel
+ * output writing tasks.
  *
  * @author Tom Ball, Keith Stanger
  */
@@ -52,18 +54,18 @@ public class ErrorUtil implements DiagnosticListener<JavaFileObject> {
   private static final boolean CLANG_STYLE_ERROR_MSG = (null != System.getenv("DEVELOPER_DIR"));
   private static Pattern pathAndLinePattern = null;
 
-  public static void reset() {
+  public static synchronized void reset() {
     errorCount = 0;
     warningCount = 0;
     errorMessages = Lists.newArrayList();
     warningMessages = Lists.newArrayList();
   }
 
-  public static int errorCount() {
+  public static synchronized int errorCount() {
     return errorCount;
   }
 
-  public static int warningCount() {
+  public static synchronized int warningCount() {
     return warningCount;
   }
 
@@ -75,6 +77,16 @@ public class ErrorUtil implements DiagnosticListener<JavaFileObject> {
     return warningMessages;
   }
 
+  /**
+   * Redirects error and warning messages, such as to a persistent worker's
+   * response output. Returns the previous stream, so it can be restored.
+   */
+  public static synchronized PrintStream setErrorStream(PrintStream stream) {
+    PrintStream previous = errorStream;
+    errorStream = stream;
+    return previous;
+  }
+
   /**
    * To be called by unit tests. In test mode errors and warnings are not
    * printed to System.err.
@@ -107,7 +119,8 @@ public class ErrorUtil implements DiagnosticListener<JavaFileObject> {
     return fullMessage;
   }
 
-  public static void parserDiagnostic(Diagnostic<? extends JavaFileObject> diagnostic) {
+  public static synchronized void parserDiagnostic(
+      Diagnostic<? extends JavaFileObject> diagnostic) {
     Kind kind = diagnostic.getKind();
     if (kind == Kind.ERROR) {
       errorMessages.add(diagnostic.getMessage(null));
@@ -129,13 +142,13 @@ public class ErrorUtil implements DiagnosticListener<JavaFileObject> {
   }
 
   // TODO(tball): Consider more ways to associate errors with GenerationUnits to aid debugging.
-  public static void error(String message) {
+  public static synchronized void error(String message) {
     errorMessages.add(message);
     errorStream.println(getFullMessage("error: ", message, CLANG_STYLE_ERROR_MSG));
     errorCount++;
   }
 
-  public static void warning(String message) {
+  public static synchronized void warning(String message) {
     warningMessages.add(message);
     errorStream.println(getFullMessage("warning: ", message, CLANG_STYLE_ERROR_MSG));
     warningCount++;
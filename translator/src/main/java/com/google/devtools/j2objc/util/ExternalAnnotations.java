@@ -48,6 +48,14 @@ public final class ExternalAnnotations {
     return annotations.getOrDefault(construct, ImmutableList.of());
   }
 
+  /**
+   * Discards the injected annotations, whose constructs belong to a previous
+   * translation.
+   */
+  public static void reset() {
+    annotations.clear();
+  }
+
   /**
    * {@link com.google.devtools.j2objc.Options} should use this method to process external
    * annotation files.
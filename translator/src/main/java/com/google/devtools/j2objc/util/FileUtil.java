@@ -45,6 +45,7 @@ import javax.tools.JavaFileObject;
 public class FileUtil {
 
   private Set<String> tempDirs = new HashSet<>();
+  private List<ZipFile> openJars = new ArrayList<>();
   private List<String> sourcePathEntries = new ArrayList<>();
   private List<String> classPathEntries = new ArrayList<>();
   private File outputDirectory = new File(".");
@@ -119,6 +120,34 @@ public class FileUtil {
     return tempDirs;
   }
 
+  /**
+   * Opens a jar whose entries are read as input files, keeping it open until
+   * {@link #closeOpenJars} is called.
+   */
+  public ZipFile openJar(File jarFile) throws IOException {
+    ZipFile zipFile = new ZipFile(jarFile);
+    openJars.add(zipFile);
+    return zipFile;
+  }
+
+  /**
+   * Closes the jars opened by {@link #openJar}.
+   */
+  public void closeOpenJars() throws IOException {
+    IOException exception = null;
+    for (ZipFile zipFile : openJars) {
+      try {
+        zipFile.close();
+      } catch (IOException e) {
+        exception = e;
+      }
+    }
+    openJars.clear();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
   public static String getMainTypeName(InputFile file) {
     String basename = file.getBasename();
     return removeFileSuffix(basename);
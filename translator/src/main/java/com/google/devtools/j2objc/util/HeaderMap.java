@@ -105,7 +105,7 @@ public class HeaderMap {
 
   private List<String> inputMappingFiles = null;
   private File outputMappingFile = null;
-  private final Map<String, String> map = Maps.newHashMap();
+  private final Map<String, String> map = Collections.synchronizedMap(Maps.newHashMap());
 
   public void setOutputStyle(OutputStyleOption outputStyle) {
     this.outputStyle = outputStyle;
@@ -134,6 +134,10 @@ public class HeaderMap {
     this.outputMappingFile = outputMappingFile;
   }
 
+  public File getOutputMappingFile() {
+    return outputMappingFile;
+  }
+
   /**
    * If true, generated source locations are determined as a function of the input source location
    * and not the package of the input source.
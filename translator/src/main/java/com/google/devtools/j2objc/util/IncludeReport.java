@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the include fan-out of each generated header and writes it as a
+ * tab-separated file, enabled by the --include-report flag. Each line has the
+ * header's path, the number of headers it includes directly, and the number
+ * of headers those include transitively.
+ */
+public class IncludeReport {
+
+  private final File outputFile;
+  // Sorted by header path, so the report doesn't depend on translation order.
+  private final Map<String, int[]> headers = new TreeMap<>();
+
+  public IncludeReport(File outputFile) {
+    this.outputFile = outputFile;
+  }
+
+  public void addHeader(String headerPath, int directIncludes, int transitiveIncludes) {
+    synchronized (headers) {
+      headers.put(headerPath, new int[] { directIncludes, transitiveIncludes });
+    }
+  }
+
+  /**
+   * Writes the recorded headers to the output file, followed by the totals.
+   */
+  public void write() throws IOException {
+    Files.createParentDirs(outputFile);
+    try (Writer out = Files.newWriter(outputFile, StandardCharsets.UTF_8)) {
+      out.write("# header\tdirect\ttransitive\n");
+      long totalDirect = 0;
+      long totalTransitive = 0;
+      synchronized (headers) {
+        for (Map.Entry<String, int[]> entry : headers.entrySet()) {
+          int[] counts = entry.getValue();
+          out.write(entry.getKey() + '\t' + counts[0] + '\t' + counts[1] + '\n');
+          totalDirect += counts[0];
+          totalTransitive += counts[1];
+        }
+      }
+      out.write("# total\t" + totalDirect + '\t' + totalTransitive + '\n');
+    }
+  }
+}
@@ -67,6 +67,10 @@ public class Mappings {
 
   private static final String JRE_MAPPINGS_FILE = "JRE.mappings";
 
+  // The JRE mappings are loaded once per process, since they are shared by
+  // every translation a persistent worker runs.
+  private static Properties jreMappings = null;
+
   private final Map<String, String> classMappings = new HashMap<>();
   private final Map<String, String> methodMappings = new HashMap<>();
   {
@@ -95,8 +99,15 @@ public class Mappings {
   }
 
   public void addJreMappings() throws IOException {
-    InputStream stream = J2ObjC.class.getResourceAsStream(JRE_MAPPINGS_FILE);
-    addMappingsProperties(FileUtil.loadProperties(stream));
+    addMappingsProperties(getJreMappings());
+  }
+
+  private static synchronized Properties getJreMappings() throws IOException {
+    if (jreMappings == null) {
+      InputStream stream = J2ObjC.class.getResourceAsStream(JRE_MAPPINGS_FILE);
+      jreMappings = FileUtil.loadProperties(stream);
+    }
+    return jreMappings;
   }
 
   private void addMappingsProperties(Properties mappings) {
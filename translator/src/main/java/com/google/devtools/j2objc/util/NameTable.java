@@ -90,9 +90,11 @@ public class NameTable {
    * The list of predefined types, common primitive typedefs, constants and
    * variables. Loaded from a resource file.
    */
-  private static ImmutableSet<String> reservedNames = loadReservedNames(
+  private static final ImmutableSet<String> DEFAULT_RESERVED_NAMES = loadReservedNames(
       () -> J2ObjC.class.getResourceAsStream(RESERVED_NAMES_FILE));
 
+  private static ImmutableSet<String> reservedNames = DEFAULT_RESERVED_NAMES;
+
   // Regex pattern for fully-qualified Java class or package names.
   private static final String JAVA_CLASS_NAME_REGEX
       = "(\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*\\.)*"
@@ -132,6 +134,14 @@ public class NameTable {
     reservedNames = updatedReservedNames.build();
   }
 
+  /**
+   * Restores the predefined reserved names, dropping those added by
+   * --reserved-names.
+   */
+  public static void resetReservedNames() {
+    reservedNames = DEFAULT_RESERVED_NAMES;
+  }
+
   private static final ImmutableSet<String> badParameterNames = ImmutableSet.of(
       // Objective-C type qualifier keywords.
       "in", "out", "inout", "oneway", "bycopy", "byref");
@@ -22,7 +22,6 @@ import com.google.devtools.j2objc.file.InputFile;
 import com.google.devtools.j2objc.javac.JavacParser;
 import com.google.devtools.j2objc.pipeline.ProcessingContext;
 import java.io.Closeable;
-import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
@@ -143,6 +142,14 @@ public abstract class Parser implements Closeable {
   public abstract void parseFiles(
       Collection<String> paths, Parser.Handler handler, SourceVersion sourceVersion);
 
+  /**
+   * Parse one or more input files, calling a handler with a compilation unit.
+   * Files that aren't regular files, such as jar entries, are read into memory
+   * instead of being extracted, and their handler path is their unit name.
+   */
+  public abstract void parseInputFiles(
+      Collection<InputFile> files, Parser.Handler handler, SourceVersion sourceVersion);
+
   /**
    * Parses source without performing any type or element attribution.
    * A front-end specific compilation unit is returned via a ParseResult
@@ -200,8 +207,8 @@ public abstract class Parser implements Closeable {
   }
 
   /**
-   * The ProcessingResult returns the generated source list and directory
-   * from annotation processing.
+   * The ProcessingResult returns the generated source list from annotation
+   * processing.
    *
    * TODO(tball): remove when pipeline has integrated annotation processing.
    */
@@ -211,10 +218,5 @@ public abstract class Parser implements Closeable {
      * Returns the list of source files generated by annotation processing.
      */
     List<ProcessingContext> getGeneratedSources();
-
-    /**
-     * Returns the root directory where source files were generated.
-     */
-    File getSourceOutputDirectory();
   }
 }
@@ -15,7 +15,10 @@
 package com.google.devtools.j2objc.util;
 
 import com.google.common.collect.Lists;
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.Options.TimingLevel;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeVisitor;
 import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.List;
@@ -28,9 +31,15 @@ import java.util.List;
  */
 public class TimeTracker {
 
-  public static TimeTracker getTicker(String name, TimingLevel timingLevel) {
-    if (timingLevel == TimingLevel.ALL) {
-      return TimeTracker.start(name);
+  /**
+   * Returns a ticker that prints its results when all timings are requested,
+   * and records them when a timing info file is specified.
+   */
+  public static TimeTracker getTicker(String name, Options options) {
+    TraceRecorder recorder = options.traceRecorder();
+    boolean print = options.timingLevel() == TimingLevel.ALL;
+    if (print || recorder != null) {
+      return new TimeTrackerImpl(name, print, recorder);
     } else {
       return TimeTracker.noop();
     }
@@ -41,12 +50,27 @@ public class TimeTracker {
   }
 
   public static TimeTracker start(String name) {
-    return new TimeTrackerImpl(name);
+    return new TimeTrackerImpl(name, true, null);
   }
 
   public void tick(String event) {
   }
 
+  /**
+   * Ends an event, recording the size of the specified tree with it when a
+   * timing info file is written.
+   */
+  public void tick(String event, TreeNode tree) {
+    tick(event);
+  }
+
+  /**
+   * Records a count for the operation, such as the number of times a
+   * translation pass applied.
+   */
+  public void count(String name, long value) {
+  }
+
   public void push() {
   }
 
@@ -71,27 +95,73 @@ public class TimeTracker {
       return indents;
     }
 
+    private final String name;
+    private final boolean print;
+    private final TraceRecorder recorder;
     long[] lastTicks = new long[16];
+    // The thread and its allocated bytes at each level's last tick. Allocations
+    // are only reported for events that start and end on the same thread.
+    Thread[] lastThreads = new Thread[16];
+    long[] lastAllocations = new long[16];
     int currentLevel = 0;
     List<String> entries = Lists.newArrayList();
 
-    private TimeTrackerImpl(String name) {
+    private TimeTrackerImpl(String name, boolean print, TraceRecorder recorder) {
+      this.name = name;
+      this.print = print;
+      this.recorder = recorder;
       entries.add("Timings for " + name);
-      lastTicks[currentLevel] = System.currentTimeMillis();
+      mark(currentLevel);
+    }
+
+    private void mark(int level) {
+      lastTicks[level] = System.nanoTime();
+      if (recorder != null) {
+        lastThreads[level] = Thread.currentThread();
+        lastAllocations[level] = TraceRecorder.currentThreadAllocatedBytes();
+      }
     }
 
     @Override
     public void tick(String event) {
-      long now = System.currentTimeMillis();
-      long time = now - lastTicks[currentLevel];
-      lastTicks[currentLevel] = now;
-      entries.add(String.format("%s%5d ms - %s", INDENTS[currentLevel], time, event));
+      tick(event, null);
+    }
+
+    @Override
+    public void tick(String event, TreeNode tree) {
+      long now = System.nanoTime();
+      long time = (now - lastTicks[currentLevel]) / 1000000;
+      if (print) {
+        entries.add(String.format("%s%5d ms - %s", INDENTS[currentLevel], time, event));
+      }
+      if (recorder != null) {
+        Thread thread = Thread.currentThread();
+        long allocated = -1;
+        if (thread == lastThreads[currentLevel] && lastAllocations[currentLevel] >= 0) {
+          allocated = TraceRecorder.currentThreadAllocatedBytes() - lastAllocations[currentLevel];
+        }
+        int nodeCount = tree != null ? countNodes(tree) : -1;
+        recorder.addEvent(event, name, lastTicks[currentLevel], now, thread.getId(), allocated,
+            nodeCount);
+      }
+      // Restart after recording, so counting nodes isn't charged to the next event.
+      mark(currentLevel);
+    }
+
+    @Override
+    public void count(String name, long value) {
+      if (print) {
+        entries.add(String.format("%s%5d    - %s", INDENTS[currentLevel], value, name));
+      }
+      if (recorder != null) {
+        recorder.addCounter(name, this.name, System.nanoTime(), value);
+      }
     }
 
     @Override
     public void push() {
       currentLevel++;
-      lastTicks[currentLevel] = System.currentTimeMillis();
+      mark(currentLevel);
     }
 
     @Override
@@ -101,9 +171,27 @@ public class TimeTracker {
 
     @Override
     public void printResults(PrintStream out) {
-      for (String entry : entries) {
-        out.println(entry);
+      if (!print) {
+        return;
+      }
+      // Keep each tracker's entries together when output files are written in parallel.
+      synchronized (out) {
+        for (String entry : entries) {
+          out.println(entry);
+        }
       }
     }
+
+    private static int countNodes(TreeNode tree) {
+      int[] count = { 0 };
+      tree.accept(new TreeVisitor() {
+        @Override
+        public boolean preVisit(TreeNode node) {
+          count[0]++;
+          return true;
+        }
+      });
+      return count[0];
+    }
   }
 }
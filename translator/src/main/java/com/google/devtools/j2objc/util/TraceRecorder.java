@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the timing events of {@link TimeTracker}s and writes them as a
+ * Chrome trace event file, enabled by the --timing-info-file flag. The file
+ * can be loaded by chrome://tracing or Perfetto, or read by scripts.
+ * <p/>
+ * Each event has its unit name, the bytes allocated by its thread and, for
+ * tree mutations, the number of AST nodes in the unit when it finished.
+ */
+public class TraceRecorder {
+
+  private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+  private static final boolean ALLOCATION_SUPPORTED = isAllocationSupported();
+
+  private final File outputFile;
+  private final long startNanos = System.nanoTime();
+  private final List<String> events = new ArrayList<>();
+
+  public TraceRecorder(File outputFile) {
+    this.outputFile = outputFile;
+  }
+
+  /**
+   * Records a completed event.
+   *
+   * @param allocatedBytes bytes allocated by the thread during the event, or -1 if unknown
+   * @param nodeCount AST nodes in the unit after the event, or -1 if unknown
+   */
+  public void addEvent(String name, String unitName, long startNanos, long endNanos,
+      long threadId, long allocatedBytes, int nodeCount) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\"name\":");
+    appendString(sb, name);
+    sb.append(",\"cat\":\"j2objc\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(threadId);
+    sb.append(",\"ts\":").append((startNanos - this.startNanos) / 1000);
+    sb.append(",\"dur\":").append((endNanos - startNanos) / 1000);
+    sb.append(",\"args\":{\"unit\":");
+    appendString(sb, unitName);
+    if (allocatedBytes >= 0) {
+      sb.append(",\"allocatedBytes\":").append(allocatedBytes);
+    }
+    if (nodeCount >= 0) {
+      sb.append(",\"astNodes\":").append(nodeCount);
+    }
+    sb.append("}}");
+    synchronized (events) {
+      events.add(sb.toString());
+    }
+  }
+
+  /**
+   * Records a counter value of a unit, shown as a separate counter track for
+   * each unit.
+   */
+  public void addCounter(String name, String unitName, long nanos, long value) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\"name\":");
+    appendString(sb, name);
+    sb.append(",\"cat\":\"j2objc\",\"ph\":\"C\",\"pid\":1,\"id\":");
+    appendString(sb, unitName);
+    sb.append(",\"ts\":").append((nanos - this.startNanos) / 1000);
+    sb.append(",\"args\":{\"value\":").append(value).append("}}");
+    synchronized (events) {
+      events.add(sb.toString());
+    }
+  }
+
+  /**
+   * Writes the recorded events to the output file.
+   */
+  public void write() throws IOException {
+    Files.createParentDirs(outputFile);
+    try (Writer out = Files.newWriter(outputFile, StandardCharsets.UTF_8)) {
+      out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+      synchronized (events) {
+        for (int i = 0; i < events.size(); i++) {
+          out.write(events.get(i));
+          out.write(i + 1 < events.size() ? ",\n" : "\n");
+        }
+      }
+      out.write("]}\n");
+    }
+  }
+
+  /**
+   * Returns the total bytes allocated by the current thread, or -1 if the JVM
+   * doesn't support allocation measurement.
+   */
+  public static long currentThreadAllocatedBytes() {
+    if (!ALLOCATION_SUPPORTED) {
+      return -1;
+    }
+    return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(
+        Thread.currentThread().getId());
+  }
+
+  private static boolean isAllocationSupported() {
+    try {
+      if (threadBean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+        if (bean.isThreadAllocatedMemorySupported()) {
+          bean.setThreadAllocatedMemoryEnabled(true);
+          return true;
+        }
+      }
+    } catch (UnsupportedOperationException | LinkageError e) {
+      // Fall-through.
+    }
+    return false;
+  }
+
+  private static void appendString(StringBuilder sb, String s) {
+    sb.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    sb.append('"');
+  }
+}
@@ -121,10 +121,12 @@ public final class TranslationUtil {
     if (ElementUtil.isLambda(type)) {
       return false;
     }
-    if (isJUnitTestClass(type) || ElementUtil.isRuntimeAnnotation(type)) {
+    PackageElement packageElement = ElementUtil.getPackage(type);
+    if (isJUnitTestClass(type) || ElementUtil.isRuntimeAnnotation(type)
+        || options.isReflectionClass(ElementUtil.getQualifiedName(type),
+            packageElement.getQualifiedName().toString())) {
       return true;
     }
-    PackageElement packageElement = ElementUtil.getPackage(type);
     ReflectionSupport.Level level = null;
     while (type != null) {
       level = getReflectionSupportLevel(ElementUtil.getAnnotation(type, ReflectionSupport.class));
@@ -14,12 +14,18 @@
 
 package com.google.devtools.j2objc;
 
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.pipeline.GenerationBatch;
+import com.google.devtools.j2objc.pipeline.ProcessingContext;
+import com.google.devtools.j2objc.pipeline.TranslationCache;
 import com.google.devtools.j2objc.util.FileUtil;
 import com.google.devtools.j2objc.util.HeaderMap;
 import com.google.devtools.j2objc.util.SourceVersion;
+import com.google.devtools.j2objc.util.TraceRecorder;
 import com.google.devtools.j2objc.util.Version;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -115,6 +121,8 @@ public class J2ObjCTest extends GenerationTest {
   public void testCompilingFromJar() throws Exception {
     J2ObjC.run(Collections.singletonList(jarPath), options);
     makeAssertionsForJar();
+    // Jar sources are parsed in memory, without extracting them.
+    assertTrue(options.fileUtil().getTempDirs().isEmpty());
   }
 
   // Make assertions for java files with default output locations.
@@ -247,6 +255,26 @@ public class J2ObjCTest extends GenerationTest {
     assertServiceAnnotationProcessorOutput();
   }
 
+  // Test that generated sources, which are kept in memory, are translated and
+  // can be resolved by a source in a later batch.
+  public void testAnnotationProcessingGeneratedSourceInLaterBatch() throws Exception {
+    String processorPath = getResourceAsFile("annotations/Processor.jar");
+    options.getProcessorPathEntries().add(processorPath);
+    options.setBatchMaxFiles(1);
+
+    String examplePath = addSourceFile(EXAMPLE_JAVA_SOURCE, "annotations/Example.java");
+    String userPath = addSourceFile(
+        "class User { String result() { return new ProcessingResult().getResult(); } }",
+        "User.java");
+    J2ObjC.run(Arrays.asList(examplePath, userPath), options);
+    assertErrorCount(0);
+
+    assertServiceAnnotationProcessorOutput();
+    String translation = getTranslatedFile("User.m");
+    assertTranslation(translation, "#include \"ProcessingResult.h\"");
+    assertTranslation(translation, "[create_ProcessingResult_init() getResult]");
+  }
+
   // Test a specified annotation processor.
   public void testSpecifiedAnnotationProcessing() throws Exception {
     String processorPath = getResourceAsFile("annotations/ExplicitProcessor.jar");
@@ -382,4 +410,114 @@ public class J2ObjCTest extends GenerationTest {
     String translation = getTranslatedFile("com/google/test/packageInfoLookupTest/A.m");
     assertTranslation(translation, "__metadata");
   }
+
+  public void testTranslationCache() throws Exception {
+    File cacheDir = FileUtil.createTempDir("testcache");
+    options.setCacheDirectory(cacheDir);
+    String testPath = addSourceFile(
+        "package foo; class Test { Dep d; int foo() { return d.bar(); } }", "foo/Test.java");
+    addSourceFile("package foo; class Dep { int bar() { return 1; } }", "foo/Dep.java");
+    J2ObjC.run(Collections.singletonList(testPath), options);
+    assertErrorCount(0);
+    String translation = getTranslatedFile("foo/Test.m");
+
+    // Outputs of unchanged sources are restored without translating them.
+    removeFile("foo/Test.h");
+    removeFile("foo/Test.m");
+    assertEquals(0, restoreFromCache(testPath).size());
+    assertEquals(translation, getTranslatedFile("foo/Test.m"));
+
+    // A changed dependency invalidates the entry.
+    addSourceFile("package foo; class Dep { int bar() { return 2; } }", "foo/Dep.java");
+    assertEquals(1, restoreFromCache(testPath).size());
+
+    // As does a changed source.
+    J2ObjC.run(Collections.singletonList(testPath), options);
+    assertEquals(0, restoreFromCache(testPath).size());
+    addSourceFile("package foo; class Test { Dep d; }", "foo/Test.java");
+    assertEquals(1, restoreFromCache(testPath).size());
+  }
+
+  public void testTranslationCacheIndirectDependencies() throws Exception {
+    File cacheDir = FileUtil.createTempDir("testcache");
+    options.setCacheDirectory(cacheDir);
+    String testPath = addSourceFile(
+        "package foo; class Test extends Base { int foo() { return Consts.A; } }",
+        "foo/Test.java");
+    addSourceFile("package foo; class Base extends Root {}", "foo/Base.java");
+    addSourceFile("package foo; class Root { void bar() {} }", "foo/Root.java");
+    addSourceFile("package foo; class Consts { static final int A = Values.B; }",
+        "foo/Consts.java");
+    addSourceFile("package foo; class Values { static final int B = 1; }", "foo/Values.java");
+    J2ObjC.run(Collections.singletonList(testPath), options);
+    assertErrorCount(0);
+    assertEquals(0, restoreFromCache(testPath).size());
+
+    // An indirect supertype invalidates the entry.
+    addSourceFile("package foo; class Root { void baz() {} }", "foo/Root.java");
+    assertEquals(1, restoreFromCache(testPath).size());
+
+    // As does the source of an inlined constant's value.
+    J2ObjC.run(Collections.singletonList(testPath), options);
+    assertEquals(0, restoreFromCache(testPath).size());
+    addSourceFile("package foo; class Values { static final int B = 2; }", "foo/Values.java");
+    assertEquals(1, restoreFromCache(testPath).size());
+  }
+
+  public void testTranslationCacheInputsOutsideSourcePath() throws Exception {
+    options.setCacheDirectory(FileUtil.createTempDir("testcache"));
+    File inputDir = FileUtil.createTempDir("testinputs");
+    File testFile = new File(inputDir, "Test.java");
+    File depFile = new File(inputDir, "Dep.java");
+    Files.asCharSink(testFile, StandardCharsets.UTF_8).write(
+        "class Test { Dep d; int foo() { return d.bar(); } }");
+    Files.asCharSink(depFile, StandardCharsets.UTF_8).write(
+        "class Dep { int bar() { return 1; } }");
+    String testPath = testFile.getPath();
+    String depPath = depFile.getPath();
+    J2ObjC.run(Arrays.asList(testPath, depPath), options);
+    assertErrorCount(0);
+    assertEquals(0, restoreFromCache(testPath, depPath).size());
+
+    // Restoring leaves unchanged outputs alone.
+    File output = new File(tempDir, "Test.m");
+    assertTrue(output.setLastModified(1000));
+    assertEquals(0, restoreFromCache(testPath, depPath).size());
+    assertEquals(1000, output.lastModified());
+
+    // Editing the other input invalidates the entry of the input using it.
+    Files.asCharSink(depFile, StandardCharsets.UTF_8).write(
+        "class Dep { int bar() { return 2; } }");
+    assertEquals(2, restoreFromCache(testPath, depPath).size());
+  }
+
+  public void testTranslationCacheDisabledWithOutputHeaderMapping() throws Exception {
+    options.setCacheDirectory(FileUtil.createTempDir("testcache"));
+    assertTrue(TranslationCache.isEnabled(options));
+    options.getHeaderMap().setOutputMappingFile(new File(tempDir, "mappings.j2objc"));
+    assertFalse(TranslationCache.isEnabled(options));
+  }
+
+  public void testTimingInfoFile() throws Exception {
+    File traceFile = new File(tempDir, "trace.json");
+    options.setTraceRecorder(new TraceRecorder(traceFile));
+    String testPath = addSourceFile("class Test { int foo() { return 1; } }", "Test.java");
+    J2ObjC.run(Collections.singletonList(testPath), options);
+    assertErrorCount(0);
+    String trace = Files.asCharSource(traceFile, StandardCharsets.UTF_8).read();
+    assertTrue(trace.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+    assertTrue(trace.contains("\"name\":\"javac parse\""));
+    assertTrue(trace.contains("\"name\":\"NilCheckResolver\""));
+    assertTrue(trace.contains("\"name\":\"Header generation\""));
+    assertTrue(trace.contains("\"name\":\"Implementation generation\""));
+    // The AST size is recorded after each translation pass.
+    assertTrue(trace.matches("(?s).*\\{\"name\":\"NilCheckResolver\"[^}]*\"astNodes\":[0-9]+.*"));
+    assertTrue(trace.matches("(?s).*\\{\"name\":\"Functionizer\"[^}]*\"astNodes\":[0-9]+.*"));
+  }
+
+  private List<ProcessingContext> restoreFromCache(String... paths) {
+    GenerationBatch batch = new GenerationBatch(options);
+    batch.processFileArgs(Arrays.asList(paths));
+    return new TranslationCache(options).restoreOutputs(batch.getInputs());
+  }
 }
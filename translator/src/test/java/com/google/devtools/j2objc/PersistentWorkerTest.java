@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for {@link PersistentWorker}.
+ */
+public class PersistentWorkerTest extends GenerationTest {
+
+  public void testMultipleRequests() throws IOException {
+    String fooPath = addSourceFile("class Foo {}", "Foo.java");
+    String barPath = addSourceFile("class Bar { Foo foo; }", "Bar.java");
+    File outputDir = new File(tempDir, "out");
+    String sourcePath = tempDir.getAbsolutePath();
+
+    ByteArrayOutputStream requests = new ByteArrayOutputStream();
+    writeRequest(requests, 1, "-d", outputDir.getPath(), "-sourcepath", sourcePath, fooPath);
+    writeRequest(requests, 2, "-d", outputDir.getPath(), "-sourcepath", sourcePath, barPath);
+    writeRequest(requests, 3, "-d", outputDir.getPath(), "NoSuchFile.java");
+    ByteArrayOutputStream responses = new ByteArrayOutputStream();
+    new PersistentWorker(Collections.emptyList(),
+        new ByteArrayInputStream(requests.toByteArray()), responses).run();
+
+    ByteArrayInputStream in = new ByteArrayInputStream(responses.toByteArray());
+    // Successful responses have only a request_id field (field 3, varint).
+    assertTrue(Arrays.equals(new byte[] { 0x18, 1 }, PersistentWorker.readDelimitedMessage(in)));
+    assertTrue(Arrays.equals(new byte[] { 0x18, 2 }, PersistentWorker.readDelimitedMessage(in)));
+    byte[] failure = PersistentWorker.readDelimitedMessage(in);
+    assertEquals(0x08, failure[0]);  // exit_code (field 1, varint).
+    assertEquals(1, failure[1]);
+    assertTrue(new String(failure, StandardCharsets.UTF_8).contains("NoSuchFile.java"));
+    assertNull(PersistentWorker.readDelimitedMessage(in));
+
+    assertTrue(new File(outputDir, "Foo.m").exists());
+    assertTrue(new File(outputDir, "Bar.m").exists());
+  }
+
+  public void testUsageErrorDoesNotExit() throws IOException {
+    String fooPath = addSourceFile("class Foo {}", "Foo.java");
+    File outputDir = new File(tempDir, "out");
+
+    ByteArrayOutputStream requests = new ByteArrayOutputStream();
+    writeRequest(requests, 1, "--no-such-flag", fooPath);
+    writeRequest(requests, 2, fooPath);
+    ByteArrayOutputStream responses = new ByteArrayOutputStream();
+    // Startup arguments apply to every request.
+    new PersistentWorker(Arrays.asList("-d", outputDir.getPath()),
+        new ByteArrayInputStream(requests.toByteArray()), responses).run();
+
+    ByteArrayInputStream in = new ByteArrayInputStream(responses.toByteArray());
+    byte[] failure = PersistentWorker.readDelimitedMessage(in);
+    assertEquals(0x08, failure[0]);  // exit_code (field 1, varint).
+    assertEquals(1, failure[1]);
+    assertTrue(new String(failure, StandardCharsets.UTF_8).contains("--no-such-flag"));
+    assertTrue(Arrays.equals(new byte[] { 0x18, 2 }, PersistentWorker.readDelimitedMessage(in)));
+    assertNull(PersistentWorker.readDelimitedMessage(in));
+    assertTrue(new File(outputDir, "Foo.m").exists());
+  }
+
+  public void testGetStartupArgs() {
+    assertNull(PersistentWorker.getStartupArgs(new String[] { "-d", "out", "Test.java" }));
+    assertEquals(Arrays.asList("-d", "out"),
+        PersistentWorker.getStartupArgs(new String[] { "-d", "out", "--persistent_worker" }));
+  }
+
+  public void testParseRequest() throws IOException {
+    ByteArrayOutputStream request = new ByteArrayOutputStream();
+    writeRequest(request, 300, "-d", "out", "Test.java");
+    byte[] message =
+        PersistentWorker.readDelimitedMessage(new ByteArrayInputStream(request.toByteArray()));
+    PersistentWorker.WorkRequest workRequest = PersistentWorker.WorkRequest.parse(message);
+    assertEquals(Arrays.asList("-d", "out", "Test.java"), workRequest.arguments);
+    assertEquals(300, workRequest.requestId);
+  }
+
+  private static void writeRequest(ByteArrayOutputStream out, int requestId, String... args)
+      throws IOException {
+    ByteArrayOutputStream message = new ByteArrayOutputStream();
+    for (String arg : args) {
+      byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+      message.write(0x0a);  // arguments (field 1, length-delimited).
+      PersistentWorker.writeVarint(message, bytes.length);
+      message.write(bytes);
+    }
+    // An inputs entry (field 2), which the worker ignores.
+    message.write(new byte[] { 0x12, 0x00 });
+    message.write(0x18);  // request_id (field 3, varint).
+    PersistentWorker.writeVarint(message, requestId);
+    PersistentWorker.writeVarint(out, message.size());
+    message.writeTo(out);
+  }
+}
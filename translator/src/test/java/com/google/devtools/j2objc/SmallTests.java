@@ -17,9 +17,11 @@
 package com.google.devtools.j2objc;
 
 import com.google.devtools.j2objc.ast.AnnotationTest;
+import com.google.devtools.j2objc.ast.FusedTreeVisitorTest;
 import com.google.devtools.j2objc.ast.InfixExpressionTest;
 import com.google.devtools.j2objc.ast.LambdaExpressionTest;
 import com.google.devtools.j2objc.ast.MethodReferenceTest;
+import com.google.devtools.j2objc.ast.NodeKindIndexTest;
 import com.google.devtools.j2objc.gen.ArrayAccessTest;
 import com.google.devtools.j2objc.gen.ArrayCreationTest;
 import com.google.devtools.j2objc.gen.JavadocGeneratorTest;
@@ -127,6 +129,7 @@ public class SmallTests {
         ExternalAnnotationInjectorTest.class,
         FileUtilTest.class,
         FunctionizerTest.class,
+        FusedTreeVisitorTest.class,
         GwtConverterTest.class,
         HeaderImportCollectorTest.class,
         ImplementationImportCollectorTest.class,
@@ -149,6 +152,7 @@ public class SmallTests {
         MethodReferenceTest.class,
         NameTableTest.class,
         NilCheckResolverTest.class,
+        NodeKindIndexTest.class,
         NumberMethodRewriterTest.class,
         ObjectiveCHeaderGeneratorTest.class,
         ObjectiveCImplementationGeneratorTest.class,
@@ -162,6 +166,7 @@ public class SmallTests {
         PackageInfoLookupTest.class,
         PackageInfoRewriterTest.class,
         PackagePrefixesTest.class,
+        PersistentWorkerTest.class,
         PrimitiveArrayTest.class,
         PrivateDeclarationResolverTest.class,
         ProGuardUsageParserTest.class,
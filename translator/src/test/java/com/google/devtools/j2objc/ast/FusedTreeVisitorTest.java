@@ -0,0 +1,187 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.ast;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.GenerationTest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for {@link FusedTreeVisitor}.
+ */
+public class FusedTreeVisitorTest extends GenerationTest {
+
+  private static final String SOURCE =
+      "import com.google.gwt.core.client.GWT; "
+      + "import java.io.*; "
+      + "class Test implements Serializable { "
+      + "  private static final long serialVersionUID = 1L; "
+      + "  Object instance = GWT.create(Test.class); "
+      + "  private void writeObject(ObjectOutputStream out) throws IOException {} "
+      + "  static class MyNumber extends Number { "
+      + "    public int intValue() { return 0; } "
+      + "    public long longValue() { return 0L; } "
+      + "    public float floatValue() { return 0f; } "
+      + "    public double doubleValue() { return GWT.isClient() ? 1.0 : 0.0; } } "
+      + "  static int sum(int... values) { int n = 0; for (int v : values) { n += v; } return n; } "
+      + "  int test(int[][] grid) { "
+      + "    if (GWT.isScript()) { return -1; } "
+      + "    int total = sum(1, 2, 3); "
+      + "    outer: for (int[] row : grid) { "
+      + "      for (int i : row) { "
+      + "        if (i < 0) { continue outer; } "
+      + "        if (i == 0) { break outer; } "
+      + "        total += sum(i); } } "
+      + "    outer: while (total > 100) { total -= sum(); if (total < 50) { break outer; } } "
+      + "    return total; } }";
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    addSourceFile(
+        "package com.google.gwt.core.client;"
+        + "public class GWT { public static <T> T create(Class<T> classLiteral) { return null; } "
+        + "  public static boolean isClient() { return false; }"
+        + "  public static boolean isScript() { return false; } }",
+        "com/google/gwt/core/client/GWT.java");
+  }
+
+  public void testFusedPassesMatchUnfusedOutput() throws IOException {
+    options.setStripReflection(true);
+    options.setFusePasses(true);
+    String fusedHeader = translateSourceFile(SOURCE, "Test", "Test.h");
+    String fusedSource = getTranslatedFile("Test.m");
+    options.setFusePasses(false);
+    String unfusedHeader = translateSourceFile(SOURCE, "Test", "Test.h");
+    String unfusedSource = getTranslatedFile("Test.m");
+    assertEquals(unfusedHeader, fusedHeader);
+    assertEquals(unfusedSource, fusedSource);
+
+    // Verify each of the fused passes changed the translation.
+    assertNotInTranslation(fusedSource, "isClient");
+    assertNotInTranslation(fusedSource, "isScript");
+    assertNotInTranslation(fusedSource, "writeObject");
+    assertTranslation(fusedSource, "- (jboolean)isEqual:(id)obj");
+    assertTranslation(fusedSource, "goto break_outer;");
+    assertTranslation(fusedSource, "goto break_outer_2;");
+    assertTranslation(fusedSource, "[IOSIntArray arrayWithInts:(jint[]){ 1, 2, 3 } count:3]");
+  }
+
+  public void testPruningIsPerVisitor() throws IOException {
+    CompilationUnit unit = compileType("Test",
+        "class Test { int a = 1; int foo() { return 2; } }");
+    final List<String> events = new ArrayList<>();
+    TreeVisitor pruneMethods = new RecordingVisitor(events) {
+      @Override
+      public boolean visit(MethodDeclaration node) {
+        return false;
+      }
+
+      @Override
+      public boolean visit(NumberLiteral node) {
+        events.add("prune:" + node.getValue());
+        return true;
+      }
+    };
+    TreeVisitor literals = new RecordingVisitor(events) {
+      @Override
+      public boolean visit(NumberLiteral node) {
+        events.add("literals:" + node.getValue());
+        return true;
+      }
+    };
+    unit.accept(new FusedTreeVisitor(pruneMethods, literals));
+    assertEquals(3, events.size());
+    assertEquals("prune:1", events.get(0));
+    assertEquals("literals:1", events.get(1));
+    assertEquals("literals:2", events.get(2));
+  }
+
+  public void testReplacementVisitedByLaterVisitors() throws IOException {
+    CompilationUnit unit = compileType("Test", "class Test { int foo() { return 1; } }");
+    final List<String> events = new ArrayList<>();
+    TreeVisitor replacer = new RecordingVisitor(events) {
+      @Override
+      public boolean visit(NumberLiteral node) {
+        events.add("replacer:" + node.getValue());
+        if (node.getValue().intValue() == 1) {
+          node.replaceWith(new NumberLiteral(2, node.getTypeMirror()));
+        }
+        return true;
+      }
+    };
+    TreeVisitor reader = new RecordingVisitor(events) {
+      @Override
+      public boolean visit(NumberLiteral node) {
+        events.add("reader:" + node.getValue());
+        return true;
+      }
+    };
+    unit.accept(new FusedTreeVisitor(replacer, reader));
+    assertEquals(2, events.size());
+    assertEquals("replacer:1", events.get(0));
+    assertEquals("reader:2", events.get(1));
+  }
+
+  public void testRequiredPassesCantBeFused() {
+    TreeVisitor first = new RecordingVisitor(new ArrayList<String>());
+    TreeVisitor second = new DependentVisitor();
+    try {
+      new FusedTreeVisitor(first, second);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+    new FusedTreeVisitor(second, first);
+  }
+
+  public void testVisitedKindsFoundFromVisitMethods() {
+    FusibleVisitor visitor = new RecordingVisitor(new ArrayList<String>()) {
+      @Override
+      public boolean visit(MethodDeclaration node) {
+        return false;
+      }
+
+      @Override
+      public void endVisit(NumberLiteral node) {}
+
+      @Override
+      public void postVisit(TreeNode node) {}
+    };
+    assertEquals(Sets.immutableEnumSet(
+        TreeNode.Kind.METHOD_DECLARATION, TreeNode.Kind.NUMBER_LITERAL),
+        visitor.getVisitedKinds());
+    assertEquals(ImmutableSet.of(), new DependentVisitor().getVisitedKinds());
+  }
+
+  private static class RecordingVisitor extends TreeVisitor implements FusibleVisitor {
+    protected final List<String> events;
+
+    RecordingVisitor(List<String> events) {
+      this.events = events;
+    }
+  }
+
+  private static class DependentVisitor extends TreeVisitor implements FusibleVisitor {
+    @Override
+    public Set<Class<? extends TreeVisitor>> getRequiredPasses() {
+      return ImmutableSet.<Class<? extends TreeVisitor>>of(RecordingVisitor.class);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.ast;
+
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.pipeline.TranslationProcessor;
+import com.google.devtools.j2objc.util.TimeTracker;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for {@link CompilationUnit#getNodesOfKind} and {@link NodeKindIndex}.
+ */
+public class NodeKindIndexTest extends GenerationTest {
+
+  public void testIndexFindsNodes() throws IOException {
+    CompilationUnit unit = compileType("Test",
+        "class Test { int test(int i) { switch (i) { case 1: return 2; default: return 3; } } }");
+    assertTrue(unit.hasNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT));
+    assertFalse(unit.hasNodesOfKind(TreeNode.Kind.LAMBDA_EXPRESSION));
+    // The test method and the implicit default constructor.
+    assertEquals(2, unit.getNodesOfKind(TreeNode.Kind.METHOD_DECLARATION,
+        MethodDeclaration.class).size());
+    assertEquals(2, unit.getNodesOfKind(TreeNode.Kind.SWITCH_CASE, SwitchCase.class).size());
+  }
+
+  public void testIndexTracksMutations() throws IOException {
+    CompilationUnit unit = compileType("Test",
+        "class Test { int test(int i) { switch (i) { default: return 3; } } }");
+    List<SwitchStatement> switches =
+        unit.getNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT, SwitchStatement.class);
+    assertEquals(1, switches.size());
+    SwitchStatement switchStmt = switches.get(0);
+    int literals = unit.getNodesOfKind(TreeNode.Kind.NUMBER_LITERAL, NumberLiteral.class).size();
+
+    // Replacing a node removes its whole subtree from the index.
+    switchStmt.replaceWith(new EmptyStatement());
+    assertFalse(unit.hasNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT));
+    assertFalse(unit.hasNodesOfKind(TreeNode.Kind.SWITCH_CASE));
+    assertEquals(literals - 1,
+        unit.getNodesOfKind(TreeNode.Kind.NUMBER_LITERAL, NumberLiteral.class).size());
+
+    // Mutating a detached subtree doesn't affect the index.
+    switchStmt.getStatements().add(new EmptyStatement());
+    assertEquals(1, unit.getNodesOfKind(TreeNode.Kind.EMPTY_STATEMENT, EmptyStatement.class)
+        .size());
+
+    // Attaching a subtree adds all its nodes.
+    MethodDeclaration method =
+        unit.getNodesOfKind(TreeNode.Kind.METHOD_DECLARATION, MethodDeclaration.class).get(0);
+    method.getBody().addStatement(switchStmt);
+    assertEquals(1,
+        unit.getNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT, SwitchStatement.class).size());
+    assertEquals(2, unit.getNodesOfKind(TreeNode.Kind.EMPTY_STATEMENT, EmptyStatement.class)
+        .size());
+
+    // Removing from a list updates the index.
+    TreeUtil.remove(switchStmt);
+    assertFalse(unit.hasNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT));
+  }
+
+  public void testCopyHasItsOwnIndex() throws IOException {
+    CompilationUnit unit = compileType("Test",
+        "class Test { void test(int i) { switch (i) { default: } } }");
+    assertTrue(unit.hasNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT));
+    CompilationUnit copy = unit.copy();
+    SwitchStatement copiedSwitch =
+        copy.getNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT, SwitchStatement.class).get(0);
+    copiedSwitch.remove();
+    assertFalse(copy.hasNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT));
+    assertTrue(unit.hasNodesOfKind(TreeNode.Kind.SWITCH_STATEMENT));
+  }
+
+  public void testOnlyQueriedKindsAreIndexed() throws IOException {
+    CompilationUnit unit = compileType("Test",
+        "class Test { int test(int i) { switch (i) { default: return 3; } } }");
+    NodeKindIndex index = new NodeKindIndex(unit);
+    assertTrue(index.contains(TreeNode.Kind.SWITCH_STATEMENT));
+    assertFalse(index.contains(TreeNode.Kind.NUMBER_LITERAL));
+    try {
+      index.get(TreeNode.Kind.NUMBER_LITERAL);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+    // Kinds that aren't indexed are still found.
+    assertTrue(unit.hasNodesOfKind(TreeNode.Kind.NUMBER_LITERAL));
+    assertEquals(1, unit.getNodesOfKind(TreeNode.Kind.NUMBER_LITERAL, NumberLiteral.class).size());
+  }
+
+  public void testIndexMatchesTreeAfterMutations() throws IOException {
+    CompilationUnit unit = compileType("Test",
+        "import java.util.*; class Test { "
+        + "  List<Integer> list = new ArrayList<>(); "
+        + "  int test(int i, String... args) { "
+        + "    outer: for (Integer n : list) { "
+        + "      switch (n) { case 1: continue outer; default: i += n; } } "
+        + "    Runnable r = () -> list.add(args.length > 0 ? 1 : 2); "
+        + "    Object o = new Object() { public String toString() { return args[0]; } }; "
+        + "    return i + String.format(\"%s\", o).length(); } }");
+    assertTrue(unit.hasNodesOfKind(TreeNode.Kind.LABELED_STATEMENT));
+    TranslationProcessor.applyMutations(
+        unit, null, options.externalAnnotations(), TimeTracker.noop());
+
+    Map<TreeNode.Kind, Set<TreeNode>> expected = new EnumMap<>(TreeNode.Kind.class);
+    unit.accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        expected.computeIfAbsent(node.getKind(), k -> Sets.newIdentityHashSet()).add(node);
+        return true;
+      }
+    });
+    for (TreeNode.Kind kind : TreeNode.Kind.values()) {
+      Set<TreeNode> nodes = Sets.newIdentityHashSet();
+      nodes.addAll(unit.getNodesOfKind(kind, TreeNode.class));
+      Set<TreeNode> expectedNodes = expected.getOrDefault(kind, Collections.emptySet());
+      assertEquals(kind.toString(), expectedNodes, nodes);
+      assertEquals(kind.toString(), !expectedNodes.isEmpty(), unit.hasNodesOfKind(kind));
+    }
+  }
+}
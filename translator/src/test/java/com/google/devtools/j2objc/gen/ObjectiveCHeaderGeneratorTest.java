@@ -16,10 +16,13 @@
 
 package com.google.devtools.j2objc.gen;
 
+import com.google.common.io.Files;
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.util.HeaderMap;
+import com.google.devtools.j2objc.util.IncludeReport;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Tests for {@link ObjectiveCHeaderGenerator}.
@@ -877,6 +880,38 @@ public class ObjectiveCHeaderGeneratorTest extends GenerationTest {
     assertTranslatedLines(impl, "+ (void)f {", "Foo_f();", "}");
   }
 
+  public void testMinimizeHeaderIncludes() throws IOException {
+    String source = "import java.util.*; "
+        + "public class Test extends AbstractList<String> implements List<String>, RandomAccess { "
+        + "  public String get(int i) { return null; } public int size() { return 0; } }";
+    String translation = translateSourceFile(source, "Test", "Test.h");
+    assertTranslation(translation, "#include \"java/util/List.h\"");
+
+    options.setMinimizeHeaderIncludes(true);
+    translation = translateSourceFile(source, "Test", "Test.h");
+    assertTranslation(translation, "#include \"java/util/AbstractList.h\"");
+    assertTranslation(translation, "#include \"java/util/RandomAccess.h\"");
+    // AbstractList.h already includes List.h.
+    assertNotInTranslation(translation, "#include \"java/util/List.h\"");
+  }
+
+  public void testIncludeReport() throws IOException {
+    File reportFile = new File(tempDir, "includes.tsv");
+    IncludeReport report = new IncludeReport(reportFile);
+    options.setIncludeReport(report);
+    translateSourceFile(
+        "public class Test extends java.util.AbstractList<String> { "
+        + "  public String get(int i) { return null; } public int size() { return 0; } }",
+        "Test", "Test.h");
+    report.write();
+    String contents = Files.asCharSource(reportFile, StandardCharsets.UTF_8).read();
+    assertTranslation(contents, "# header\tdirect\ttransitive\n");
+    // AbstractList.h also includes AbstractCollection.h, Collection.h, List.h...
+    String line = contents.substring(contents.indexOf("Test.h\t1\t"));
+    assertTrue(Integer.parseInt(line.substring(9, line.indexOf('\n'))) > 3);
+    assertTranslation(contents, "# total\t1\t");
+  }
+
   // Verifies that properly encoded Kythe metadata and associated pragmas are generated when
   // using the Kythe mapping flag.
   public void testKytheMetadataMappings() throws IOException {
@@ -392,7 +392,7 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
     assertFalse(impl.contains("\n  return NO;\n  [super initWithTest_TypeEnum:arg$0]}"));
     assertTranslation(impl,
         "Test_Field_1_initWithTest_Type_withNSString_withInt_("
-        + "e, JreLoadEnum(Test_Type, STRING), @\"STRING\", 2);");
+        + "e, JreEnum(Test_Type, STRING), @\"STRING\", 2);");
   }
 
   public void testAutoreleasePoolMethod() throws IOException {
@@ -214,7 +214,7 @@ public class StatementGeneratorTest extends GenerationTest {
     assertTranslation(translation,
         "JreStrongAssign(&self->b1_, JreLoadStatic(JavaLangBoolean, TRUE))");
     assertTranslation(translation,
-        "JreStrongAssign(&self->b2_, JreLoadStatic(JavaLangBoolean, FALSE))");
+        "JreStrongAssign(&self->b2_, JavaLangBoolean_FALSE)");
   }
 
   public void testStringConcatenation() throws IOException {
@@ -1007,15 +1007,15 @@ public class StatementGeneratorTest extends GenerationTest {
     assertTranslation(translation, "Test_Inner_initWithTest_(self, outer$);");
   }
 
-  // Verify that an external string can be used in string concatenation,
-  // for a parameter to a translated method.
+  // Verify that an external string constant is folded into a string
+  // concatenation, for a parameter to a translated method.
   public void testConcatPublicStaticString() throws IOException {
     String translation = translateSourceFile(
         "class B { public static final String separator = \"/\"; } "
         + "public class A { String prefix(Object o) { return new String(o + B.separator); }}",
         "A", "A.m");
     assertTranslation(translation,
-        "[NSString stringWithString:JreStrcat(\"@$\", o, B_separator)]");
+        "[NSString stringWithString:JreStrcat2(o, @\"/\")]");
   }
 
   public void testStringConcatWithBoolean() throws IOException {
@@ -1315,7 +1315,7 @@ public class StatementGeneratorTest extends GenerationTest {
         "public class Test { String test(String s) { return \"the nil value is \" + null; }}",
         "Test", "Test.m");
     assertTranslation(translation,
-        "return JreStrcat(\"$@\", @\"the nil value is \", nil);");
+        "return JreStrcat2(@\"the nil value is \", nil);");
   }
 
   public void testTypeVariableWithBoundsIsCast() throws IOException {
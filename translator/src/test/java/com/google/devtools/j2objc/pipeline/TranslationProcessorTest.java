@@ -17,8 +17,13 @@ package com.google.devtools.j2objc.pipeline;
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.J2ObjC;
 import com.google.devtools.j2objc.file.RegularInputFile;
+import com.google.devtools.j2objc.gen.ModuleMapGenerator;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Tests for {@link TranslationProcessor}.
@@ -88,4 +93,119 @@ public class TranslationProcessorTest extends GenerationTest {
     // Verify A.java wasn't compiled; it has a B reference, but B doesn't depend on it.
     assertFalse(new File(tempDir, "A.m").exists());
   }
+
+  public void testModuleMap() throws IOException {
+    addSourceFile("class A extends B { C c; }", "A.java");
+    addSourceFile("class B implements I {}", "B.java");
+    addSourceFile("class C {}", "C.java");
+    addSourceFile("interface I {}", "I.java");
+    options.setBuildClosure(true);
+    options.setModuleMapGenerator(new ModuleMapGenerator("Test"));
+
+    GenerationBatch batch = new GenerationBatch(options);
+    batch.addSource(new RegularInputFile(getTempDir() + "/A.java", "A.java"));
+    TranslationProcessor processor = new TranslationProcessor(J2ObjC.createParser(options), null);
+    processor.processInputs(batch.getInputs());
+    processor.postProcess();
+    assertErrorCount(0);
+
+    String moduleMap = getTranslatedFile("module.modulemap");
+    assertTranslatedLines(moduleMap,
+        "module Test {", "umbrella header \"Test-umbrella.h\"", "export *", "}");
+
+    // Each header included by the umbrella header must exist, and come after
+    // the generated headers it includes.
+    String umbrella = getTranslatedFile("Test-umbrella.h");
+    List<String> headers = getIncludes(umbrella);
+    assertEquals("J2ObjC_header.h", headers.get(0));
+    headers = headers.subList(1, headers.size());
+    assertEquals(4, headers.size());
+    for (int i = 0; i < headers.size(); i++) {
+      String header = headers.get(i);
+      assertTrue(header, new File(tempDir, header).exists());
+      for (String include : getIncludes(getTranslatedFile(header))) {
+        int j = headers.indexOf(include);
+        assertTrue(header + " includes " + include, j < i);
+      }
+    }
+    assertTrue(headers.indexOf("I.h") < headers.indexOf("B.h"));
+    assertTrue(headers.indexOf("B.h") < headers.indexOf("A.h"));
+  }
+
+  private static List<String> getIncludes(String source) {
+    List<String> includes = new ArrayList<>();
+    Matcher m = Pattern.compile("#include \"([^\"]+)\"").matcher(source);
+    while (m.find()) {
+      includes.add(m.group(1));
+    }
+    return includes;
+  }
+
+  public void testParallelTranslationMatchesSerial() throws IOException {
+    addSourceFile("class A { B b = new B(); int foo() { return b.bar(); } }", "A.java");
+    addSourceFile("class B { int bar() { return 42; } Runnable r = () -> {}; }", "B.java");
+    addSourceFile("class C extends A { String s = \"c\" + foo(); }", "C.java");
+    String[] outputs = { "A.h", "A.m", "B.h", "B.m", "C.h", "C.m" };
+
+    translateFiles("A.java", "B.java", "C.java");
+    String[] serial = new String[outputs.length];
+    for (int i = 0; i < outputs.length; i++) {
+      serial[i] = getTranslatedFile(outputs[i]);
+    }
+
+    options.setNumThreads(4);
+    translateFiles("A.java", "B.java", "C.java");
+    for (int i = 0; i < outputs.length; i++) {
+      assertEquals(serial[i], getTranslatedFile(outputs[i]));
+    }
+    assertErrorCount(0);
+  }
+
+  public void testChunkedBatchMatchesSingleBatch() throws IOException {
+    addSourceFile("class A { B b = new B(); int foo() { return b.bar(); } }", "A.java");
+    addSourceFile("class B { int bar() { return 42; } }", "B.java");
+    addSourceFile("class C extends A { String s = \"c\" + foo(); }", "C.java");
+    String[] outputs = { "A.h", "A.m", "B.h", "B.m", "C.h", "C.m" };
+
+    translateFiles("A.java", "B.java", "C.java");
+    String[] single = new String[outputs.length];
+    for (int i = 0; i < outputs.length; i++) {
+      single[i] = getTranslatedFile(outputs[i]);
+    }
+
+    // Types in other chunks are resolved from the sourcepath.
+    options.setBatchMaxFiles(1);
+    translateFiles("A.java", "B.java", "C.java");
+    for (int i = 0; i < outputs.length; i++) {
+      assertEquals(single[i], getTranslatedFile(outputs[i]));
+    }
+    assertErrorCount(0);
+  }
+
+  public void testUnchangedOutputFilesNotWritten() throws IOException {
+    addSourceFile("class A { int foo() { return 1; } }", "A.java");
+    translateFiles("A.java");
+    File header = new File(tempDir, "A.h");
+    File impl = new File(tempDir, "A.m");
+    long oldTime = header.lastModified() - 10000;
+    assertTrue(header.setLastModified(oldTime));
+    assertTrue(impl.setLastModified(oldTime));
+
+    // Only the implementation changes.
+    addSourceFile("class A { int foo() { return 2; } }", "A.java");
+    translateFiles("A.java");
+    assertEquals(oldTime, header.lastModified());
+    assertTrue(impl.lastModified() > oldTime);
+    assertTranslation(getTranslatedFile("A.m"), "return 2;");
+    assertErrorCount(0);
+  }
+
+  private void translateFiles(String... fileNames) {
+    GenerationBatch batch = new GenerationBatch(options);
+    for (String fileName : fileNames) {
+      batch.addSource(new RegularInputFile(getTempDir() + "/" + fileName, fileName));
+    }
+    TranslationProcessor processor = new TranslationProcessor(J2ObjC.createParser(options), null);
+    processor.processInputs(batch.getInputs());
+  }
 }
@@ -54,4 +54,29 @@ public class ArrayRewriterTest extends GenerationTest {
     assertEquals("++((*IOSIntArray_GetRef(x, 0)));", generateStatement(stmts.get(5)));
     assertEquals("((*IOSIntArray_GetRef(x, 0)))++;", generateStatement(stmts.get(6)));
   }
+
+  public void testUncheckedAccessInCountedLoop() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int sum(int[] a) { int sum = 0; "
+        + "for (int i = 0; i < a.length; i++) { sum += a[i]; a[i] = 0; } return sum; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "sum += IOSIntArray_GetUnchecked(a, i);");
+    assertTranslation(translation, "*IOSIntArray_GetRefUnchecked(a, i) = 0;");
+    assertNotInTranslation(translation, "IOSIntArray_Get(");
+  }
+
+  public void testCheckedAccessInOtherLoops() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int[] f; int test(int[] a, int[] b, Object[] o) { int sum = 0; "
+        + "for (int i = 0; i <= a.length; i++) { sum += a[i]; } "
+        + "for (int i = -1; i < a.length; i++) { sum += a[i]; } "
+        + "for (int i = 0; i < a.length; i++) { sum += b[i]; } "
+        + "for (int i = 0; i < a.length; i++) { a = b; sum += a[i]; } "
+        + "for (int i = 0; i < a.length; i++) { sum += a[i++]; } "
+        + "for (int i = 0; i < f.length; i++) { sum += f[i]; } "
+        + "for (int i = 0; i < o.length; i++) { sum += o[i].hashCode(); } "
+        + "return sum; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "Unchecked");
+  }
 }
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link BoxingOptimizer}.
+ */
+public class BoxingOptimizerTest extends GenerationTest {
+
+  public void testBoxThenUnbox() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(int i, int j) { return Integer.valueOf(i).intValue() * 2; } "
+        + " long test2(int i, int j) { return 2 * Integer.valueOf(i + j).longValue(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return i * 2;");
+    assertTranslation(translation, "return 2 * ((jlong) (i + j));");
+    assertNotInTranslation(translation, "valueOf");
+  }
+
+  public void testReusedBox() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.Map; class Test { "
+        + " void test(Map<Integer, Integer> m, int i) { m.put(i, m.get(i) + 1); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "JavaLangInteger *box$1 = JavaLangInteger_valueOfWithInt_(i);");
+    assertTranslation(translation, "putWithId:box$1 withId:");
+    assertTranslation(translation, "getWithId:box$1]");
+    assertOccurrences(translation, "JavaLangInteger_valueOfWithInt_(i)", 1);
+  }
+
+  public void testModifiedVariableNotReused() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.Map; class Test { "
+        + " void test(Map<Integer, Integer> m, int i) { m.put(i, m.get(i++)); } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "box$");
+  }
+}
@@ -103,4 +103,61 @@ public class EnhancedForRewriterTest extends GenerationTest {
         "  break_testLabel2: ;",
         "}");
   }
+
+  public void testIndexedListLoop() throws IOException {
+    options.setIndexedListLoops(true);
+    String translation = translateSourceFile(
+        "import java.util.*;"
+        + "class Test { int test(ArrayList<String> strings, List<String> list, "
+        + "ArrayList<Integer> ints) { int n = 0; "
+        + "for (String s : strings) { n += s.length(); } "
+        + "for (String s : list) { n += s.length(); } "
+        + "for (int i : ints) { n += i; } return n; } }",
+        "Test", "Test.m");
+    // Subclasses of ArrayList use their iterator, picked by a runtime check.
+    assertTranslatedLines(translation,
+        "JavaUtilArrayList *list__ = JreRetainedLocalValue(strings);",
+        "jint modCount__ = ((JavaUtilArrayList *) nil_chk(list__))->modCount_;",
+        "jboolean indexed__ = [list__ class] == [JavaUtilArrayList class];",
+        "id<JavaUtilIterator> iter__ = indexed__ ? nil : [list__ iterator];",
+        "jint size__ = indexed__ ? [list__ size] : 0;",
+        "for (jint i__ = 0; indexed__ ? i__ < size__ : [iter__ hasNext]; i__++) {",
+        "  NSString *s;",
+        "  if (indexed__) {",
+        "    if (list__->modCount_ != modCount__) "
+            + "@throw create_JavaUtilConcurrentModificationException_init();",
+        "    s = [list__ getWithInt:i__];",
+        "  }",
+        "  else {",
+        "    s = [iter__ next];",
+        "  }",
+        "  n += [((NSString *) nil_chk(s)) java_length];",
+        "}");
+    assertTranslatedLines(translation,
+        "JavaLangInteger *boxed__;",
+        "if (indexed__) {");
+    assertTranslation(translation, "jint i = [((JavaLangInteger *) nil_chk(");
+    // Other lists still use fast enumeration.
+    assertTranslation(translation, "for (NSString * __strong s in nil_chk(list)) {");
+  }
+
+  public void testNestedIndexedListLoops() throws IOException {
+    options.setIndexedListLoops(true);
+    String translation = translateSourceFile(
+        "import java.util.*;"
+        + "class Test { int test(ArrayList<ArrayList<String>> lists, List<Runnable> tasks) { "
+        + "int n = 0; "
+        + "outer: for (ArrayList<String> strings : lists) { for (String s : strings) { "
+        + "if (s == null) continue outer; n += s.length(); tasks.add(() -> s.length()); } } "
+        + "return n; } }",
+        "Test", "Test.m");
+    // Each loop body is translated once.
+    assertOccurrences(translation, "n += [s java_length];", 1);
+    // The outer loop's variables don't shadow the inner loop's.
+    assertTranslation(translation, "JavaUtilArrayList *list2__ = JreRetainedLocalValue(lists);");
+    assertTranslation(translation, "strings = [list2__ getWithInt:i2__];");
+    assertTranslation(translation, "JavaUtilArrayList *list__ = JreRetainedLocalValue(strings);");
+    assertTranslation(translation, "s = [list__ getWithInt:i__];");
+    assertTranslation(translation, "continue_outer: ;");
+  }
 }
@@ -116,6 +116,20 @@ public class EnumRewriterTest extends GenerationTest {
         "}");
   }
 
+  // An enum on the reflection list gets its names from its metadata.
+  public void testSimpleEnumReflectionClass() throws Exception {
+    options.addReflectionClass("Test");
+    String translation = translateSourceFile(
+        "enum Test { A, B, C }", "Test", "Test.m");
+    assertNotInTranslation(translation, "id names[] = {");
+    assertTranslation(translation,
+        "Test_initWithNSString_withInt_(e, JreEnumConstantName(Test_class_(), i), i);");
+    translation = translateSourceFile(
+        "enum Other { A, B, C }", "Other", "Other.m");
+    assertTranslation(translation, "id names[] = {");
+    assertTranslation(translation, "Other_initWithNSString_withInt_(e, names[i], i);");
+  }
+
   public void testStrippedEnumName() throws Exception {
     options.setStripEnumConstants(true);
     String translation = translateSourceFile(
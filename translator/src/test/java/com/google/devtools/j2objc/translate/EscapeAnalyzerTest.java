@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options.MemoryManagementOption;
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link EscapeAnalyzer}.
+ */
+public class EscapeAnalyzerTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    options.setEscapeAnalysis(true);
+  }
+
+  public void testNonEscapingStringBuilder() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { String test(int i) { "
+        + "StringBuilder sb = new StringBuilder(); sb.append(i).append(' '); "
+        + "return sb.toString(); } }",
+        "Test", "Test.m");
+    // The builder is released even if an exception is thrown.
+    assertTranslatedLines(translation,
+        "JavaLangStringBuilder *sb = new_JavaLangStringBuilder_init();",
+        "@try {",
+        "  [((JavaLangStringBuilder *) nil_chk([sb appendWithInt:i])) appendWithChar:' '];",
+        "  return [sb description];",
+        "}",
+        " @finally {",
+        "  RELEASE_(sb);",
+        "}");
+  }
+
+  public void testUnusedObject() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test() { Object o = new Object(); } }", "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "id o = new_NSObject_init();",
+        "RELEASE_(o);");
+  }
+
+  public void testEscapingObjects() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { Object o; "
+        + "Object test1() { Object a = new Object(); return a; } "
+        + "void test2() { Object b = new Object(); o = b; } "
+        + "Test test3() { Test c = new Test(); return c.self(); } "
+        + "Runnable test4() { Test d = new Test(); return () -> d.self(); } "
+        + "Test self() { return this; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "@try");
+    assertTranslation(translation, "id a = create_NSObject_init();");
+    assertTranslation(translation, "id b = create_NSObject_init();");
+    assertTranslation(translation, "Test *c = create_Test_init();");
+    assertTranslation(translation, "Test *d = create_Test_init();");
+  }
+
+  public void testDisabledByDefault() throws IOException {
+    options.setEscapeAnalysis(false);
+    String translation = translateSourceFile(
+        "class Test { int test() { Object o = new Object(); return o.hashCode(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "id o = create_NSObject_init();");
+  }
+
+  public void testARC() throws IOException {
+    options.setMemoryManagementOption(MemoryManagementOption.ARC);
+    String translation = translateSourceFile(
+        "class Test { int test() { Object o = new Object(); return o.hashCode(); } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "@try");
+    assertTranslation(translation, "id o = new_NSObject_init();");
+  }
+}
@@ -61,7 +61,7 @@ public class FunctionizerTest extends GenerationTest {
     translation = getTranslatedFile("A.m");
     assertTranslation(translation, "static " + functionHeader + ";");
     assertTranslatedLines(translation, functionHeader + " {",
-        "return JreStrcat(\"$@\", msg, cls);");
+        "return JreStrcat2(msg, cls);");
     assertTranslation(translation,
         "return A_strWithNSString_withIOSClass_(self, msg, [self java_getClass]);");
   }
@@ -206,7 +206,7 @@ public class FunctionizerTest extends GenerationTest {
     // Check new function.
     assertTranslatedLines(translation, functionHeader + " {",
         "A_initialize();",
-        "return JreStrcat(\"$@\", msg, cls);");
+        "return JreStrcat2(msg, cls);");
     // Check wrapper.
     assertTranslatedLines(translation,
         "+ (NSString *)strWithNSString:(NSString *)msg",
@@ -231,7 +231,7 @@ public class FunctionizerTest extends GenerationTest {
     // Check new function.
     assertTranslatedLines(translation, functionHeader + " {",
         "A_initialize();",
-        "return JreStrcat(\"$@\", msg, cls);");
+        "return JreStrcat2(msg, cls);");
     // Check wrapper.
     assertTranslatedLines(translation,
         "+ (NSString *)strWithNSString:(NSString *)msg",
@@ -364,6 +364,26 @@ public class FunctionizerTest extends GenerationTest {
     assertNotInTranslation(translation, "Test_A_foo");
   }
 
+  // Verify that invocations of methods that can't be overridden call the function directly.
+  public void testStaticallyDispatchedMethods() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final class A { int foo() { return 1; } } "
+        + "enum E { X, Y; int bar() { return 2; } } "
+        + "private static class B { int baz() { return 3; } } "
+        + "private static class C { int qux() { return 4; } } "
+        + "private static class D extends C { int qux() { return 5; } } "
+        + "int test(A a, E e, B b, C c) { return a.foo() + e.bar() + b.baz() + c.qux(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "static jint Test_A_foo(Test_A *self);");
+    assertTranslation(translation, "Test_A_foo(nil_chk(a))");
+    assertTranslation(translation, "Test_E_bar(nil_chk(e))");
+    assertTranslation(translation, "Test_B_baz(nil_chk(b))");
+    assertTranslation(translation, "[((Test_C *) nil_chk(c)) qux]");
+    assertNotInTranslation(translation, "Test_C_qux");
+    // The methods are kept for dynamic dispatch.
+    assertTranslatedLines(translation, "- (jint)foo {", "return Test_A_foo(self);", "}");
+  }
+
   public void testPrivateMethodCalledFromAnonymousEnum() throws IOException {
     String translation = translateSourceFile(
         "enum Test { A { void bar() { foo(); } }; private static void foo() {} }",
@@ -109,4 +109,13 @@ public class GwtConverterTest extends GenerationTest {
     assertNotInTranslation(translation, "return @\"one\";");
     assertTranslation(translation, "return @\"two\";");
   }
+
+  // Regression test: GwtConverter.visit(ConditionalExpression) threw an NPE.
+  public void testGwtIsScriptConditional() throws IOException {
+    String translation = translateSourceFile("import com.google.gwt.core.client.GWT;"
+        + "class Test { String test() { "
+        + "  return GWT.isScript() ? \"one\" : \"two\"; }}", "Test", "Test.m");
+    assertNotInTranslation(translation, "@\"one\"");
+    assertTranslation(translation, "return @\"two\";");
+  }
 }
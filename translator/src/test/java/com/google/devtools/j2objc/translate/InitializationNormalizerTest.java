@@ -174,7 +174,7 @@ public class InitializationNormalizerTest extends GenerationTest {
     String translation = translateSourceFile(source, "Test", "Test.m");
     assertTranslation(translation, "NSString *Test_foo;");
     assertTranslation(translation,
-        "JreStrongAssign(&Test_foo, JreStrcat(\"$$\", @\"hello1\", "
+        "JreStrongAssign(&Test_foo, JreStrcat2(@\"hello1\", "
         + "[NSString stringWithCharacters:(jchar[]) { (int) 0xdfff } length:1]));");
   }
 
@@ -355,4 +355,111 @@ public class NilCheckResolverTest extends GenerationTest {
     assertTranslation(translation, "@throw nil_chk(e);");
     assertTranslation(translation, "@throw create_JavaLangRuntimeException_init();");
   }
+
+  public void testNonnullPrivateFinalField() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { private final Object o; private final Object p; Object q;"
+        + " Test(Object p) { o = new Object(); this.p = p; q = new Object(); }"
+        + " void test() { o.toString(); p.toString(); q.toString(); } }", "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "[o_ description];",
+        "[nil_chk(p_) description];",
+        "[nil_chk(q_) description];");
+  }
+
+  public void testNonnullPrivateFinalFieldInConstructor() throws IOException {
+    // The initializer is moved into the constructor, where the read is
+    // checked by flow analysis rather than by the field's inferred values.
+    String translation = translateSourceFile(
+        "class Test { private final String s = new String(); int n;"
+        + " Test() { n = s.length(); } int test() { return s.length(); } }", "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "JreStrongAssign(&self->s_, [NSString string]);",
+        "self->n_ = [self->s_ java_length];");
+    assertTranslation(translation, "return [s_ java_length];");
+  }
+
+  public void testNonnullPrivateFinalFieldReadBeforeAssignment() throws IOException {
+    // The constructor calls helper() before s is assigned.
+    String translation = translateSourceFile(
+        "class Test { private final String s;"
+        + " Test() { helper(); s = \"\"; }"
+        + " private void helper() { s.length(); } }", "Test", "Test.m");
+    assertTranslation(translation, "[((NSString *) nil_chk(self->s_)) java_length];");
+    // A superclass constructor may call an overridden method first.
+    translation = translateSourceFile(
+        "class Test { static class A { A() { foo(); } void foo() {} }"
+        + " static class B extends A { private final String s = \"\";"
+        + " void foo() { s.length(); } } }", "Test", "Test.m");
+    assertTranslation(translation, "[((NSString *) nil_chk(s_)) java_length];");
+    // String concatenation calls toString() before b is assigned.
+    translation = translateSourceFile(
+        "class Test { private final String a; private final Object b;"
+        + " Test() { this.a = \"\" + this; this.b = new Object(); }"
+        + " public String toString() { return b.toString(); } }", "Test", "Test.m");
+    assertTranslation(translation, "nil_chk(b_)");
+  }
+
+  public void testNonnullReturnOfPrivateMethod() throws IOException {
+    String translation = translateSourceFile(
+        "class Test {"
+        + " private String a(boolean b) { return b ? \"a\" : c(); }"
+        + " private static String c() { return \"c\" + 1; }"
+        + " String d() { return \"d\"; }"
+        + " private String e(String s) { return s; }"
+        + " void test(boolean b) {"
+        + " a(b).length(); c().length(); d().length(); e(\"\").length(); } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "[Test_aWithBoolean_(self, b) java_length];",
+        "[Test_c() java_length];",
+        "[((NSString *) nil_chk([self d])) java_length];",
+        "[((NSString *) nil_chk(Test_eWithNSString_(self, @\"\"))) java_length];");
+  }
+
+  public void testNonnullReturnOfRecursiveMethods() throws IOException {
+    String translation = translateSourceFile(
+        "class Test {"
+        + " private static String a(int i) { return i > 0 ? b(i - 1) : \"a\"; }"
+        + " private static String b(int i) { return i > 0 ? a(i - 1) : \"b\"; }"
+        + " private static String c(int i) { return i > 0 ? d(i - 1) : \"c\"; }"
+        + " private static String d(int i) { return i > 0 ? c(i - 1) : null; }"
+        + " void test() { a(1).length(); c(1).length(); } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "[Test_aWithInt_(1) java_length];",
+        "[((NSString *) nil_chk(Test_cWithInt_(1))) java_length];");
+  }
+
+  public void testNonnullAnnotations() throws IOException {
+    String translation = translateSourceFile(
+        "import javax.annotation.*; abstract class Test {"
+        + " @Nonnull abstract String a(); @Nullable abstract String b(); abstract String c();"
+        + " void test(@Nonnull String s, String t) {"
+        + " a().length(); b().length(); c().length(); s.length(); t.length(); } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "[[self a] java_length];",
+        "[((NSString *) nil_chk([self b])) java_length];",
+        "[((NSString *) nil_chk([self c])) java_length];",
+        "[s java_length];",
+        "[((NSString *) nil_chk(t)) java_length];");
+  }
+
+  public void testDefaultNonnull() throws IOException {
+    options.setDefaultNonnull(true);
+    String translation = translateSourceFile(
+        "import javax.annotation.*; abstract class Test {"
+        + " abstract String a(); @Nullable abstract String b();"
+        + " void test(String s, @Nullable String t, Object o) {"
+        + " a().length(); b().length(); s.length(); t.length(); o.toString().length(); } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "[[self a] java_length];",
+        "[((NSString *) nil_chk([self b])) java_length];",
+        "[s java_length];",
+        "[((NSString *) nil_chk(t)) java_length];");
+    // Methods declared outside the unit aren't affected.
+    assertTranslation(translation, "nil_chk([o description])");
+  }
 }
@@ -169,6 +169,36 @@ public class OperatorRewriterTest extends GenerationTest {
     assertTranslation(translation, "JreStrAppend(&str, \"$I\", @\"bar\", x);");
   }
 
+  public void testStringConcatenationFoldsConstants() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final String PREFIX = \"key.\"; static final int ID = 42; "
+        + "static final char SEP = ':'; "
+        + "String test(int i, Object o) { return PREFIX + ID + SEP + i + (Test.SEP) + o; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return JreStrcat(\"$IC@\", @\"key.42:\", i, ':', o);");
+  }
+
+  public void testStringConcatenationDoesNotFoldSurrogateChars() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final char HIGH = '\\ud800'; "
+        + "String test(int i) { return \"a\" + HIGH + i + '\\udc00'; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "return JreStrcat(\"CCIC\", 'a', Test_HIGH, i, 0xdc00);");
+  }
+
+  public void testTwoOperandStringConcatenation() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final String SEP = \"/\"; "
+        + "String test1(String s) { return \"prefix\" + s; } "
+        + "String test2(Object o) { return o + SEP; } "
+        + "String test3(int i) { return \"prefix\" + i; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return JreStrcat2(@\"prefix\", s);");
+    assertTranslation(translation, "return JreStrcat2(o, @\"/\");");
+    assertTranslation(translation, "return JreStrcat(\"$I\", @\"prefix\", i);");
+  }
+
   public void testRetainedWithAnnotation() throws IOException {
     String translation = translateSourceFile(
         "import com.google.j2objc.annotations.RetainedWith;"
@@ -32,7 +32,7 @@ public class StaticVarRewriterTest extends GenerationTest {
         "Test", "Test.m");
     assertTranslatedLines(translation,
         "[nil_chk(((Test *) nil_chk(JreLoadStatic(Test, test)))->obj_) description];",
-        "[nil_chk(((Test *) nil_chk(JreLoadStatic(Test, test)))->obj_) description];");
+        "[nil_chk(((Test *) nil_chk(Test_test))->obj_) description];");
   }
 
   public void testAssinmentToNewObject() throws IOException {
@@ -63,9 +63,9 @@ public class StaticVarRewriterTest extends GenerationTest {
         + " int c = getTest().i++; int d = getTest().i = 6; } } }", "Test", "Test.m");
     assertTranslatedLines(translation,
         "jint a = JreLoadStatic(Test, i);",
-        "jint b = (Test_Inner_getTest(), JreLoadStatic(Test, i));",
-        "jint c = (*(Test_Inner_getTest(), JreLoadStaticRef(Test, i)))++;",
-        "jint d = *(Test_Inner_getTest(), JreLoadStaticRef(Test, i)) = 6;");
+        "jint b = (Test_Inner_getTest(), Test_i);",
+        "jint c = (*(Test_Inner_getTest(), &Test_i))++;",
+        "jint d = *(Test_Inner_getTest(), &Test_i) = 6;");
   }
 
   public void testStaticLoadWithArrayAccess() throws IOException {
@@ -75,8 +75,44 @@ public class StaticVarRewriterTest extends GenerationTest {
         "Test", "Test.m");
     assertTranslatedLines(translation,
         "*IOSIntArray_GetRef(nil_chk(JreLoadStatic(Test_Inner, ints)), 0) = 1;",
-        "*IOSIntArray_GetRef(JreLoadStatic(Test_Inner, ints), 0) += 2;",
-        "return IOSIntArray_Get(JreLoadStatic(Test_Inner, ints), 0);");
+        "*IOSIntArray_GetRef(Test_Inner_ints, 0) += 2;",
+        "return IOSIntArray_Get(Test_Inner_ints, 0);");
+  }
+
+  public void testRepeatedStaticLoads() throws IOException {
+    addSourceFile("class A { static int i; static int j; }", "A.java");
+    String translation = translateSourceFile(
+        "class Test { int test(boolean b) { int x = A.i + A.j; int y = A.j; "
+        + " if (b) { y = A.i; } return x + y + A.i; } }", "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "jint x = JreLoadStatic(A, i) + JreLoadStatic(A, j);",
+        "jint y = A_j;",
+        "if (b) {",
+        "  y = A_i;",
+        "}",
+        "return x + y + A_i;");
+  }
+
+  public void testConditionalStaticLoads() throws IOException {
+    addSourceFile("class A { static int i; }", "A.java");
+    addSourceFile("class B { static int i; }", "B.java");
+    String translation = translateSourceFile(
+        "class Test { int test(boolean b) { int x = 0; if (b) { x = A.i; } "
+        + " x = b ? B.i : x; return x + A.i + B.i; } }", "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "jint x = 0;",
+        "if (b) {",
+        "  x = JreLoadStatic(A, i);",
+        "}",
+        "x = b ? JreLoadStatic(B, i) : x;",
+        "return x + JreLoadStatic(A, i) + JreLoadStatic(B, i);");
+  }
+
+  public void testSuperclassStaticLoad() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static int i; static class Sub extends Test { int test() { return i; } } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation, "- (jint)test {", "  return Test_i;");
   }
 
   // Verify that Class.CONSTANT_FIELD.CONSTANT translates correctly.
@@ -150,6 +150,42 @@ public class SwitchRewriterTest extends GenerationTest {
         "}");
   }
 
+  // Verify that switches with many string cases dispatch on the hash code.
+  public void testHashedStringSwitchStatement() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final String CONST = \"c\"; int test(String s) { "
+        + "  switch(s) {"
+        + "    case \"Aa\": return 0;"  // "Aa" and "BB" have the same hash code.
+        + "    case \"BB\": return 1;"
+        + "    case CONST: case \"d\": return 2;"
+        + "    case \"e\": return 3;"
+        + "    case \"f\": return 4;"
+        + "    case \"g\": return 5;"
+        + "    case \"h\":"
+        + "    default: return -1;"
+        + "  }}}",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "NSString *str__ = s;",
+        "jint index__ = -1;",
+        "switch (JreStringHashCode(str__)) {");
+    assertTranslation(translation, "case 2112:");
+    assertTranslation(translation, "if ([str__ isEqual:@\"Aa\"]) index__ = 0;");
+    assertTranslation(translation, "else if ([str__ isEqual:@\"BB\"]) index__ = 1;");
+    assertTranslation(translation, "case 99:");
+    assertTranslation(translation, "if ([str__ isEqual:Test_CONST]) index__ = 2;");
+    assertTranslatedLines(translation,
+        "switch (index__) {",
+        "  case 0:",
+        "  return 0;",
+        "  case 1:",
+        "  return 1;",
+        "  case 2:",
+        "  case 3:",
+        "  return 2;");
+    assertNotInTranslation(translation, "JreIndexOfStr");
+  }
+
   /**
    * Verify that when a the last switch case is empty (no statement),
    * an empty statement is added.  Java doesn't require an empty statement
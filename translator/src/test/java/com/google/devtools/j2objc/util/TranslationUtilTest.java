@@ -80,6 +80,25 @@ public class TranslationUtilTest extends GenerationTest {
     assertTrue(translationUtil.needsReflection(unit.getTypes().get(0)));
   }
 
+  public void testListedClassNeedsReflection() throws IOException {
+    options.addReflectionClass("foo.A");
+    options.addReflectionClass("foo.B$Inner");
+    options.addReflectionClass("bar.*");
+    assertTrue(options.stripReflection());
+    CompilationUnit unit = translateType("foo.A", "package foo; public class A {}");
+    TranslationUtil translationUtil = unit.getEnv().translationUtil();
+    assertTrue(translationUtil.needsReflection(unit.getTypes().get(0)));
+
+    unit = translateType("foo.B", "package foo; public class B { static class Inner {} }");
+    translationUtil = unit.getEnv().translationUtil();
+    assertFalse(translationUtil.needsReflection(unit.getTypes().get(0)));
+    assertTrue(translationUtil.needsReflection(unit.getTypes().get(1)));
+
+    unit = translateType("bar.C", "package bar; public class C {}");
+    translationUtil = unit.getEnv().translationUtil();
+    assertTrue(translationUtil.needsReflection(unit.getTypes().get(0)));
+  }
+
   public void testJUnit3TestKeepsReflection() {
     options.setStripReflection(true);
     String source =